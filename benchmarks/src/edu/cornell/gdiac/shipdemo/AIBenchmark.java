@@ -0,0 +1,90 @@
+/*
+ * AIBenchmark.java
+ *
+ * Benchmarks a single tick of each AI controller.  The controllers run inside
+ * of a headless game so that they can see the player.  The ship is put back at
+ * its starting position before each tick; otherwise it would wander off and
+ * the controller would end up in a different state than in a real game.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+import edu.cornell.gdiac.shipdemo.ai.AIController;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for a tick (update and apply) of each AIController subclass.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AIBenchmark {
+	/** Distance from the player to each ship (within range of all behaviors) */
+	private static final float DISTANCE = 250;
+
+	/** The headless game the controllers live in */
+	private GameMode game;
+	/** Controller for an apple */
+	private AIController apple;
+	/** Controller for an orange */
+	private AIController orange;
+	/** Controller for a strawberry */
+	private AIController strawberry;
+	/** The frame counter passed to the controllers */
+	private int frame;
+
+	/**
+	 * Spawns one ship of each type next to the player
+	 */
+	@Setup
+	public void setup() {
+		game = new GameMode(Simulation.DEFAULT_WIDTH, Simulation.DEFAULT_HEIGHT, 0L);
+		apple = game.getAIController(game.spawn(DISTANCE, 0, FruitType.APPLE));
+		orange = game.getAIController(game.spawn(0, DISTANCE, FruitType.ORANGE));
+		strawberry = game.getAIController(game.spawn(-DISTANCE, 0, FruitType.STRAWBERRY));
+		frame = 0;
+	}
+
+	/**
+	 * Benchmarks a tick of the apple controller
+	 *
+	 * @return the controller (to defeat dead code elimination)
+	 */
+	@Benchmark
+	public AIController apple() {
+		apple.getFruit().setPosition(DISTANCE, 0);
+		apple.update(++frame);
+		apple.apply();
+		return apple;
+	}
+
+	/**
+	 * Benchmarks a tick of the orange controller
+	 *
+	 * @return the controller (to defeat dead code elimination)
+	 */
+	@Benchmark
+	public AIController orange() {
+		orange.getFruit().setPosition(0, DISTANCE);
+		orange.update(++frame);
+		orange.apply();
+		return orange;
+	}
+
+	/**
+	 * Benchmarks a tick of the strawberry controller
+	 *
+	 * @return the controller (to defeat dead code elimination)
+	 */
+	@Benchmark
+	public AIController strawberry() {
+		strawberry.getFruit().setPosition(-DISTANCE, 0);
+		strawberry.update(++frame);
+		strawberry.apply();
+		return strawberry;
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * BroadphaseBenchmark.java
+ *
+ * Benchmarks the ship-to-ship collision pass (broadphase grid plus narrowphase)
+ * over a whole population of ships.  The ships are scattered uniformly over the
+ * arena, and put back in the same positions before every pass, so the amount
+ * of work is identical from invocation to invocation.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for CollisionController.checkForCollisions at several population sizes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BroadphaseBenchmark {
+	/** Number of ships in the arena */
+	@Param({"25", "250", "2500"})
+	public int fruitCount;
+
+	/** The controller under test */
+	private CollisionController physics;
+	/** The ships to collide */
+	private FruitStore fruits;
+	/** Initial x-coordinate of each ship */
+	private float[] startX;
+	/** Initial y-coordinate of each ship */
+	private float[] startY;
+
+	/**
+	 * Scatters the ships over the arena
+	 */
+	@Setup
+	public void setup() {
+		physics = new CollisionController(GameMode.BOUND_X, GameMode.BOUND_Y);
+		fruits = new FruitStore();
+		startX = new float[fruitCount];
+		startY = new float[fruitCount];
+
+		Random random = new Random(0);
+		for (int ii = 0; ii < fruitCount; ii++) {
+			startX[ii] = (2*random.nextFloat()-1)*GameMode.BOUND_X;
+			startY[ii] = (2*random.nextFloat()-1)*GameMode.BOUND_Y;
+			int handle = fruits.reserve();
+			fruits.add(handle, new Strawberry(startX[ii], startY[ii], 0, 1, handle), null);
+		}
+	}
+
+	/**
+	 * Benchmarks a full ship-to-ship collision pass
+	 *
+	 * @return the ships (to defeat dead code elimination)
+	 */
+	@Benchmark
+	public FruitStore collide() {
+		for (int ii = 0; ii < fruitCount; ii++) {
+			Fruit s = fruits.getFruit(ii);
+			s.setPosition(startX[ii], startY[ii]);
+			s.setVelocity(0, 0);
+		}
+		physics.checkForCollisions(fruits);
+		return fruits;
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * CollisionBenchmark.java
+ *
+ * Microbenchmarks for the narrowphase collision tests in CollisionController.
+ * Each benchmark puts the two objects back in an overlapping position before
+ * the test, so that every invocation goes down the (more expensive) collision
+ * branch instead of the early out.
+ *
+ * Run with the gc profiler (the default for the jmh task) to see the allocation
+ * rate.  Any nonzero gc.alloc.rate.norm here is garbage made every frame.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for each overload of CollisionController.checkForCollision.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+	/** The controller under test */
+	private CollisionController physics;
+	/** First ship in the ship-ship tests */
+	private Fruit fruit1;
+	/** Second ship in the ship-ship tests */
+	private Fruit fruit2;
+	/** The player, for the photon tests */
+	private Monkey monkey;
+	/** The photon queue holding the test photon */
+	private PhotonQueue photons;
+	/** The test skewer */
+	private Skewer skewer;
+
+	/**
+	 * Creates the models for the benchmarks
+	 */
+	@Setup
+	public void setup() {
+		physics = new CollisionController(GameMode.BOUND_X, GameMode.BOUND_Y);
+		fruit1 = new Apple(0, 0, 0, 1, 1);
+		fruit2 = new Orange(0, 0, 0, 1, 2);
+		monkey = new Monkey(0, 0, 0, 1.5f);
+		photons = new PhotonQueue();
+		skewer = new Skewer();
+	}
+
+	/**
+	 * Benchmarks a ship-ship collision
+	 *
+	 * @return the first ship (to defeat dead code elimination)
+	 */
+	@Benchmark
+	public Fruit shipShip() {
+		fruit1.setPosition(0, 0);
+		fruit1.setVelocity(1, 0);
+		fruit2.setPosition(40, 10);
+		fruit2.setVelocity(-1, 0);
+		physics.checkForCollision(fruit1, fruit2);
+		return fruit1;
+	}
+
+	/**
+	 * Benchmarks a character-photon collision
+	 *
+	 * @return the photons (to defeat dead code elimination)
+	 */
+	@Benchmark
+	public PhotonQueue characterPhoton() {
+		monkey.getPosition().set(0, 0);
+		photons.clear();
+		photons.addPhoton(20, 10, -4, 0, FruitType.STRAWBERRY);
+		physics.checkForCollision(monkey, photons, 0);
+		return photons;
+	}
+
+	/**
+	 * Benchmarks a ship-skewer collision
+	 *
+	 * @return the ship (to defeat dead code elimination)
+	 */
+	@Benchmark
+	public Fruit shipSkewer() {
+		fruit1.setPosition(0, 0);
+		skewer.x = 10;
+		skewer.y = 10;
+		skewer.damage = 1;
+		physics.checkForCollision(fruit1, skewer);
+		return fruit1;
+	}
+
+	/**
+	 * Benchmarks a ship-punch (stun) collision
+	 *
+	 * @return the ship (to defeat dead code elimination)
+	 */
+	@Benchmark
+	public Fruit shipPunch() {
+		fruit1.setPosition(0, 0);
+		fruit1.setVelocity(1, 0);
+		skewer.xp = 10;
+		skewer.yp = 10;
+		physics.checkForStunCollision(fruit1, skewer);
+		return fruit1;
+	}
+
+	/**
+	 * Benchmarks the boundary check
+	 *
+	 * @return the ship (to defeat dead code elimination)
+	 */
+	@Benchmark
+	public Fruit bounds() {
+		fruit1.setPosition(GameMode.BOUND_X + 10, -GameMode.BOUND_Y - 10);
+		physics.checkForBounds(fruit1, GameMode.BOUND_X, GameMode.BOUND_Y);
+		return fruit1;
+	}
+}
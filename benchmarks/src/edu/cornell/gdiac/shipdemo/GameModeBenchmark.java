@@ -0,0 +1,53 @@
+/*
+ * GameModeBenchmark.java
+ *
+ * Benchmarks a full tick of the game loop in a headless simulation.  The game
+ * is run until it reaches the requested population before measuring.  As the
+ * player is invulnerable and never attacks, the population stays constant for
+ * the rest of the benchmark.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for GameMode.update at several population sizes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GameModeBenchmark {
+	/** Number of enemy ships in the game */
+	@Param({"25", "250", "2500"})
+	public int fruitCount;
+
+	/** The simulation under test */
+	private Simulation sim;
+
+	/**
+	 * Runs the simulation until it reaches the requested population
+	 */
+	@Setup
+	public void setup() {
+		sim = new Simulation(0L, fruitCount);
+		if (!sim.populate(fruitCount, 10*fruitCount)) {
+			throw new IllegalStateException("Could not spawn "+fruitCount+" fruits");
+		}
+	}
+
+	/**
+	 * Benchmarks a single game tick
+	 *
+	 * @return the simulation (to defeat dead code elimination)
+	 */
+	@Benchmark
+	public Simulation tick() {
+		sim.step();
+		return sim;
+	}
+}
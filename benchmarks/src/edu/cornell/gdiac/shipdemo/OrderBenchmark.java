@@ -0,0 +1,55 @@
+/*
+ * OrderBenchmark.java
+ *
+ * Benchmarks the check for completed orders, which runs every frame.  The
+ * skewers are filled with empty slots, which never match an order, so the
+ * orders are never consumed and every invocation does the full comparison.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for OrderController.completed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderBenchmark {
+	/** The controller under test */
+	private OrderController orders;
+
+	/**
+	 * Creates a full set of orders and full (non-matching) skewers
+	 */
+	@Setup
+	public void setup() {
+		GameMode game = new GameMode(Simulation.DEFAULT_WIDTH, Simulation.DEFAULT_HEIGHT, 0L);
+		orders = new OrderController(game);
+		for (int ii = 0; ii < OrderController.MaxOrders; ii++) {
+			orders.addOrder();
+		}
+		for (int skew = 0; skew < 3; skew++) {
+			for (int ii = 0; ii < 3; ii++) {
+				orders.acceptIngredient(FruitType.EMPTY);
+			}
+			orders.switchSkewer();
+		}
+	}
+
+	/**
+	 * Benchmarks checking the orders against the skewers
+	 *
+	 * @return the controller (to defeat dead code elimination)
+	 */
+	@Benchmark
+	public OrderController completed() {
+		orders.completed();
+		return orders;
+	}
+}
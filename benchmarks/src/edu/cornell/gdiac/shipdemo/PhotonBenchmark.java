@@ -0,0 +1,143 @@
+/*
+ * PhotonBenchmark.java
+ *
+ * Benchmarks the photon particle system with a fixed number of live photons.
+ * Photons die of old age as they move, so the move benchmark refires photons to
+ * keep the count steady.  This is the same steady state as a game where the
+ * ships are firing constantly.  The queue grows, so the count is a parameter.
+ *
+ * A collision pushes the character and spends the damage of the photons it
+ * hits.  So the collision benchmark rebuilds its character and photons at the
+ * start of every call, or it would soon be timing a query that finds nothing.
+ * The rebuild is timed too (a per-call JMH setup would distort a call this
+ * short), so collideReset times the rebuild alone.  The collision itself is
+ * the difference in the time per call of the two.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for PhotonQueue.move and PhotonQueue.shipPhotonCollisions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PhotonBenchmark {
+	/** Number of live photons */
+	@Param({"512", "32768"})
+	public int photonCount;
+
+	/** The photons under test */
+	private PhotonQueue photons;
+	/** The collision controller */
+	private CollisionController physics;
+	/** The screen bounds */
+	private Rectangle bounds;
+	/** Position to fire new photons from */
+	private Vector2 origin;
+	/** Velocity of the ship firing new photons */
+	private Vector2 velocity;
+	/** Generator for firing angles */
+	private Random random;
+
+	/** The photons to collide against the character */
+	private PhotonQueue targets;
+	/** The character to collide the photons against */
+	private Monkey monkey;
+	/** Generator for the target photons (reseeded on every reset) */
+	private Random targetRandom;
+
+	/**
+	 * Fills the queue with photons scattered around the origin
+	 */
+	@Setup
+	public void setup() {
+		photons = new PhotonQueue();
+		physics = new CollisionController(GameMode.BOUND_X, GameMode.BOUND_Y);
+		bounds = new Rectangle(0, 0, Simulation.DEFAULT_WIDTH, Simulation.DEFAULT_HEIGHT);
+		origin = new Vector2();
+		velocity = new Vector2();
+		random = new Random(0);
+		for (int ii = 0; ii < photonCount; ii++) {
+			fire(photons, random);
+		}
+
+		targets = new PhotonQueue();
+		monkey = new Monkey(0, 0, 0, 1.5f);
+		targetRandom = new Random();
+	}
+
+	/**
+	 * Puts the character back at the origin, and refires the same photons
+	 */
+	private void resetTargets() {
+		monkey.getPosition().set(0, 0);
+		monkey.getVelocity().set(0, 0);
+		targets.clear();
+		targetRandom.setSeed(0);
+		for (int ii = 0; ii < photonCount; ii++) {
+			fire(targets, targetRandom);
+		}
+	}
+
+	/**
+	 * Fires a photon from a random spot near the origin
+	 *
+	 * @param queue		The queue to fire into
+	 * @param generator	The generator for the spot and angle
+	 */
+	private void fire(PhotonQueue queue, Random generator) {
+		origin.set(400*generator.nextFloat()-200, 400*generator.nextFloat()-200);
+		queue.addPhoton(origin, velocity, 360*generator.nextFloat(), FruitType.STRAWBERRY);
+	}
+
+	/**
+	 * Benchmarks moving all photons (refiring the ones that died)
+	 *
+	 * @return the photons (to defeat dead code elimination)
+	 */
+	@Benchmark
+	public PhotonQueue move() {
+		photons.move(bounds);
+		while (photons.getSize() < photonCount) {
+			fire(photons, random);
+		}
+		return photons;
+	}
+
+	/**
+	 * Benchmarks rebuilding the character and photons of collide
+	 *
+	 * This is the baseline for collide.
+	 *
+	 * @return the character (to defeat dead code elimination)
+	 */
+	@Benchmark
+	public Monkey collideReset() {
+		resetTargets();
+		return monkey;
+	}
+
+	/**
+	 * Benchmarks colliding all photons against a single character
+	 *
+	 * This includes the rebuild timed by collideReset.
+	 *
+	 * @return the character (to defeat dead code elimination)
+	 */
+	@Benchmark
+	public Monkey collide() {
+		resetTargets();
+		targets.shipPhotonCollisions(monkey, physics);
+		return monkey;
+	}
+}
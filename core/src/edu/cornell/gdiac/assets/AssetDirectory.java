@@ -16,11 +16,14 @@
  */
 package edu.cornell.gdiac.assets;
 
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.assets.loaders.*;
 import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.*;
@@ -28,10 +31,12 @@ import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectIntMap;
 import com.badlogic.gdx.utils.ObjectMap;
 import edu.cornell.gdiac.audio.AudioSource;
 import edu.cornell.gdiac.audio.MusicQueue;
 import edu.cornell.gdiac.audio.SoundEffect;
+import edu.cornell.gdiac.audio.StreamingSoundEffect;
 
 /**
  * An asset manager that uses a JSON file to define its assets.
@@ -48,6 +53,11 @@ import edu.cornell.gdiac.audio.SoundEffect;
  * {@link TextureRegion},  {@link BitmapFont}, {@link SoundEffect}, {@link MusicQueue},
  * and {@link JsonValue}.
  *
+ * Textures that name a "pack" in the directory are packed into a {@link TextureAtlas}
+ * at load time (see {@link AtlasParser}).  Sprites that share an atlas can be drawn
+ * without flushing the sprite batch.  These images are accessed as {@link TextureRegion}
+ * objects with {@link #getEntry}, using the same key as the texture entry.
+ *
  * If you wish to add custom assets, you need to add BOTH a custom {@link AssetLoader}
  * and a custom {@link AssetParser} to this manager.  While a type can only have one
  * loader per file suffix, there is no limit on the number of asset parsers per type.
@@ -57,6 +67,13 @@ import edu.cornell.gdiac.audio.SoundEffect;
  * audio assets, fonts, and other JSON files.  To add more assets, you will need to
  * extend this class.
  *
+ * By default, {@link #loadAssets} loads every asset in the directory.  In on-demand
+ * mode (see {@link #setOnDemand}), it only reads the directory, and {@link #getEntry}
+ * loads each asset the first time it is asked for.  Assets that are not resident yet
+ * are returned as a placeholder (see {@link #setPlaceholder}).  With a memory budget
+ * (see {@link #setMemoryBudget}), the least recently used assets are unloaded when
+ * the resident assets go over budget.
+ *
  * We have decided not implement this class as a singleton. It is possible that you 
  * may want more than one asset manager (for managing separate scenes).  If you
  * need to globalize access to this asset manager, use {@link ResourceManager}.
@@ -70,6 +87,24 @@ public class AssetDirectory extends AssetManager {
     protected Index contents;
     /** The dedicated loader for the {@link Index} class */
     protected DirectoryLoader topLoader;
+    /** The number of threads decoding files ahead of their loaders (0 for none) */
+    protected int decodeThreads;
+    /** The threads decoding files ahead of their loaders (null until needed) */
+    protected DecodePool decodePool;
+    /** The on-disk cache of decoded images (null for none) */
+    protected TextureCache textureCache;
+    /** Whether assets are only loaded when their entries are asked for */
+    protected boolean onDemand;
+    /** The memory budget of the on-demand assets in bytes (0 for none) */
+    protected long memoryBudget;
+    /** The placeholders of on-demand assets that are not resident yet, by type */
+    protected ObjectMap<Class<?>, Object> placeholders;
+    /** The file names of the on-demand assets, from least to most recently used */
+    private Array<String> residents;
+    /** The frame in which each on-demand asset was last used */
+    private ObjectIntMap<String> lastUse;
+    /** The number of calls to {@link #update} (used as a frame count) */
+    private int frames;
 
     /**
      * This class represents the top level index of an asset directory.
@@ -81,14 +116,17 @@ public class AssetDirectory extends AssetManager {
     public static class Index {
         /** The mapping from JSON keys to file names */
         ObjectMap<Class<?>, ObjectMap<String, String>> keymap;
-        /** The contents of the JSON file */
+        /** The contents of the JSON file (null if read from an {@link AssetIndex}) */
         JsonValue directory;
+        /** The loads of an on-demand directory, by file name (empty otherwise) */
+        ObjectMap<String, AssetDescriptor<?>> declared;
         
         /**
          * Creates a new, empty directory index
          */
         public Index() {
             keymap = new ObjectMap<Class<?>, ObjectMap<String, String>>();
+            declared = new ObjectMap<String, AssetDescriptor<?>>();
         }
     }
 
@@ -150,8 +188,9 @@ public class AssetDirectory extends AssetManager {
         setLoader( MusicQueue.class, new MusicQueueLoader( resolver ) );
 
         setLoader( Pixmap.class, new PixmapLoader( resolver ) );
-        setLoader( Texture.class, new TextureLoader( resolver ) );
+        setLoader( Texture.class, new DecodedTextureLoader( resolver ) );
         setLoader( TextureAtlas.class, new TextureAtlasLoader( resolver ) );
+        setLoader( TextureAtlas.class, AtlasParser.SUFFIX, new PackedAtlasLoader( resolver ) );
         setLoader( TextureRegion.class, new TextureRegionLoader( resolver ) );
 
         setLoader( JsonValue.class, new JsonValueLoader( resolver ) );
@@ -163,9 +202,17 @@ public class AssetDirectory extends AssetManager {
 
         // And now the default parsers
         topLoader.addParser( new TextureParser() );
+        topLoader.addParser( new AtlasParser() );
         topLoader.addParser( new TextureRegionParser() );
         topLoader.addParser( new SoundEffectParser() );
         topLoader.addParser( new MusicQueueParser() );
+
+        // Leave a core for the main thread
+        decodeThreads = Math.max( 1, Runtime.getRuntime().availableProcessors()-1 );
+
+        placeholders = new ObjectMap<Class<?>, Object>();
+        residents = new Array<String>();
+        lastUse = new ObjectIntMap<String>();
     }
     
     /**
@@ -177,6 +224,301 @@ public class AssetDirectory extends AssetManager {
         return filename;
     }
 
+    /**
+     * Returns the number of threads decoding files ahead of their loaders
+     *
+     * @return the number of threads decoding files ahead of their loaders
+     */
+    public int getDecodeThreads() {
+        return decodeThreads;
+    }
+
+    /**
+     * Sets the number of threads decoding files ahead of their loaders
+     *
+     * Images (for textures and packed atlases) and audio sources are decoded on
+     * these threads as soon as they are queued, instead of one at a time by their
+     * loaders (see {@link DecodePool}).  If this is 0, the loaders decode them as
+     * usual.  The default is one less than the number of cores.
+     *
+     * This should be set before any assets are queued.
+     *
+     * @param threads   the number of threads decoding files ahead of their loaders
+     */
+    public synchronized void setDecodeThreads(int threads) {
+        decodeThreads = threads;
+        if (decodePool != null) {
+            decodePool.dispose();
+            decodePool = null;
+        }
+    }
+
+    /**
+     * Returns the threads decoding files ahead of their loaders
+     *
+     * This is null if no file has been decoded ahead, or if that is disabled.
+     *
+     * @return the threads decoding files ahead of their loaders
+     */
+    public synchronized DecodePool getDecodePool() {
+        return decodePool;
+    }
+
+    /**
+     * Returns the on-disk cache of decoded images
+     *
+     * @return the on-disk cache of decoded images (null for none)
+     */
+    public synchronized TextureCache getTextureCache() {
+        return textureCache;
+    }
+
+    /**
+     * Sets the on-disk cache of decoded images
+     *
+     * Images for textures and packed atlases are read from this cache instead
+     * of decoded, if they were cached by an earlier launch.  If this is null
+     * (the default), every image is decoded.
+     *
+     * This should be set before any assets are queued.
+     *
+     * @param cache the on-disk cache of decoded images (null for none)
+     */
+    public synchronized void setTextureCache(TextureCache cache) {
+        textureCache = cache;
+        if (decodePool != null) {
+            decodePool.dispose();
+            decodePool = null;
+        }
+    }
+
+    /**
+     * Returns true if assets are only loaded when their entries are asked for
+     *
+     * @return true if assets are only loaded when their entries are asked for
+     */
+    public boolean isOnDemand() {
+        return onDemand;
+    }
+
+    /**
+     * Sets whether assets are only loaded when their entries are asked for
+     *
+     * If this is true, {@link #loadAssets} only reads the directory.  The first
+     * call to {@link #getEntry} for a key queues the load of that asset (and the
+     * assets it depends on), and returns the placeholder of its type until the
+     * asset is resident.  The queue is loaded by {@link #update}, which should
+     * then be called every animation frame.  Code using an on-demand directory
+     * should ask for its entries when it draws them, rather than keep them, as
+     * it will not see the asset replace the placeholder (or be evicted).
+     *
+     * This should be set before {@link #loadAssets} is called.
+     *
+     * @param value whether assets are only loaded when their entries are asked for
+     */
+    public void setOnDemand(boolean value) {
+        onDemand = value;
+    }
+
+    /**
+     * Returns the memory budget of the on-demand assets in bytes
+     *
+     * @return the memory budget of the on-demand assets in bytes (0 for none)
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the memory budget of the on-demand assets in bytes
+     *
+     * When the resident on-demand assets use more memory than this (as measured
+     * by {@link #getMemoryUsage}), {@link #update} unloads the least recently used
+     * ones until they fit.  Assets used since the last call to update, and assets
+     * that other resident assets depend on, are never unloaded.  If this is 0 (the
+     * default), no asset is unloaded.
+     *
+     * @param bytes the memory budget of the on-demand assets in bytes (0 for none)
+     */
+    public void setMemoryBudget(long bytes) {
+        memoryBudget = bytes;
+    }
+
+    /**
+     * Returns the placeholder for on-demand assets of the given type
+     *
+     * @param type  the asset type
+     *
+     * @return the placeholder for on-demand assets of the given type (may be null)
+     */
+    public <T> T getPlaceholder(Class<T> type) {
+        return type.cast( placeholders.get( type, null ) );
+    }
+
+    /**
+     * Sets the placeholder for on-demand assets of the given type
+     *
+     * The placeholder is returned by {@link #getEntry} for any asset of that type
+     * that is not resident yet.  It belongs to the caller, and is not disposed by
+     * this manager.  Types with no placeholder (the default) give null.
+     *
+     * @param type          the asset type
+     * @param placeholder   the placeholder for assets of that type (null for none)
+     */
+    public <T> void setPlaceholder(Class<T> type, T placeholder) {
+        if (placeholder == null) {
+            placeholders.remove( type );
+        } else {
+            placeholders.put( type, placeholder );
+        }
+    }
+
+    /**
+     * Returns the memory used by the resident on-demand assets in bytes
+     *
+     * This is an estimate of the texture memory (width times height times the
+     * bytes per pixel of each texture) and the decoded audio (16 bit samples)
+     * of the on-demand assets.  Audio sources and streamed sound effects only
+     * decode a page at a time, so they count as no memory.  Other assets count
+     * as no memory.  Assets loaded by {@link #loadAssets} when not on demand are
+     * not counted.
+     *
+     * @return the memory used by the resident on-demand assets in bytes
+     */
+    public synchronized long getMemoryUsage() {
+        long total = 0;
+        for (String file : residents) {
+            if (isLoaded( file )) {
+                total += sizeOf( get( file ) );
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the decoded image of the given file
+     *
+     * This is for the loaders of this package.  The image is taken from the
+     * decode pool, or from the cache, or else decoded on the calling thread.
+     *
+     * @param file  The image file
+     *
+     * @return the decoded image of the given file
+     */
+    Pixmap decodePixmap(FileHandle file) {
+        DecodePool pool = getDecodePool();
+        if (pool != null) {
+            return pool.takePixmap( file );
+        }
+        TextureCache cache = getTextureCache();
+        return cache != null ? cache.decode( file ) : new Pixmap( file );
+    }
+
+    /**
+     * Adds the given asset to the loading queue of this manager
+     *
+     * In addition, the files that the asset (or its dependencies) must decode
+     * are handed to the decode pool.
+     *
+     * @param fileName  The file name (interpretation depends on the loader)
+     * @param type      The type of the asset
+     * @param parameter The parameters for the loader (may be null)
+     */
+    @Override
+    public synchronized <T> void load(String fileName, Class<T> type, AssetLoaderParameters<T> parameter) {
+        boolean loaded = isLoaded( fileName );
+        super.load( fileName, type, parameter );
+        if (!loaded && decodeThreads > 0) {
+            prefetch( fileName, type, parameter );
+        }
+    }
+
+    /**
+     * Updates the loading queue of this manager for one step
+     *
+     * When the queue is empty, the decode pool is stopped until more assets are
+     * queued.  Any decoded files that no loader took (e.g. for assets unloaded
+     * before they finished) are disposed.
+     *
+     * If the on-demand assets are over the memory budget, the least recently used
+     * ones are unloaded (see {@link #setMemoryBudget}).
+     *
+     * @return true if all loading is finished.
+     */
+    @Override
+    public synchronized boolean update() {
+        boolean done = super.update();
+        if (done && decodePool != null) {
+            decodePool.dispose();
+            decodePool = null;
+        }
+        if (memoryBudget > 0 && residents.size > 0) {
+            evict();
+        }
+        frames++;
+        return done;
+    }
+
+    /**
+     * Disposes all assets in this manager, and stops the decode pool
+     */
+    @Override
+    public synchronized void dispose() {
+        super.dispose();
+        if (decodePool != null) {
+            decodePool.dispose();
+            decodePool = null;
+        }
+    }
+
+    /**
+     * Hands the files that the given asset must decode to the decode pool
+     *
+     * Only the loaders of this package are known to decode files.  For the
+     * others, we follow the dependencies of the asset instead.
+     *
+     * @param fileName  The file name (interpretation depends on the loader)
+     * @param type      The type of the asset
+     * @param parameter The parameters for the loader (may be null)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void prefetch(String fileName, Class<?> type, AssetLoaderParameters parameter) {
+        AssetLoader loader = getLoader( type, fileName );
+        if (loader == null) {
+            return;
+        }
+        if (decodePool == null) {
+            decodePool = new DecodePool( decodeThreads, textureCache );
+        }
+
+        if (loader instanceof DecodedTextureLoader) {
+            TextureLoader.TextureParameter params = (TextureLoader.TextureParameter)parameter;
+            FileHandle file = loader.resolve( fileName );
+            if ((params == null || params.textureData == null) && DecodedTextureLoader.isDecoded( file )) {
+                decodePool.prefetchPixmap( file );
+            }
+        } else if (loader instanceof PackedAtlasLoader) {
+            if (parameter != null) {
+                for (String file : ((PackedAtlasLoader.PackedAtlasParameters)parameter).files) {
+                    decodePool.prefetchPixmap( loader.resolve( file ) );
+                }
+            }
+        } else if (loader instanceof AudioSourceLoader) {
+            decodePool.prefetchSource( loader.resolve( fileName ) );
+        } else if (loader instanceof TextureRegionLoader || loader instanceof SoundEffectLoader ||
+                   loader instanceof MusicQueueLoader) {
+            // Only these are known to have no side effects in getDependencies
+            Array<AssetDescriptor> deps = loader.getDependencies( fileName, loader.resolve( fileName ), parameter );
+            if (deps != null) {
+                for (AssetDescriptor dep : deps) {
+                    if (!isLoaded( dep.fileName )) {
+                        prefetch( dep.fileName, dep.type, dep.params );
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Loads all assets defined by the asset directory
      * 
@@ -198,10 +540,22 @@ public class AssetDirectory extends AssetManager {
      * Assets loaded manually (e.g. not via the asset directory JSON) will not be
      * affected and will remain in this asset manager.
      */
-    public void unloadAssets() {
+    public synchronized void unloadAssets() {
         if (contents == null) {
             return;
         }
+        if (onDemand) {
+            // Only the assets asked for were loaded
+            for (int ii = residents.size-1; ii >= 0; ii--) {
+                if (contains( residents.get( ii ) )) {
+                    unload( residents.get( ii ) );
+                }
+            }
+            residents.clear();
+            lastUse.clear();
+            contents = null;
+            return;
+        }
         for (ObjectMap<String, String> category : contents.keymap.values()) {
             for (String filename : category.values()) {
                 unload( filename );
@@ -258,6 +612,9 @@ public class AssetDirectory extends AssetManager {
      * The method {@link #loadAssets} must have been called for this method to
      * return a value.
      *
+     * In on-demand mode, this queues the asset if it is not loaded, and returns
+     * the placeholder of its type until it is resident (see {@link #setOnDemand}).
+     *
      * @param key  the asset directory key
      * @param type the asset type
      *
@@ -272,6 +629,14 @@ public class AssetDirectory extends AssetManager {
         if (filename == null) {
             return null;
         }
+        if (onDemand) {
+            synchronized (this) {
+                request( filename );
+                if (!isLoaded( filename, type )) {
+                    return getPlaceholder( type );
+                }
+            }
+        }
         return get( filename, type );
     }
 
@@ -295,6 +660,113 @@ public class AssetDirectory extends AssetManager {
         if (filename == null) {
             return false;
         }
-        return contains( filename, type );
+        return contains( filename, type ) || contents.declared.containsKey( filename );
+    }
+
+    /**
+     * Marks the given on-demand asset as used, queueing it if it is not loaded
+     *
+     * @param fileName  The file name of the asset
+     */
+    private void request(String fileName) {
+        AssetDescriptor<?> declared = contents.declared.get( fileName, null );
+        if (declared != null) {
+            request( declared );
+        }
+    }
+
+    /**
+     * Marks the given on-demand asset as used, queueing it if it is not loaded
+     *
+     * The assets it depends on are queued first, with the parameters given to
+     * them in the directory (if any).  Each of them is unloaded (and counted)
+     * separately.
+     *
+     * @param asset The asset descriptor
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void request(AssetDescriptor asset) {
+        if (!contains( asset.fileName )) {
+            AssetLoader loader = getLoader( asset.type, asset.fileName );
+            if (loader instanceof TextureRegionLoader || loader instanceof SoundEffectLoader ||
+                loader instanceof MusicQueueLoader) {
+                // Packed atlases cannot be loaded as a dependency (without parameters)
+                Array<AssetDescriptor> deps = loader.getDependencies( asset.fileName, loader.resolve( asset.fileName ), asset.params );
+                if (deps != null) {
+                    for (AssetDescriptor dep : deps) {
+                        AssetDescriptor declared = contents.declared.get( dep.fileName, null );
+                        request( declared != null ? declared : dep );
+                    }
+                }
+            }
+            load( asset );
+        }
+        residents.removeValue( asset.fileName, false );
+        residents.add( asset.fileName );
+        lastUse.put( asset.fileName, frames );
+    }
+
+    /**
+     * Unloads the least recently used on-demand assets until they fit the budget
+     */
+    private void evict() {
+        long usage = getMemoryUsage();
+        boolean evicted = true;
+        while (usage > memoryBudget && evicted) {
+            evicted = false;
+            for (int ii = 0; ii < residents.size && !evicted; ii++) {
+                String file = residents.get( ii );
+                // Only our own reference is left, and it was not used this frame
+                if (isLoaded( file ) && getReferenceCount( file ) == 1 && lastUse.get( file, frames ) < frames) {
+                    usage -= sizeOf( get( file ) );
+                    unload( file );
+                    residents.removeIndex( ii );
+                    lastUse.remove( file, 0 );
+                    evicted = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the estimated memory used by the given asset in bytes
+     *
+     * @param asset The asset
+     *
+     * @return the estimated memory used by the given asset in bytes
+     */
+    private static long sizeOf(Object asset) {
+        if (asset instanceof Texture) {
+            Texture texture = (Texture)asset;
+            long pixels = (long)texture.getWidth()*texture.getHeight();
+            Pixmap.Format format = texture.getTextureData().getFormat();
+            if (format == null) {
+                return 4*pixels;
+            }
+            switch (format) {
+                case Alpha:
+                case Intensity:
+                    return pixels;
+                case LuminanceAlpha:
+                case RGB565:
+                case RGBA4444:
+                    return 2*pixels;
+                case RGB888:
+                    return 3*pixels;
+                default:
+                    return 4*pixels;
+            }
+        } else if (asset instanceof TextureAtlas) {
+            long total = 0;
+            for (Texture texture : ((TextureAtlas)asset).getTextures()) {
+                total += sizeOf( texture );
+            }
+            return total;
+        } else if (asset instanceof SoundEffect && !(asset instanceof StreamingSoundEffect)) {
+            SoundEffect sound = (SoundEffect)asset;
+            return (sound.isMono() ? 2L : 4L)*(long)Math.ceil( sound.getDuration()*sound.getSampleRate() );
+        }
+        // Regions are counted by the textures they depend on, and audio is streamed
+        return 0;
     }
 }
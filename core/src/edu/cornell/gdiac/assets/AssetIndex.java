@@ -0,0 +1,506 @@
+/*
+ * AssetIndex.java
+ *
+ * This is a precompiled form of an asset directory.  Every launch used to parse
+ * the directory JSON and walk every AssetParser over the whole tree, just to
+ * produce the same key map and the same list of AssetManager.load calls as the
+ * last launch.  The index records that result in a compact binary file (keys,
+ * file names, loader parameters and atlas rectangles), so that DirectoryLoader
+ * can replay it without any JSON parsing.
+ *
+ * The index is compiled at build time (see the assetIndex task of the desktop
+ * project).  It stores a checksum of the JSON it was compiled from, and the name
+ * and version (see AssetParser.getVersion) of each parser that compiled it.  If
+ * any of these no longer matches, the index is stale and DirectoryLoader falls
+ * back to the JSON.
+ */
+package edu.cornell.gdiac.assets;
+
+import com.badlogic.gdx.Version;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+
+/**
+ * A binary, precompiled {@link AssetDirectory.Index}.
+ *
+ * An index is created with {@link #compile} and written with {@link #write}.
+ * At load time, {@link #read} decodes it, {@link #isCurrent} checks it against
+ * the JSON and {@link #apply} issues the same loads as the parsers would have.
+ *
+ * Only the loader parameters of the built-in parsers can be stored.  A custom
+ * parser that uses other parameters cannot be compiled; its directory is always
+ * loaded from JSON.
+ */
+public class AssetIndex {
+    /** The suffix replacing the extension of the directory JSON */
+    public static final String SUFFIX = ".idx";
+
+    /** The first four bytes of an index file ("AIDX") */
+    private static final int MAGIC = 0x41494458;
+    /** The version of the file format */
+    private static final int VERSION = 1;
+    /** The encoding of all strings */
+    private static final Charset UTF8 = Charset.forName( "UTF-8" );
+
+    /** Tag for a load with no parameters */
+    private static final byte PARAM_NONE = 0;
+    /** Tag for {@link TextureLoader.TextureParameter} */
+    private static final byte PARAM_TEXTURE = 1;
+    /** Tag for {@link TextureRegionLoader.TextureRegionParameters} */
+    private static final byte PARAM_REGION  = 2;
+    /** Tag for {@link PackedAtlasLoader.PackedAtlasParameters} */
+    private static final byte PARAM_ATLAS   = 3;
+    /** Tag for {@link MusicQueueLoader.MusicQueueParameters} */
+    private static final byte PARAM_MUSIC   = 4;
+
+    /** The checksum of the JSON this index was compiled from */
+    private long checksum;
+    /** The parsers (with versions) and the library version this index was compiled with */
+    private String signature;
+    /** The mapping from JSON keys to file names, per asset type */
+    private ObjectMap<Class<?>, ObjectMap<String, String>> keymap;
+    /** The file names of the loads, in order */
+    private Array<String> files;
+    /** The asset types of the loads, in order */
+    private Array<Class<?>> types;
+    /** The loader parameters of the loads, in order (entries may be null) */
+    private Array<AssetLoaderParameters<?>> params;
+
+    /**
+     * Creates a new, empty index
+     */
+    private AssetIndex() {
+        keymap = new ObjectMap<Class<?>, ObjectMap<String, String>>();
+        files  = new Array<String>();
+        types  = new Array<Class<?>>();
+        params = new Array<AssetLoaderParameters<?>>();
+    }
+
+    /**
+     * Returns the index file for the given directory JSON
+     *
+     * The index sits next to the JSON, with the extension replaced by {@link #SUFFIX}.
+     *
+     * @param json  The directory JSON
+     *
+     * @return the index file for the given directory JSON
+     */
+    public static FileHandle locate(FileHandle json) {
+        return json.sibling( json.nameWithoutExtension()+SUFFIX );
+    }
+
+    /**
+     * Returns a new index compiled from the given directory JSON
+     *
+     * The parsers are run exactly as {@link DirectoryLoader} runs them, except
+     * that their loads are recorded instead of performed.
+     *
+     * @param json      The directory JSON
+     * @param parsers   The parsers of the directory loader
+     *
+     * @return a new index compiled from the given directory JSON
+     *
+     * @throws GdxRuntimeException if a parser uses loader parameters that cannot be stored
+     */
+    public static AssetIndex compile(FileHandle json, Array<AssetParser<?>> parsers) {
+        AssetIndex result = new AssetIndex();
+        byte[] bytes = json.readBytes();
+        result.checksum = checksum( bytes );
+        result.signature = signature( parsers );
+
+        DirectoryLoader.Recorder recorder = new DirectoryLoader.Recorder();
+        try {
+            AssetDirectory.Index index = new AssetDirectory.Index();
+            index.directory = new JsonReader().parse( new String( bytes, UTF8 ) );
+            DirectoryLoader.parse( recorder, parsers, index );
+            result.keymap = index.keymap;
+        } finally {
+            recorder.dispose();
+        }
+        for (AssetDescriptor<?> load : recorder.loads) {
+            result.files.add( load.fileName );
+            result.types.add( load.type );
+            result.params.add( load.params );
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index stored in the given file, or null if it cannot be read
+     *
+     * The file is memory-mapped if possible.  A missing, truncated or otherwise
+     * corrupt file (including one from another version of this class) gives null.
+     *
+     * @param file  The index file
+     *
+     * @return the index stored in the given file, or null if it cannot be read
+     */
+    public static AssetIndex read(FileHandle file) {
+        if (!file.exists()) {
+            return null;
+        }
+        ByteBuffer buffer;
+        try {
+            buffer = file.map();
+        } catch (GdxRuntimeException e) {
+            // Classpath and jar files cannot be mapped
+            buffer = ByteBuffer.wrap( file.readBytes() );
+        }
+        buffer.order( ByteOrder.BIG_ENDIAN ); // As written by DataOutputStream
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            AssetIndex result = new AssetIndex();
+            result.checksum = buffer.getLong();
+            result.signature = readString( buffer );
+
+            int categories = buffer.getInt();
+            for (int ii = 0; ii < categories; ii++) {
+                Class<?> type = ClassReflection.forName( readString( buffer ) );
+                int size = buffer.getInt();
+                ObjectMap<String, String> keys = new ObjectMap<String, String>( size );
+                for (int jj = 0; jj < size; jj++) {
+                    String key = readString( buffer );
+                    keys.put( key, readString( buffer ) );
+                }
+                result.keymap.put( type, keys );
+            }
+
+            int loads = buffer.getInt();
+            for (int ii = 0; ii < loads; ii++) {
+                result.files.add( readString( buffer ) );
+                result.types.add( ClassReflection.forName( readString( buffer ) ) );
+                result.params.add( readParameters( buffer ) );
+            }
+            return result;
+        } catch (RuntimeException e) {
+            // Buffer underflows and the like
+            return null;
+        } catch (ReflectionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if this index was compiled from the given JSON and parsers
+     *
+     * @param json      The directory JSON
+     * @param parsers   The parsers of the directory loader
+     *
+     * @return true if this index was compiled from the given JSON and parsers
+     */
+    public boolean isCurrent(FileHandle json, Array<AssetParser<?>> parsers) {
+        return checksum == checksum( json.readBytes() ) && signature.equals( signature( parsers ) );
+    }
+
+    /**
+     * Issues the loads of this index to the asset manager, and fills in the keys
+     *
+     * This has the same effect as running the parsers over the JSON, except that
+     * the directory of the result is left null.
+     *
+     * @param manager   The asset manager
+     * @param result    The directory index to fill in
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void apply(AssetManager manager, AssetDirectory.Index result) {
+        for (ObjectMap.Entry<Class<?>, ObjectMap<String, String>> entry : keymap.entries()) {
+            ObjectMap<String, String> keys = result.keymap.get( entry.key, null );
+            if (keys == null) {
+                keys = new ObjectMap<String, String>();
+                result.keymap.put( entry.key, keys );
+            }
+            keys.putAll( entry.value );
+        }
+        for (int ii = 0; ii < files.size; ii++) {
+            manager.load( files.get( ii ), (Class)types.get( ii ), (AssetLoaderParameters)params.get( ii ) );
+        }
+    }
+
+    /**
+     * Writes this index to the given file
+     *
+     * @param file  The index file to (over)write
+     *
+     * @throws IOException if the file cannot be written
+     * @throws GdxRuntimeException if a load has parameters that cannot be stored
+     */
+    public void write(FileHandle file) throws IOException {
+        DataOutputStream out = new DataOutputStream( file.write( false ) );
+        try {
+            out.writeInt( MAGIC );
+            out.writeInt( VERSION );
+            out.writeLong( checksum );
+            writeString( out, signature );
+
+            out.writeInt( keymap.size );
+            for (ObjectMap.Entry<Class<?>, ObjectMap<String, String>> entry : keymap.entries()) {
+                writeString( out, entry.key.getName() );
+                out.writeInt( entry.value.size );
+                for (ObjectMap.Entry<String, String> key : entry.value.entries()) {
+                    writeString( out, key.key );
+                    writeString( out, key.value );
+                }
+            }
+
+            out.writeInt( files.size );
+            for (int ii = 0; ii < files.size; ii++) {
+                writeString( out, files.get( ii ) );
+                writeString( out, types.get( ii ).getName() );
+                writeParameters( out, files.get( ii ), params.get( ii ) );
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Returns the checksum of the given JSON contents
+     *
+     * @param bytes The JSON contents
+     *
+     * @return the checksum of the given JSON contents
+     */
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update( bytes, 0, bytes.length );
+        return ((long)bytes.length << 32) ^ crc.getValue();
+    }
+
+    /**
+     * Returns a string identifying the given parsers and the library version
+     *
+     * An index compiled with different parsers, different versions of them, or
+     * a different release of LibGDX (whose enum orders may change) is stale.
+     *
+     * @param parsers   The parsers of the directory loader
+     *
+     * @return a string identifying the given parsers and the library version
+     */
+    private static String signature(Array<AssetParser<?>> parsers) {
+        StringBuilder result = new StringBuilder( Version.VERSION );
+        for (AssetParser<?> parser : parsers) {
+            result.append( ',' ).append( parser.getClass().getName() );
+            result.append( '@' ).append( parser.getVersion() );
+        }
+        return result.toString();
+    }
+
+    /**
+     * Writes the loader parameters of a single load
+     *
+     * @param out   The output stream
+     * @param file  The file name of the load (for error messages)
+     * @param param The loader parameters (may be null)
+     *
+     * @throws IOException if the stream fails
+     * @throws GdxRuntimeException if the parameters cannot be stored
+     */
+    private static void writeParameters(DataOutputStream out, String file, AssetLoaderParameters<?> param) throws IOException {
+        if (param == null) {
+            out.writeByte( PARAM_NONE );
+        } else if (param.loadedCallback != null) {
+            throw new GdxRuntimeException( "Parameters for "+file+" have a callback and cannot be indexed" );
+        } else if (param.getClass() == TextureLoader.TextureParameter.class) {
+            TextureLoader.TextureParameter texture = (TextureLoader.TextureParameter)param;
+            if (texture.texture != null || texture.textureData != null) {
+                throw new GdxRuntimeException( "Parameters for "+file+" have texture data and cannot be indexed" );
+            }
+            out.writeByte( PARAM_TEXTURE );
+            out.writeBoolean( texture.genMipMaps );
+            writeEnum( out, texture.format );
+            writeEnum( out, texture.minFilter );
+            writeEnum( out, texture.magFilter );
+            writeEnum( out, texture.wrapU );
+            writeEnum( out, texture.wrapV );
+        } else if (param.getClass() == TextureRegionLoader.TextureRegionParameters.class) {
+            TextureRegionLoader.TextureRegionParameters region = (TextureRegionLoader.TextureRegionParameters)param;
+            out.writeByte( PARAM_REGION );
+            writeString( out, region.source );
+            writeString( out, region.region );
+            out.writeInt( region.x );
+            out.writeInt( region.y );
+            out.writeInt( region.width );
+            out.writeInt( region.height );
+        } else if (param.getClass() == PackedAtlasLoader.PackedAtlasParameters.class) {
+            PackedAtlasLoader.PackedAtlasParameters atlas = (PackedAtlasLoader.PackedAtlasParameters)param;
+            out.writeByte( PARAM_ATLAS );
+            out.writeInt( atlas.pageWidth );
+            out.writeInt( atlas.pageHeight );
+            out.writeInt( atlas.padding );
+            writeEnum( out, atlas.format );
+            out.writeBoolean( atlas.genMipMaps );
+            writeEnum( out, atlas.minFilter );
+            writeEnum( out, atlas.magFilter );
+            out.writeInt( atlas.names.size );
+            for (int ii = 0; ii < atlas.names.size; ii++) {
+                writeString( out, atlas.names.get( ii ) );
+                writeString( out, atlas.files.get( ii ) );
+            }
+        } else if (param.getClass() == MusicQueueLoader.MusicQueueParameters.class) {
+            MusicQueueLoader.MusicQueueParameters music = (MusicQueueLoader.MusicQueueParameters)param;
+            out.writeByte( PARAM_MUSIC );
+            out.writeBoolean( music.isMono );
+            out.writeInt( music.sampleRate );
+            out.writeFloat( music.volume );
+            out.writeFloat( music.pitch );
+            out.writeFloat( music.panning );
+            out.writeBoolean( music.looping );
+            out.writeBoolean( music.shortLoop );
+            out.writeInt( music.sources.size );
+            for (String source : music.sources) {
+                writeString( out, source );
+            }
+        } else {
+            throw new GdxRuntimeException( "Parameters "+param.getClass().getName()+" for "+file+" cannot be indexed" );
+        }
+    }
+
+    /**
+     * Returns the loader parameters of a single load
+     *
+     * @param buffer    The index contents
+     *
+     * @return the loader parameters of a single load (may be null)
+     */
+    private static AssetLoaderParameters<?> readParameters(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        switch (tag) {
+        case PARAM_NONE:
+            return null;
+        case PARAM_TEXTURE: {
+            TextureLoader.TextureParameter texture = new TextureLoader.TextureParameter();
+            texture.genMipMaps = buffer.get() != 0;
+            texture.format    = readEnum( buffer, Pixmap.Format.values() );
+            texture.minFilter = readEnum( buffer, Texture.TextureFilter.values() );
+            texture.magFilter = readEnum( buffer, Texture.TextureFilter.values() );
+            texture.wrapU = readEnum( buffer, Texture.TextureWrap.values() );
+            texture.wrapV = readEnum( buffer, Texture.TextureWrap.values() );
+            return texture;
+        }
+        case PARAM_REGION: {
+            TextureRegionLoader.TextureRegionParameters region;
+            region = new TextureRegionLoader.TextureRegionParameters( readString( buffer ) );
+            region.region = readString( buffer );
+            region.x = buffer.getInt();
+            region.y = buffer.getInt();
+            region.width  = buffer.getInt();
+            region.height = buffer.getInt();
+            return region;
+        }
+        case PARAM_ATLAS: {
+            PackedAtlasLoader.PackedAtlasParameters atlas = new PackedAtlasLoader.PackedAtlasParameters();
+            atlas.pageWidth  = buffer.getInt();
+            atlas.pageHeight = buffer.getInt();
+            atlas.padding    = buffer.getInt();
+            atlas.format     = readEnum( buffer, Pixmap.Format.values() );
+            atlas.genMipMaps = buffer.get() != 0;
+            atlas.minFilter  = readEnum( buffer, Texture.TextureFilter.values() );
+            atlas.magFilter  = readEnum( buffer, Texture.TextureFilter.values() );
+            int size = buffer.getInt();
+            for (int ii = 0; ii < size; ii++) {
+                String name = readString( buffer );
+                atlas.add( name, readString( buffer ) );
+            }
+            return atlas;
+        }
+        case PARAM_MUSIC: {
+            MusicQueueLoader.MusicQueueParameters music = new MusicQueueLoader.MusicQueueParameters();
+            music.isMono = buffer.get() != 0;
+            music.sampleRate = buffer.getInt();
+            music.volume  = buffer.getFloat();
+            music.pitch   = buffer.getFloat();
+            music.panning = buffer.getFloat();
+            music.looping = buffer.get() != 0;
+            music.shortLoop = buffer.get() != 0;
+            int size = buffer.getInt();
+            for (int ii = 0; ii < size; ii++) {
+                music.sources.add( readString( buffer ) );
+            }
+            return music;
+        }
+        default:
+            throw new GdxRuntimeException( "Unknown parameter tag "+tag );
+        }
+    }
+
+    /**
+     * Writes an enum value (which may be null) as its ordinal
+     *
+     * @param out   The output stream
+     * @param value The enum value
+     *
+     * @throws IOException if the stream fails
+     */
+    private static void writeEnum(DataOutputStream out, Enum<?> value) throws IOException {
+        out.writeByte( value == null ? -1 : value.ordinal() );
+    }
+
+    /**
+     * Returns the enum value (which may be null) with the stored ordinal
+     *
+     * @param buffer    The index contents
+     * @param values    The values of the enum type
+     *
+     * @return the enum value (which may be null) with the stored ordinal
+     */
+    private static <T> T readEnum(ByteBuffer buffer, T[] values) {
+        byte ordinal = buffer.get();
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    /**
+     * Writes a string (which may be null) as a length and UTF-8 bytes
+     *
+     * @param out   The output stream
+     * @param value The string
+     *
+     * @throws IOException if the stream fails
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt( -1 );
+            return;
+        }
+        byte[] bytes = value.getBytes( UTF8 );
+        out.writeInt( bytes.length );
+        out.write( bytes );
+    }
+
+    /**
+     * Returns the string (which may be null) at the current position
+     *
+     * @param buffer    The index contents
+     *
+     * @return the string (which may be null) at the current position
+     */
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get( bytes );
+        return new String( bytes, UTF8 );
+    }
+}
@@ -48,6 +48,20 @@ public interface AssetParser<T> {
      */
     public Class<T> getType();
 
+    /**
+     * Returns the version of the loads this parser makes for a JSON entry
+     *
+     * A precompiled {@link AssetIndex} is only used while every parser reports
+     * the same version as when the index was compiled.  Increase the version
+     * whenever a change to the parser changes the keys, file names or loader
+     * parameters it produces for the same JSON.
+     *
+     * @return the version of the loads this parser makes for a JSON entry
+     */
+    public default int getVersion() {
+        return 0;
+    }
+
     /**
      * Resets the parser iterator for the given directory.
      *
@@ -0,0 +1,137 @@
+/*
+ * AtlasParser.java
+ *
+ * This is an interface for parsing the JSON texture entries into packed texture
+ * atlases.  A texture entry with a "pack" attribute is not loaded as a separate
+ * texture.  Instead, it is packed together with all of the other textures that
+ * name the same atlas.  The individual images are then available as texture
+ * regions under their original keys (see TextureRegionParser).
+ *
+ * The page settings for an atlas may be given in an (optional) "atlases" entry
+ * with the attributes "width", "height", "padding" and "mipmaps".  The filters
+ * are taken from the first texture packed into the atlas.
+ */
+package edu.cornell.gdiac.assets;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.OrderedMap;
+
+/**
+ * This class parses the JSON texture entries into packed {@link TextureAtlas} assets.
+ *
+ * The atlas asset for the key "name" has the symbolic file name "name.pack". There
+ * is no such file; the atlas is built by {@link PackedAtlasLoader}.
+ */
+public class AtlasParser implements AssetParser<TextureAtlas> {
+    /** The suffix for the symbolic file name of a packed atlas */
+    public static final String SUFFIX = ".pack";
+    /** The version of the loads this parser makes (see getVersion) */
+    private static final int VERSION = 1;
+
+    /** The atlases to generate, in the order first named */
+    private OrderedMap<String, PackedAtlasLoader.PackedAtlasParameters> atlases;
+    /** The position of the next atlas to generate */
+    private int index;
+
+    /**
+     * Returns the asset type generated by this parser
+     *
+     * @return the asset type generated by this parser
+     */
+    public Class<TextureAtlas> getType() {
+        return TextureAtlas.class;
+    }
+
+    /**
+     * Returns the version of the loads this parser makes for a JSON entry
+     *
+     * Increase {@link #VERSION} whenever a change to this parser changes its
+     * keys, file names or loader parameters.
+     *
+     * @return the version of the loads this parser makes for a JSON entry
+     */
+    public int getVersion() {
+        return VERSION;
+    }
+
+    /**
+     * Resets the parser iterator for the given directory.
+     *
+     * The value directory is assumed to be the root of a larger JSON structure.
+     * The individual assets are defined by subtrees in this structure.
+     *
+     * @param directory    The JSON representation of the asset directory
+     */
+    public void reset(JsonValue directory) {
+        atlases = new OrderedMap<String, PackedAtlasLoader.PackedAtlasParameters>();
+        index = 0;
+
+        JsonValue settings = directory.get( "atlases" );
+        for(JsonValue root = directory.getChild( "textures" ); root != null; root = root.next()) {
+            String pack = root.isObject() ? root.getString( "pack", null ) : null;
+            String file = root.isObject() ? root.getString( "file", null ) : null;
+            if (pack == null || file == null) {
+                continue;
+            }
+
+            PackedAtlasLoader.PackedAtlasParameters params = atlases.get( pack );
+            if (params == null) {
+                params = new PackedAtlasLoader.PackedAtlasParameters();
+                params.minFilter = ParserUtils.parseFilter(root.get("minFilter"), Texture.TextureFilter.Linear);
+                params.magFilter = ParserUtils.parseFilter(root.get("magFilter"), Texture.TextureFilter.Linear);
+                JsonValue page = settings == null ? null : settings.get( pack );
+                if (page != null) {
+                    params.pageWidth  = page.getInt( "width", params.pageWidth );
+                    params.pageHeight = page.getInt( "height", params.pageHeight );
+                    params.padding    = page.getInt( "padding", params.padding );
+                    params.genMipMaps = page.getBoolean( "mipmaps", params.genMipMaps );
+                }
+                atlases.put( pack, params );
+            }
+            params.add( root.name(), file );
+        }
+    }
+
+    /**
+     * Returns true if there are still assets left to generate
+     *
+     * @return true if there are still assets left to generate
+     */
+    public boolean hasNext() {
+        return atlases != null && index < atlases.size;
+    }
+
+    /**
+     * Processes the next available atlas, loading it into the asset manager
+     *
+     * The key will be the name of the atlas.
+     *
+     * This method fails silently if there are no available assets to process.
+     *
+     * @param manager	The asset manager to load an asset
+     * @param keymap    The mapping of JSON keys to asset file names
+     */
+    public void processNext(AssetManager manager, ObjectMap<String,String> keymap) {
+        if (!hasNext()) {
+            return;
+        }
+        String name = atlases.orderedKeys().get( index++ );
+        String file = name+SUFFIX;
+        keymap.put( name, file );
+        manager.load( file, TextureAtlas.class, atlases.get( name ) );
+    }
+
+    /**
+     * Returns true if o is another AtlasParser
+     *
+     * @return true if o is another AtlasParser
+     */
+    public boolean equals(Object o) {
+        return o instanceof AtlasParser;
+    }
+
+}
@@ -70,7 +70,8 @@ public class AudioSourceLoader extends AsynchronousAssetLoader<AudioSource, Audi
      * Loads thread-safe part of the asset and injects any dependencies into the AssetManager.
      *
      * This is used to load non-OpenGL parts of the asset that do not require the context
-     * of the main thread.
+     * of the main thread.  If the asset manager has a decode pool, the source is
+     * taken from it.
      *
      * @param manager   The asset manager
      * @param fileName  The name of the asset to load
@@ -79,7 +80,12 @@ public class AudioSourceLoader extends AsynchronousAssetLoader<AudioSource, Audi
      */
     @Override
     public void loadAsync (AssetManager manager, String fileName, FileHandle file, AudioSourceParameters params) {
-        cachedSource = ((AudioEngine)Gdx.audio).newSource(file);
+        DecodePool pool = manager instanceof AssetDirectory ? ((AssetDirectory)manager).getDecodePool() : null;
+        if (pool != null) {
+            cachedSource = pool.takeSource(file);
+        } else {
+            cachedSource = ((AudioEngine)Gdx.audio).newSource(file);
+        }
     }
 
     /** 
@@ -0,0 +1,226 @@
+/*
+ * DecodePool.java
+ *
+ * This is a pool of worker threads for decoding asset files.  AssetManager loads
+ * one asset at a time: the asynchronous half of each loader runs on a single
+ * executor thread, and the next asset does not start until the last one is done.
+ * So the PNG decodes of the textures and the audio decodes of the sounds all ran
+ * one after another, whatever the number of cores.
+ *
+ * Decoding a file does not depend on any other asset.  So AssetDirectory hands
+ * every file to this pool as soon as it is queued, and the loaders take the
+ * result when AssetManager gets to them (waiting only if it is not done yet).
+ * The rest of each load, including the texture upload on the GL thread, still
+ * happens in the order and within the time budget of AssetManager.update.
+ */
+package edu.cornell.gdiac.assets;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+import edu.cornell.gdiac.audio.AudioEngine;
+import edu.cornell.gdiac.audio.AudioSource;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A pool of threads decoding image and audio files ahead of their loaders.
+ *
+ * Each file is decoded at most once per {@link #prefetchPixmap} or
+ * {@link #prefetchSource}, and the result belongs to whoever takes it.  A
+ * result that is never taken is disposed by {@link #clear}.  All methods are
+ * thread-safe.
+ */
+public class DecodePool implements Disposable {
+    /** The worker threads */
+    private ExecutorService executor;
+    /** The pending and finished decodes, by kind and file path */
+    private ObjectMap<String, Future<? extends Disposable>> pending;
+    /** The cache of decoded images (null for none) */
+    private TextureCache cache;
+
+    /**
+     * Creates a new pool with the given number of worker threads
+     *
+     * @param threads   The number of worker threads (at least 1)
+     */
+    public DecodePool(int threads) {
+        this( threads, null );
+    }
+
+    /**
+     * Creates a new pool with the given number of worker threads and image cache
+     *
+     * @param threads   The number of worker threads (at least 1)
+     * @param cache     The cache of decoded images (null for none)
+     */
+    public DecodePool(int threads, TextureCache cache) {
+        this.cache = cache;
+        executor = Executors.newFixedThreadPool( Math.max( threads, 1 ), new ThreadFactory() {
+            private int count;
+
+            @Override
+            public synchronized Thread newThread(Runnable task) {
+                Thread thread = new Thread( task, "AssetDecoder-"+(count++) );
+                thread.setDaemon( true );
+                return thread;
+            }
+        } );
+        pending = new ObjectMap<String, Future<? extends Disposable>>();
+    }
+
+    /**
+     * Starts decoding the given image file (if it is not already decoding)
+     *
+     * @param file  The image file
+     */
+    public void prefetchPixmap(final FileHandle file) {
+        submit( "pixmap:"+file.path(), new Callable<Pixmap>() {
+            @Override
+            public Pixmap call() {
+                return decode( file );
+            }
+        } );
+    }
+
+    /**
+     * Returns the decoded image of the given file
+     *
+     * If the file was prefetched, this waits for that decode to finish.
+     * Otherwise it decodes the file on the calling thread.
+     *
+     * @param file  The image file
+     *
+     * @return the decoded image of the given file
+     */
+    public Pixmap takePixmap(FileHandle file) {
+        Pixmap result = (Pixmap)take( "pixmap:"+file.path() );
+        return result != null ? result : decode( file );
+    }
+
+    /**
+     * Returns the decoded image of the given file, using the cache if there is one
+     *
+     * @param file  The image file
+     *
+     * @return the decoded image of the given file
+     */
+    private Pixmap decode(FileHandle file) {
+        return cache != null ? cache.decode( file ) : new Pixmap( file );
+    }
+
+    /**
+     * Starts decoding the given audio file (if it is not already decoding)
+     *
+     * @param file  The audio file
+     */
+    public void prefetchSource(final FileHandle file) {
+        submit( "source:"+file.path(), new Callable<AudioSource>() {
+            @Override
+            public AudioSource call() {
+                return ((AudioEngine)Gdx.audio).newSource( file );
+            }
+        } );
+    }
+
+    /**
+     * Returns the decoded audio of the given file
+     *
+     * If the file was prefetched, this waits for that decode to finish.
+     * Otherwise it decodes the file on the calling thread.
+     *
+     * @param file  The audio file
+     *
+     * @return the decoded audio of the given file
+     */
+    public AudioSource takeSource(FileHandle file) {
+        AudioSource result = (AudioSource)take( "source:"+file.path() );
+        return result != null ? result : ((AudioEngine)Gdx.audio).newSource( file );
+    }
+
+    /**
+     * Disposes every decoded file that was never taken
+     *
+     * This waits for the decodes in progress.
+     */
+    public void clear() {
+        Array<Future<? extends Disposable>> orphans;
+        synchronized (this) {
+            orphans = new Array<Future<? extends Disposable>>( pending.size );
+            for (Future<? extends Disposable> future : pending.values()) {
+                orphans.add( future );
+            }
+            pending.clear();
+        }
+        for (Future<? extends Disposable> future : orphans) {
+            try {
+                future.get().dispose();
+            } catch (Exception e) {
+                // The file was never needed, so neither is the error
+            }
+        }
+    }
+
+    /**
+     * Disposes every decoded file that was never taken, and stops the workers
+     */
+    @Override
+    public void dispose() {
+        clear();
+        executor.shutdown();
+    }
+
+    /**
+     * Submits a decode under the given key, unless one is already pending
+     *
+     * @param key       The kind and path of the file
+     * @param decoder   The decode task
+     */
+    private synchronized void submit(String key, Callable<? extends Disposable> decoder) {
+        if (!pending.containsKey( key ) && !executor.isShutdown()) {
+            pending.put( key, executor.submit( decoder ) );
+        }
+    }
+
+    /**
+     * Returns the result of the decode with the given key, or null if there is none
+     *
+     * The decode is removed from the pool, so the caller owns the result.
+     *
+     * @param key   The kind and path of the file
+     *
+     * @return the result of the decode with the given key, or null if there is none
+     *
+     * @throws GdxRuntimeException if the decode failed
+     */
+    private Object take(String key) {
+        Future<? extends Disposable> future;
+        synchronized (this) {
+            future = pending.remove( key );
+        }
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof GdxRuntimeException) {
+                throw (GdxRuntimeException)cause;
+            }
+            throw new GdxRuntimeException( "Could not decode "+key, cause );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GdxRuntimeException( "Interrupted while decoding "+key, e );
+        }
+    }
+}
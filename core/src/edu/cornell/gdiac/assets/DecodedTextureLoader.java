@@ -0,0 +1,85 @@
+/*
+ * DecodedTextureLoader.java
+ *
+ * This is the texture loader for AssetDirectory.  It is the standard LibGDX
+ * TextureLoader, except that the image is not decoded by the loader itself.  It
+ * is taken from the decode pool of the asset directory, which started decoding
+ * it as soon as the texture was queued (see DecodePool), or from the image
+ * cache (see TextureCache).
+ */
+package edu.cornell.gdiac.assets;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
+
+/**
+ * This class is an {@link AssetLoader} to load {@link Texture} assets from decoded images.
+ *
+ * The texture data still refers to the file, so the texture is managed (it is
+ * reloaded from the file if the GL context is lost), exactly as with
+ * {@link TextureLoader}.  If the asset manager is not an {@link AssetDirectory},
+ * this loader behaves like {@link TextureLoader}.
+ */
+public class DecodedTextureLoader extends TextureLoader {
+
+    /**
+     * Creates a new DecodedTextureLoader with the given file resolver
+     *
+     * @param resolver    The file resolver
+     */
+    public DecodedTextureLoader(FileHandleResolver resolver) {
+        super(resolver);
+    }
+
+    /**
+     * Loads thread-safe part of the asset and injects any dependencies into the AssetManager.
+     *
+     * This takes the decoded image from the asset directory (waiting for the
+     * decode pool if necessary).  Compressed textures and textures with custom
+     * texture data are left to the superclass.
+     *
+     * @param manager   The asset manager
+     * @param fileName  The name of the asset to load
+     * @param file      The resolved file to load
+     * @param params    The parameters to use for loading the asset
+     */
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, TextureParameter params) {
+        if (!(manager instanceof AssetDirectory) || !isDecoded( file ) ||
+            (params != null && params.textureData != null)) {
+            super.loadAsync( manager, fileName, file, params );
+            return;
+        }
+
+        // The superclass only skips decoding for custom texture data
+        TextureParameter decoded = params == null ? new TextureParameter() : params;
+        Pixmap pixmap = ((AssetDirectory)manager).decodePixmap( file );
+        decoded.textureData = new FileTextureData( file, pixmap, decoded.format, decoded.genMipMaps );
+        try {
+            super.loadAsync( manager, fileName, file, decoded );
+        } finally {
+            decoded.textureData = null;
+        }
+    }
+
+    /**
+     * Returns true if the given file is decoded into a Pixmap
+     *
+     * Compressed (ETC1, KTX) and CIM textures have their own texture data, and
+     * are left to {@link TextureLoader}.
+     *
+     * @param file  The texture file
+     *
+     * @return true if the given file is decoded into a Pixmap
+     */
+    static boolean isDecoded(FileHandle file) {
+        String suffix = file.extension().toLowerCase();
+        return !(suffix.equals( "cim" ) || suffix.equals( "etc1" ) || suffix.equals( "ktx" ) || suffix.equals( "zktx" ));
+    }
+}
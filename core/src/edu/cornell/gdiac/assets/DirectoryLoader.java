@@ -36,6 +36,36 @@ public class DirectoryLoader extends AsynchronousAssetLoader<AssetDirectory.Inde
 	/** The associated parsers for parsing the JSON contents */
     protected Array<AssetParser<?>> parsers;
 
+    /**
+     * An asset manager that records its loads instead of performing them.
+     *
+     * This is used to compile an {@link AssetIndex}, and to declare the assets
+     * of an on-demand {@link AssetDirectory}.
+     */
+    static class Recorder extends AssetManager {
+        /** The recorded loads, in order */
+        final Array<AssetDescriptor<?>> loads = new Array<AssetDescriptor<?>>();
+
+        /**
+         * Creates a new recorder with an internal file resolver
+         */
+        Recorder() {
+            super( new InternalFileHandleResolver(), false );
+        }
+
+        /**
+         * Records a load of the given asset
+         *
+         * @param fileName  The file name (interpretation depends on the loader)
+         * @param type      The type of the asset
+         * @param parameter The parameters for the loader (may be null)
+         */
+        @Override
+        public synchronized <T> void load(String fileName, Class<T> type, AssetLoaderParameters<T> parameter) {
+            loads.add( new AssetDescriptor<T>( fileName, type, parameter ) );
+        }
+    }
+
     /**
      * The definable parameters for a {@link AssetDirectory.Index}.
      */
@@ -126,17 +156,53 @@ public class DirectoryLoader extends AsynchronousAssetLoader<AssetDirectory.Inde
      */
     @Override
     public void loadAsync (AssetManager manager, String fileName, FileHandle file, DirectoryLoaderParameters params) {
-        JsonReader reader = new JsonReader();
         cachedData = new AssetDirectory.Index();
-        cachedData.directory = reader.parse(file);
-        System.out.flush();
+
+        // An on-demand directory only declares its loads (see AssetDirectory#setOnDemand)
+        Recorder recorder = null;
+        if (manager instanceof AssetDirectory && ((AssetDirectory)manager).isOnDemand()) {
+            recorder = new Recorder();
+            manager = recorder;
+        }
+
+        try {
+            // Replay the precompiled index if it is up to date
+            AssetIndex index = AssetIndex.read( AssetIndex.locate( file ) );
+            if (index != null && index.isCurrent( file, parsers )) {
+                index.apply( manager, cachedData );
+            } else {
+                JsonReader reader = new JsonReader();
+                cachedData.directory = reader.parse(file);
+                parse( manager, parsers, cachedData );
+            }
+        } finally {
+            if (recorder != null) {
+                for (AssetDescriptor<?> load : recorder.loads) {
+                    cachedData.declared.put( load.fileName, load );
+                }
+                recorder.dispose();
+            }
+        }
+    }
+
+    /**
+     * Runs the given parsers over the directory of the given index
+     *
+     * Each parser loads its assets into the asset manager, and records their
+     * keys in the key map of the index.
+     *
+     * @param manager   The asset manager
+     * @param parsers   The parsers to run
+     * @param index     The index whose directory has been read
+     */
+    static void parse(AssetManager manager, Array<AssetParser<?>> parsers, AssetDirectory.Index index) {
         for(AssetParser<?> parser : parsers) {
-            ObjectMap<String,String> keys = cachedData.keymap.get( parser.getType(), null );
+            ObjectMap<String,String> keys = index.keymap.get( parser.getType(), null );
             if (keys == null) {
                 keys = new ObjectMap<String,String>();
-                cachedData.keymap.put(parser.getType(),keys);
+                index.keymap.put(parser.getType(),keys);
             }
-            parser.reset( cachedData.directory );
+            parser.reset( index.directory );
             while (parser.hasNext()) {
                 parser.processNext( manager, keys );
             }
@@ -31,6 +31,9 @@ import com.badlogic.gdx.utils.ObjectMap;
  * alternate font representations.
  */
 public class FreetypeFontParser implements AssetParser<BitmapFont> {
+    /** The version of the loads this parser makes (see getVersion) */
+    private static final int VERSION = 1;
+
     /** The current font entry in the JSON directory */
     private JsonValue root;
 
@@ -43,6 +46,18 @@ public class FreetypeFontParser implements AssetParser<BitmapFont> {
         return BitmapFont.class;
     }
 
+    /**
+     * Returns the version of the loads this parser makes for a JSON entry
+     *
+     * Increase {@link #VERSION} whenever a change to this parser changes its
+     * keys, file names or loader parameters.
+     *
+     * @return the version of the loads this parser makes for a JSON entry
+     */
+    public int getVersion() {
+        return VERSION;
+    }
+
     /**
      * Resets the parser iterator for the given directory.
      *
@@ -19,6 +19,9 @@ import com.badlogic.gdx.utils.ObjectMap;
  * The asset is only specified by file name.  There are no special parameters.
  */
 public class JsonValueParser implements AssetParser<JsonValue> {
+    /** The version of the loads this parser makes (see getVersion) */
+    private static final int VERSION = 1;
+
     /** The current JSON entry in the JSON directory */
     private JsonValue root;
 
@@ -31,6 +34,18 @@ public class JsonValueParser implements AssetParser<JsonValue> {
         return JsonValue.class;
     }
 
+    /**
+     * Returns the version of the loads this parser makes for a JSON entry
+     *
+     * Increase {@link #VERSION} whenever a change to this parser changes its
+     * keys, file names or loader parameters.
+     *
+     * @return the version of the loads this parser makes for a JSON entry
+     */
+    public int getVersion() {
+        return VERSION;
+    }
+
     /**
      * Resets the parser iterator for the given directory.
      *
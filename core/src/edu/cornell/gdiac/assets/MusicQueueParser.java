@@ -21,6 +21,9 @@ import edu.cornell.gdiac.audio.MusicQueue;
  * However, you can initialize sources in the sources tag with an array of file names. 
  */
 public class MusicQueueParser implements AssetParser<MusicQueue> {
+    /** The version of the loads this parser makes (see getVersion) */
+    private static final int VERSION = 1;
+
     /** The current font entry in the JSON directory */
     private JsonValue root;
 
@@ -33,6 +36,18 @@ public class MusicQueueParser implements AssetParser<MusicQueue> {
         return MusicQueue.class;
     }
 
+    /**
+     * Returns the version of the loads this parser makes for a JSON entry
+     *
+     * Increase {@link #VERSION} whenever a change to this parser changes its
+     * keys, file names or loader parameters.
+     *
+     * @return the version of the loads this parser makes for a JSON entry
+     */
+    public int getVersion() {
+        return VERSION;
+    }
+
     /**
      * Resets the parser iterator for the given directory.
      *
@@ -0,0 +1,169 @@
+/*
+ * PackedAtlasLoader.java
+ *
+ * This is a loader for building a texture atlas out of individual image files at
+ * load time.  Every distinct texture is a separate OpenGL texture, and a sprite
+ * batch has to flush every time it switches textures.  Packing the small sprites
+ * into a few large pages means that most of a frame can be drawn without a flush.
+ *
+ * We pack at load time (instead of with a separate build step) so that the images
+ * in the assets folder remain the source of truth.  The images are decoded and
+ * packed off of the main thread; only the final texture upload happens on it.
+ */
+package edu.cornell.gdiac.assets;
+
+import com.badlogic.gdx.assets.*;
+import com.badlogic.gdx.assets.loaders.*;
+import com.badlogic.gdx.assets.loaders.resolvers.*;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Array;
+
+import java.util.Arrays;
+
+/**
+ * This class is an {@link AssetLoader} to pack images into a {@link TextureAtlas}.
+ *
+ * The atlas file name is purely symbolic; there is no file for the atlas itself.
+ * The images to pack are given by the loader parameters, and each one becomes a
+ * region of the atlas with the given name.
+ */
+public class PackedAtlasLoader extends AsynchronousAssetLoader<TextureAtlas, PackedAtlasLoader.PackedAtlasParameters> {
+    /** A reference to the file handle resolver (inaccessible in parent class) */
+    protected FileHandleResolver resolver;
+    /** The asynchronously packed images */
+    private PixmapPacker cachedPacker;
+
+    /**
+     * The definable parameters for a packed {@link TextureAtlas}.
+     *
+     * These parameters define the page layout and the texture settings of the
+     * atlas, as well as the images to pack into it.
+     */
+    public static class PackedAtlasParameters extends AssetLoaderParameters<TextureAtlas> {
+        /** The width of a single atlas page (in pixels) */
+        public int pageWidth = 1024;
+        /** The height of a single atlas page (in pixels) */
+        public int pageHeight = 1024;
+        /** The padding between images; this prevents bleeding with linear filters */
+        public int padding = 2;
+        /** The pixel format of the atlas pages */
+        public Pixmap.Format format = Pixmap.Format.RGBA8888;
+        /** Whether to generate mipmaps for the atlas pages */
+        public boolean genMipMaps = false;
+        /** The minification filter for the atlas pages */
+        public Texture.TextureFilter minFilter = Texture.TextureFilter.Linear;
+        /** The magnification filter for the atlas pages */
+        public Texture.TextureFilter magFilter = Texture.TextureFilter.Linear;
+        /** The region names, in the same order as files */
+        public Array<String> names = new Array<String>();
+        /** The image files, in the same order as names */
+        public Array<String> files = new Array<String>();
+
+        /**
+         * Adds an image to pack into the atlas
+         *
+         * @param name  The region name for the image
+         * @param file  The image file
+         */
+        public void add(String name, String file) {
+            names.add( name );
+            files.add( file );
+        }
+    }
+
+    /**
+     * Creates a new PackedAtlasLoader with an internal file resolver
+     */
+    public PackedAtlasLoader() {
+        this(new InternalFileHandleResolver());
+    }
+
+    /**
+     * Creates a new PackedAtlasLoader with the given file resolver
+     *
+     * @param resolver    The file resolver
+     */
+    public PackedAtlasLoader(FileHandleResolver resolver) {
+        super(resolver);
+        this.resolver = resolver;
+    }
+
+    /**
+     * Loads thread-safe part of the asset and injects any dependencies into the AssetManager.
+     *
+     * This decodes every image and packs it into the atlas pages.  The images are
+     * packed largest first, which wastes less space than packing them in order.
+     * If the asset manager is an {@link AssetDirectory}, the images are taken
+     * from its decode pool or image cache.
+     *
+     * @param manager   The asset manager
+     * @param fileName  The name of the asset to load
+     * @param file      The resolved file to load
+     * @param params    The parameters to use for loading the asset
+     */
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, PackedAtlasParameters params) {
+        if (params == null) {
+            params = new PackedAtlasParameters();
+        }
+        cachedPacker = new PixmapPacker( params.pageWidth, params.pageHeight, params.format, params.padding, true );
+
+        AssetDirectory directory = manager instanceof AssetDirectory ? (AssetDirectory)manager : null;
+        Pixmap[] images = new Pixmap[params.files.size];
+        Integer[] order = new Integer[params.files.size];
+        for(int ii = 0; ii < images.length; ii++) {
+            FileHandle image = resolver.resolve( params.files.get( ii ) );
+            images[ii] = directory == null ? new Pixmap( image ) : directory.decodePixmap( image );
+            order[ii] = ii;
+        }
+        final Pixmap[] sizes = images;
+        Arrays.sort( order, (a, b) -> Math.max( sizes[b].getWidth(), sizes[b].getHeight() ) -
+                                      Math.max( sizes[a].getWidth(), sizes[a].getHeight() ) );
+        for(int ii = 0; ii < order.length; ii++) {
+            cachedPacker.pack( params.names.get( order[ii] ), images[order[ii]] );
+            images[order[ii]].dispose();
+        }
+    }
+
+    /**
+     * Loads the main thread part of the asset.
+     *
+     * This uploads the atlas pages to the graphics card.
+     *
+     * @param manager   The asset manager
+     * @param fileName  The name of the asset to load
+     * @param file      The resolved file to load
+     * @param params    The parameters to use for loading the asset
+     */
+    @Override
+    public TextureAtlas loadSync(AssetManager manager, String fileName, FileHandle file, PackedAtlasParameters params) {
+        if (params == null) {
+            params = new PackedAtlasParameters();
+        }
+        TextureAtlas atlas = cachedPacker.generateTextureAtlas( params.minFilter, params.magFilter, params.genMipMaps );
+        // The pages stay alive until the atlas textures are disposed
+        cachedPacker.dispose();
+        cachedPacker = null;
+        return atlas;
+    }
+
+    /**
+     * Returns the other assets this asset requires to be loaded first.
+     *
+     * The images are decoded directly, so there are no dependencies.
+     *
+     * @param fileName  The name of the asset to load
+     * @param file      The resolved file to load
+     * @param params parameters for loading the asset
+     *
+     * @return the other assets this asset requires to be loaded first.
+     */
+    @Override
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, PackedAtlasParameters params) {
+        return null;
+    }
+}
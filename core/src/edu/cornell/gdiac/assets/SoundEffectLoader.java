@@ -25,18 +25,28 @@ import com.badlogic.gdx.utils.GdxRuntimeException;
 import edu.cornell.gdiac.audio.AudioEngine;
 import edu.cornell.gdiac.audio.AudioSource;
 import edu.cornell.gdiac.audio.SoundEffect;
+import edu.cornell.gdiac.audio.StreamingSoundEffect;
 
 /**
  * This class is an {@link AssetLoader} to load {@link SoundEffect} assets.
  *
  * A sound buffer asset should be specified by filename:name where name is a unique
  * name for the buffer.
+ *
+ * Sounds whose decoded samples would take more than the stream threshold (see
+ * {@link #setStreamThreshold}) are loaded as a {@link StreamingSoundEffect}, which
+ * streams from the audio source instead of holding all of its samples.
  */
 public class SoundEffectLoader extends AsynchronousAssetLoader<SoundEffect, SoundEffectLoader.SoundEffectParameters> {
+    /** The default stream threshold (1 MB, about 6 seconds of CD quality stereo) */
+    public static final long DEFAULT_STREAM_THRESHOLD = 1 << 20;
+
     /** A reference to the file handle resolver (inaccessible in parent class) */
     protected FileHandleResolver resolver;
     /** The asynchronously read SoundBuffer */
     private SoundEffect cachedBuffer;
+    /** The decoded size in bytes above which sounds are streamed (negative for never) */
+    private long streamThreshold = DEFAULT_STREAM_THRESHOLD;
 
     /**
      * The definable parameters for a {@link SoundEffect}.
@@ -75,6 +85,39 @@ public class SoundEffectLoader extends AsynchronousAssetLoader<SoundEffect, Soun
         this.resolver = resolver;
     }
 
+    /**
+     * Returns the decoded size in bytes above which sounds are streamed
+     *
+     * @return the decoded size in bytes above which sounds are streamed (negative for never)
+     */
+    public long getStreamThreshold() {
+        return streamThreshold;
+    }
+
+    /**
+     * Sets the decoded size in bytes above which sounds are streamed
+     *
+     * The decoded size is that of the 16 bit samples of the whole source.  A sound
+     * above this size is loaded as a {@link StreamingSoundEffect}.  Each instance
+     * of it then plays on a music voice, with a few pages of samples in memory.
+     *
+     * @param bytes the decoded size in bytes above which sounds are streamed (negative for never)
+     */
+    public void setStreamThreshold(long bytes) {
+        streamThreshold = bytes;
+    }
+
+    /**
+     * Returns the decoded size of the given source in bytes
+     *
+     * @param source    The audio source
+     *
+     * @return the decoded size of the given source in bytes
+     */
+    static long decodedSize(AudioSource source) {
+        return 2L*source.getChannels()*(long)Math.ceil( source.getDuration()*source.getSampleRate() );
+    }
+
     /** 
      * Returns the {@link SoundEffect} instance currently loaded by this loader.
      *
@@ -100,7 +143,11 @@ public class SoundEffectLoader extends AsynchronousAssetLoader<SoundEffect, Soun
     @Override
     public void loadAsync (AssetManager manager, String fileName, FileHandle file, SoundEffectParameters params) {
         AudioSource source = manager.get(manager.getDependencies(fileName).first(),AudioSource.class);
-        cachedBuffer = ((AudioEngine)Gdx.audio).newSoundBuffer(source);
+        if (streamThreshold >= 0 && decodedSize( source ) > streamThreshold) {
+            cachedBuffer = new StreamingSoundEffect( (AudioEngine)Gdx.audio, source );
+        } else {
+            cachedBuffer = ((AudioEngine)Gdx.audio).newSoundBuffer(source);
+        }
     }
 
     /** 
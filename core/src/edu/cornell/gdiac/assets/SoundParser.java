@@ -21,6 +21,9 @@ import com.badlogic.gdx.audio.Sound;
  * the limitations of LibGDX audio.
  */
 public class SoundParser implements AssetParser<Sound> {
+    /** The version of the loads this parser makes (see getVersion) */
+    private static final int VERSION = 1;
+
     /** The current font entry in the JSON directory */
     private JsonValue root;
 
@@ -33,6 +36,18 @@ public class SoundParser implements AssetParser<Sound> {
         return Sound.class;
     }
 
+    /**
+     * Returns the version of the loads this parser makes for a JSON entry
+     *
+     * Increase {@link #VERSION} whenever a change to this parser changes its
+     * keys, file names or loader parameters.
+     *
+     * @return the version of the loads this parser makes for a JSON entry
+     */
+    public int getVersion() {
+        return VERSION;
+    }
+
     /**
      * Resets the parser iterator for the given directory.
      *
@@ -0,0 +1,220 @@
+/*
+ * TextureCache.java
+ *
+ * This is an on-disk cache of decoded images.  Every launch decoded the same
+ * PNG and JPEG files (the sand and sea backgrounds, the water borders and the
+ * sprites) into the same pixels.  The cache stores those pixels raw, in a file
+ * named by a hash of the image file, so that the next launch can copy them into
+ * a Pixmap instead of decoding.  Copying a few megabytes is much cheaper than
+ * inflating and unfiltering them.
+ *
+ * The key is the content of the image file, not its name or date, so an edited
+ * image is simply a cache miss.  The texture parameters (filters, wrap, mipmaps)
+ * are not part of the key, because they are applied on upload and do not change
+ * the decoded pixels.
+ */
+package edu.cornell.gdiac.assets;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A directory of decoded images, keyed by the hash of their files.
+ *
+ * Each entry is a small header (width, height and pixel format) followed by the
+ * pixels exactly as they are laid out in {@link Pixmap#getPixels}.  Entries are
+ * written to a temporary file first and then renamed, so several threads (or
+ * several asset directories) may share a cache.
+ */
+public class TextureCache {
+    /** The suffix of a cache entry */
+    public static final String SUFFIX = ".pix";
+
+    /** The first four bytes of a cache entry ("TXCP") */
+    private static final int MAGIC = 0x54584350;
+    /** The version of the entry format */
+    private static final int VERSION = 1;
+    /** The size of the entry header in bytes */
+    private static final int HEADER = 20;
+
+    /** The directory of the cache entries */
+    private FileHandle directory;
+
+    /**
+     * Creates a new cache in the given directory
+     *
+     * The directory is created when the first entry is written.  It should be
+     * writable (e.g. a local file on desktop and Android).
+     *
+     * @param directory The directory of the cache entries
+     */
+    public TextureCache(FileHandle directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the directory of the cache entries
+     *
+     * @return the directory of the cache entries
+     */
+    public FileHandle getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the decoded image of the given file
+     *
+     * If the cache has an entry for the contents of this file, the pixels are
+     * copied from it.  Otherwise the file is decoded, and the pixels are added
+     * to the cache.  A cache that cannot be read or written is only logged; it
+     * never stops the image from loading.
+     *
+     * This method is thread-safe.
+     *
+     * @param file  The image file
+     *
+     * @return the decoded image of the given file
+     */
+    public Pixmap decode(FileHandle file) {
+        byte[] bytes = file.readBytes();
+        FileHandle entry = directory.child( hash( bytes )+SUFFIX );
+
+        Pixmap result = read( entry );
+        if (result != null) {
+            return result;
+        }
+
+        result = new Pixmap( bytes, 0, bytes.length );
+        try {
+            write( entry, result );
+        } catch (Exception e) {
+            log( "Could not cache "+file.path(), e );
+        }
+        return result;
+    }
+
+    /**
+     * Deletes every entry of this cache
+     */
+    public void clear() {
+        if (directory.exists()) {
+            directory.deleteDirectory();
+        }
+    }
+
+    /**
+     * Returns the image stored in the given entry, or null if there is none
+     *
+     * The entry is memory-mapped if possible.  A corrupt entry gives null.
+     *
+     * @param entry The cache entry
+     *
+     * @return the image stored in the given entry, or null if there is none
+     */
+    private Pixmap read(FileHandle entry) {
+        if (!entry.exists()) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer;
+            try {
+                buffer = entry.map();
+            } catch (GdxRuntimeException e) {
+                buffer = ByteBuffer.wrap( entry.readBytes() );
+            }
+            buffer.order( ByteOrder.BIG_ENDIAN ); // As written by DataOutputStream
+            if (buffer.remaining() < HEADER || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            int width  = buffer.getInt();
+            int height = buffer.getInt();
+            Pixmap.Format format = Pixmap.Format.fromGdx2DPixmapFormat( buffer.getInt() );
+
+            Pixmap result = new Pixmap( width, height, format );
+            ByteBuffer pixels = result.getPixels();
+            if (buffer.remaining() != pixels.capacity()) {
+                result.dispose();
+                return null;
+            }
+            pixels.clear();
+            pixels.put( buffer );
+            pixels.clear();
+            return result;
+        } catch (Exception e) {
+            log( "Could not read "+entry.path(), e );
+            return null;
+        }
+    }
+
+    /**
+     * Writes the given image to the given entry
+     *
+     * @param entry     The cache entry
+     * @param pixmap    The decoded image
+     *
+     * @throws IOException if the entry cannot be written
+     */
+    private void write(FileHandle entry, Pixmap pixmap) throws IOException {
+        ByteBuffer pixels = pixmap.getPixels();
+        byte[] data = new byte[pixels.capacity()];
+        pixels.clear();
+        pixels.get( data );
+        pixels.clear();
+
+        FileHandle temp = entry.sibling( entry.name()+"."+Thread.currentThread().getId()+".tmp" );
+        DataOutputStream out = new DataOutputStream( temp.write( false ) );
+        try {
+            out.writeInt( MAGIC );
+            out.writeInt( VERSION );
+            out.writeInt( pixmap.getWidth() );
+            out.writeInt( pixmap.getHeight() );
+            out.writeInt( Pixmap.Format.toGdx2DPixmapFormat( pixmap.getFormat() ) );
+            out.write( data );
+        } finally {
+            out.close();
+        }
+        temp.moveTo( entry );
+    }
+
+    /**
+     * Returns the hash of the given file contents, as hexadecimal
+     *
+     * @param bytes The file contents
+     *
+     * @return the hash of the given file contents, as hexadecimal
+     */
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance( "SHA-1" ).digest( bytes );
+            StringBuilder result = new StringBuilder( 2*digest.length );
+            for (byte b : digest) {
+                result.append( Character.forDigit( (b >> 4) & 0xF, 16 ) );
+                result.append( Character.forDigit( b & 0xF, 16 ) );
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new GdxRuntimeException( "SHA-1 is not available", e );
+        }
+    }
+
+    /**
+     * Logs a cache failure (if there is an application to log to)
+     *
+     * @param message   The message
+     * @param e         The cause
+     */
+    private static void log(String message, Exception e) {
+        if (Gdx.app != null) {
+            Gdx.app.error( "TextureCache", message, e );
+        }
+    }
+}
@@ -27,8 +27,14 @@ import com.badlogic.gdx.utils.ObjectMap;
  * used on loading.
  * 
  * all properties) are stored in the file.
+ *
+ * Entries with a "pack" attribute are skipped.  Those images are packed into a
+ * texture atlas by {@link AtlasParser} and are only available as texture regions.
  */
 public class TextureParser implements AssetParser<Texture> {
+    /** The version of the loads this parser makes (see getVersion) */
+    private static final int VERSION = 1;
+
     /** The current font entry in the JSON directory */
     private JsonValue root;
 
@@ -41,6 +47,18 @@ public class TextureParser implements AssetParser<Texture> {
         return Texture.class;
     }
 
+    /**
+     * Returns the version of the loads this parser makes for a JSON entry
+     *
+     * Increase {@link #VERSION} whenever a change to this parser changes its
+     * keys, file names or loader parameters.
+     *
+     * @return the version of the loads this parser makes for a JSON entry
+     */
+    public int getVersion() {
+        return VERSION;
+    }
+
     /**
      * Resets the parser iterator for the given directory.
      *
@@ -98,7 +116,7 @@ public class TextureParser implements AssetParser<Texture> {
             params.wrapV = ParserUtils.parseWrap(root.get("wrapV"), Texture.TextureWrap.ClampToEdge);
             params.format = root.getBoolean( "alpha",true ) ? Pixmap.Format.RGBA8888 : Pixmap.Format.RGB888;
             String file = root.getString( "file", null );
-            if (file != null) {
+            if (file != null && !root.has( "pack" )) {
                 keymap.put(root.name(),file);
                 manager.load( file,Texture.class, params );
             }
@@ -16,6 +16,7 @@ import com.badlogic.gdx.assets.loaders.*;
 import com.badlogic.gdx.assets.loaders.resolvers.*;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.GdxRuntimeException;
@@ -40,8 +41,10 @@ public class TextureRegionLoader extends AsynchronousAssetLoader<TextureRegion,
      * is fully defined  by these parameters.  The file name is just a symbolic reference.
      */ 
     public static class TextureRegionParameters extends AssetLoaderParameters<TextureRegion> {
-        /** The reference to the texture in the asset manager */
+        /** The reference to the texture (or texture atlas) in the asset manager */
         public String source;
+        /** The region of the texture atlas to use; null if source is a texture */
+        public String region;
         /** The starting x-coordinate for the texture region (measured in pixels) */
         public int x = 0;
         /** The starting y-coordinate for the texture region (measured in pixels)  */
@@ -131,6 +134,15 @@ public class TextureRegionLoader extends AsynchronousAssetLoader<TextureRegion,
      */
     @Override
     public void loadAsync(AssetManager manager, String fileName, FileHandle file, TextureRegionParameters params) {
+        if (params != null && params.region != null) {
+            TextureAtlas atlas = manager.get(params.source, TextureAtlas.class);
+            TextureRegion parent = atlas.findRegion(params.region);
+            if (parent == null) {
+                throw new GdxRuntimeException( "Region '"+params.region+"' is not in atlas "+params.source );
+            }
+            cachedRegion = load(parent, params);
+            return;
+        }
         Texture texture = manager.get(manager.getDependencies(fileName).first());
         cachedRegion = load(texture, params);
     }
@@ -193,7 +205,11 @@ public class TextureRegionLoader extends AsynchronousAssetLoader<TextureRegion,
             params = new TextureRegionParameters( prefix );
         }
         Array<AssetDescriptor> deps = new Array<AssetDescriptor>(1);
-        deps.add(new AssetDescriptor<Texture>( params.source, Texture.class));
+        if (params.region != null) {
+            deps.add(new AssetDescriptor<TextureAtlas>( params.source, TextureAtlas.class));
+        } else {
+            deps.add(new AssetDescriptor<Texture>( params.source, Texture.class));
+        }
         return deps;
     }
 
@@ -215,4 +231,24 @@ public class TextureRegionLoader extends AsynchronousAssetLoader<TextureRegion,
         int height = params.height < 0 ? texture.getHeight()-params.y : params.height;
         return new TextureRegion(texture,params.x,params.y,width,height);
     }
+
+    /**
+     * Loads a texture region from the given parent region and parameters.
+     *
+     * The parameters are relative to the parent region.  If params is null, the
+     * texture region will be the entire parent region.
+     *
+     * @param parent    The parent region
+     * @param params    The definition of the texture region.
+     *
+     * @return a texture region for the given parent region and parameters.
+     */
+    public TextureRegion load (TextureRegion parent, TextureRegionParameters params) {
+        if (params == null) {
+            return new TextureRegion(parent);
+        }
+        int width  = params.width  < 0 ? parent.getRegionWidth()-params.x  : params.width;
+        int height = params.height < 0 ? parent.getRegionHeight()-params.y : params.height;
+        return new TextureRegion(parent,params.x,params.y,width,height);
+    }
 }
@@ -10,26 +10,47 @@ import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.ObjectMap;
 
 public class TextureRegionParser implements AssetParser<TextureRegion> {
+    /** The version of the loads this parser makes (see getVersion) */
+    private static final int VERSION = 1;
+
     private JsonValue root;
     private JsonValue atlas;
+    /** Whether the next region is an entire packed image (and not a subregion) */
+    private boolean whole;
 
     public Class<TextureRegion> getType() {
         return TextureRegion.class;
     }
 
+    public int getVersion() {
+        return VERSION;
+    }
+
     public void reset(JsonValue directory) {
         root = directory;
         root = root.getChild( "textures" );
         atlas = null;
+        whole = false;
         advance();
     }
 
     public boolean hasNext() {
-        return atlas != null;
+        return root != null;
     }
 
+    /**
+     * Processes the next available texture region, loading it into the asset manager
+     *
+     * Subregions are given by an "atlas" entry, and have the key texture.region.
+     * In addition, a texture that is packed into a texture atlas (see {@link AtlasParser})
+     * is always available as a texture region with the key of the texture.  The
+     * subregions of a packed texture are relative to its packed region.
+     *
+     * @param manager	The asset manager to load an asset
+     * @param keymap    The mapping of JSON keys to asset file names
+     */
     public void processNext(AssetManager manager, ObjectMap<String,String> keymap) {
-        if (atlas.size < 4) {
+        if (!whole && atlas.size < 4) {
             throw new GdxRuntimeException( "Rectangle "+atlas+" is not valid");
         }
         String file = root.getString( "file", null );
@@ -37,7 +58,20 @@ public class TextureRegionParser implements AssetParser<TextureRegion> {
             advance();
             return;
         }
-        TextureRegionLoader.TextureRegionParameters params = new TextureRegionLoader.TextureRegionParameters(file);
+        String pack = root.getString( "pack", null );
+        String source = pack == null ? file : pack+AtlasParser.SUFFIX;
+        TextureRegionLoader.TextureRegionParameters params = new TextureRegionLoader.TextureRegionParameters(source);
+        if (pack != null) {
+            params.region = root.name();
+        }
+
+        if (whole) {
+            String region = source+":"+root.name();
+            keymap.put(root.name(),region);
+            manager.load( region,TextureRegion.class, params );
+            advance();
+            return;
+        }
 
         params.x = atlas.getInt(0);
         params.y = atlas.getInt(1);
@@ -45,7 +79,7 @@ public class TextureRegionParser implements AssetParser<TextureRegion> {
         params.height = atlas.getInt(3);
         params.width = params.width == -1 ? -1 : params.width-params.x;
         params.height = params.height == -1 ? -1 : params.height-params.y;
-        String region = file+":"+atlas.name();
+        String region = source+":"+(pack == null ? "" : root.name()+".")+atlas.name();
         keymap.put(root.name()+"."+atlas.name(),region);
         manager.load( region,TextureRegion.class, params );
         advance();
@@ -56,19 +90,32 @@ public class TextureRegionParser implements AssetParser<TextureRegion> {
     }
 
     private void advance() {
-        if (atlas != null) {
+        if (whole) {
+            // The subregions of a packed image come after the image itself
+            whole = false;
+            atlas = root.getChild( "atlas" );
+            if (atlas != null) {
+                return;
+            }
+            root = root.next();
+        } else if (atlas != null) {
             atlas = atlas.next();
-            if (atlas == null) {
-                root = root.next();
+            if (atlas != null) {
+                return;
             }
+            root = root.next();
         }
-        while (atlas == null && root != null) {
-            if (root.hasChild( "atlas" )) {
-                atlas = root.getChild( "atlas" );
-            } else {
-                root = root.next();
+        while (root != null) {
+            if (root.isObject() && root.has( "pack" )) {
+                whole = true;
+                return;
+            }
+            atlas = root.getChild( "atlas" );
+            if (atlas != null) {
+                return;
             }
+            root = root.next();
         }
     }
 
-}
\ No newline at end of file
+}
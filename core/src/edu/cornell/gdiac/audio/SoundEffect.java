@@ -25,6 +25,7 @@ import com.badlogic.gdx.files.FileHandle;
  * The audio data being play is fully loaded into memory, so this interface is
  * primarily for short clips. While there is no upper limit on the audio file size, 
  * you should avoid using this method for any sound asset greater than 1 MB.
+ * Longer sounds should be a {@link StreamingSoundEffect}, which streams its audio.
  * 
  * Sound buffer instances are created via {@link AudioEngine#newSound}. When you 
  * are done with using the sound buffer instance you have to dispose it via the 
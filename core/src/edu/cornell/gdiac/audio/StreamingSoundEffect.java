@@ -0,0 +1,554 @@
+/*
+ * StreamingSoundEffect.java
+ *
+ * This is a sound effect that is streamed from its audio source instead of held
+ * in memory.  The sound effects of the audio engine upload the whole decoded
+ * source (AudioSource.getData) into an OpenAL buffer.  That is right for short
+ * clips, but a music-length effect keeps tens of megabytes of samples resident
+ * for as long as it is loaded.
+ *
+ * A MusicQueue already streams: it reads its sources through AudioStream, a page
+ * at a time, into a small ring of direct buffers.  So this class plays each
+ * instance of the effect on a MusicQueue of its own.  Its memory is bounded by
+ * the buffers of the instances playing, not by the length of the source.
+ */
+package edu.cornell.gdiac.audio;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * A {@link SoundEffect} whose instances stream from an {@link AudioSource}.
+ *
+ * This supports the whole interface of {@link SoundEffect}, except that every
+ * instance takes a (streaming) music voice of the audio engine.  It is meant for
+ * long effects, such as ambient loops.  Short clips should still be sound buffers
+ * (see {@link AudioEngine#newSoundBuffer}), as they start with less latency.
+ *
+ * The audio source belongs to the caller, and is not disposed by this effect.
+ * Like every audio interface, this class must only be used on the main thread.
+ */
+public class StreamingSoundEffect implements SoundEffect {
+    /** The audio engine creating the music queues */
+    private AudioEngine engine;
+    /** The audio source streamed by every instance */
+    private AudioSource source;
+    /** The music queues of the active instances, by sound id */
+    private LongMap<MusicQueue> instances;
+    /** The instances that completed, to be disposed on the next call */
+    private LongArray finished;
+    /** The sound id of the next instance */
+    private long nextId;
+    /** The callback invoked as an instance completes */
+    private OnCompletionListener listener;
+
+    /**
+     * Creates a new streaming effect for the given source, using the default audio engine
+     *
+     * @param source    The audio source to stream
+     */
+    public StreamingSoundEffect(AudioSource source) {
+        this( (AudioEngine)Gdx.audio, source );
+    }
+
+    /**
+     * Creates a new streaming effect for the given source and audio engine
+     *
+     * @param engine    The audio engine creating the music queues
+     * @param source    The audio source to stream
+     */
+    public StreamingSoundEffect(AudioEngine engine, AudioSource source) {
+        this.engine = engine;
+        this.source = source;
+        instances = new LongMap<MusicQueue>();
+        finished = new LongArray();
+    }
+
+    /**
+     * Returns the audio source streamed by this effect
+     *
+     * @return the audio source streamed by this effect
+     */
+    public AudioSource getSource() {
+        return source;
+    }
+
+    /**
+     * Registers a callback invoked as a sound instance completes.
+     *
+     * @param listener  The callback that will be run.
+     */
+    @Override
+    public void setOnCompletionListener(OnCompletionListener listener) {
+        this.listener = listener;
+    }
+
+    // #mark -
+    // #mark Source Attributes
+    /**
+     * Returns the file that generated this asset.
+     *
+     * @return the file that generated this asset.
+     */
+    @Override
+    public FileHandle getFile() {
+        return source.getFile();
+    }
+
+    /**
+     * Returns true if this is a mono audio asset.
+     *
+     * @return true if this is a mono audio asset.
+     */
+    @Override
+    public boolean isMono() {
+        return source.getChannels() == 1;
+    }
+
+    /**
+     * Returns the sample rate of this audio asset.
+     *
+     * @return the sample rate of this audio asset.
+     */
+    @Override
+    public int getSampleRate() {
+        return source.getSampleRate();
+    }
+
+    /**
+     * Returns the duration of this audio asset in seconds.
+     *
+     * @return the duration of this audio asset in seconds.
+     */
+    @Override
+    public float getDuration() {
+        return source.getDuration();
+    }
+
+    // #mark -
+    // #mark Playback
+    /**
+     * Plays a new instance of this effect, returning its sound id
+     *
+     * @return the sound id of the new instance, or -1 if there is no voice to play it
+     */
+    @Override
+    public long play() {
+        return start( 1, 1, 0, false );
+    }
+
+    /**
+     * Plays a new instance of this effect at the given volume, returning its sound id
+     *
+     * @param volume    The volume in the range [0,1]
+     *
+     * @return the sound id of the new instance, or -1 if there is no voice to play it
+     */
+    @Override
+    public long play(float volume) {
+        return start( volume, 1, 0, false );
+    }
+
+    /**
+     * Plays a new instance of this effect with the given settings, returning its sound id
+     *
+     * @param volume    The volume in the range [0,1]
+     * @param pitch     The pitch multiplier (1 is unchanged)
+     * @param pan       The pan from -1 (left) to 1 (right)
+     *
+     * @return the sound id of the new instance, or -1 if there is no voice to play it
+     */
+    @Override
+    public long play(float volume, float pitch, float pan) {
+        return start( volume, pitch, pan, false );
+    }
+
+    /**
+     * Loops a new instance of this effect, returning its sound id
+     *
+     * @return the sound id of the new instance, or -1 if there is no voice to play it
+     */
+    @Override
+    public long loop() {
+        return start( 1, 1, 0, true );
+    }
+
+    /**
+     * Loops a new instance of this effect at the given volume, returning its sound id
+     *
+     * @param volume    The volume in the range [0,1]
+     *
+     * @return the sound id of the new instance, or -1 if there is no voice to play it
+     */
+    @Override
+    public long loop(float volume) {
+        return start( volume, 1, 0, true );
+    }
+
+    /**
+     * Loops a new instance of this effect with the given settings, returning its sound id
+     *
+     * @param volume    The volume in the range [0,1]
+     * @param pitch     The pitch multiplier (1 is unchanged)
+     * @param pan       The pan from -1 (left) to 1 (right)
+     *
+     * @return the sound id of the new instance, or -1 if there is no voice to play it
+     */
+    @Override
+    public long loop(float volume, float pitch, float pan) {
+        return start( volume, pitch, pan, true );
+    }
+
+    /**
+     * Stops every instance of this effect
+     */
+    @Override
+    public void stop() {
+        for (MusicQueue music : instances.values()) {
+            music.dispose();
+        }
+        instances.clear();
+        finished.clear();
+    }
+
+    /**
+     * Pauses every instance of this effect
+     */
+    @Override
+    public void pause() {
+        for (MusicQueue music : instances.values()) {
+            music.pause();
+        }
+    }
+
+    /**
+     * Resumes every paused instance of this effect
+     */
+    @Override
+    public void resume() {
+        for (MusicQueue music : instances.values()) {
+            if (!music.isPlaying()) {
+                music.play();
+            }
+        }
+    }
+
+    /**
+     * Stops every instance of this effect, and releases its voices
+     *
+     * The audio source is not disposed.
+     */
+    @Override
+    public void dispose() {
+        stop();
+    }
+
+    /**
+     * Stops the given instance
+     *
+     * @param soundId   The playback instance
+     */
+    @Override
+    public void stop(long soundId) {
+        MusicQueue music = instances.remove( soundId );
+        if (music != null) {
+            music.dispose();
+        }
+    }
+
+    /**
+     * Pauses the given instance
+     *
+     * @param soundId   The playback instance
+     */
+    @Override
+    public void pause(long soundId) {
+        MusicQueue music = instance( soundId );
+        if (music != null) {
+            music.pause();
+        }
+    }
+
+    /**
+     * Resumes the given instance
+     *
+     * @param soundId   The playback instance
+     */
+    @Override
+    public void resume(long soundId) {
+        MusicQueue music = instance( soundId );
+        if (music != null && !music.isPlaying()) {
+            music.play();
+        }
+    }
+
+    // #mark -
+    // #mark Playback Control
+    /**
+     * Returns true if the given instance is actively playing
+     *
+     * @param soundId   The playback instance
+     *
+     * @return true if the given instance is actively playing
+     */
+    @Override
+    public boolean isPlaying(long soundId) {
+        MusicQueue music = instance( soundId );
+        return music != null && music.isPlaying();
+    }
+
+    /**
+     * Sets the volume of the given instance
+     *
+     * @param soundId   The playback instance
+     * @param volume    The volume in the range [0,1]
+     */
+    @Override
+    public void setVolume(long soundId, float volume) {
+        MusicQueue music = instance( soundId );
+        if (music != null) {
+            music.setVolume( volume );
+        }
+    }
+
+    /**
+     * Returns the volume of the given instance
+     *
+     * If the sound id is not valid, this method returns -1.
+     *
+     * @param soundId   The playback instance
+     *
+     * @return the volume of the given instance
+     */
+    @Override
+    public float getVolume(long soundId, float volume) {
+        MusicQueue music = instance( soundId );
+        return music != null ? music.getVolume() : -1;
+    }
+
+    /**
+     * Sets the loop setting of the given instance
+     *
+     * @param soundId   The playback instance
+     * @param looping   Whether the instance loops
+     */
+    @Override
+    public void setLooping(long soundId, boolean looping) {
+        MusicQueue music = instance( soundId );
+        if (music != null) {
+            music.setLooping( looping );
+        }
+    }
+
+    /**
+     * Returns the loop setting of the given instance
+     *
+     * If the sound id is not valid, this method returns false.
+     *
+     * @param soundId   The playback instance
+     *
+     * @return the loop setting of the given instance
+     */
+    @Override
+    public boolean getLooping(long soundId, boolean looping) {
+        MusicQueue music = instance( soundId );
+        return music != null && music.isLooping();
+    }
+
+    /**
+     * Sets the pitch of the given instance
+     *
+     * @param soundId   The playback instance
+     * @param pitch     The pitch multiplier (1 is unchanged)
+     */
+    @Override
+    public void setPitch(long soundId, float pitch) {
+        MusicQueue music = instance( soundId );
+        if (music != null) {
+            music.setPitch( pitch );
+        }
+    }
+
+    /**
+     * Returns the pitch of the given instance
+     *
+     * If the sound id is not valid, this method returns 1.
+     *
+     * @param soundId   The playback instance
+     *
+     * @return the pitch of the given instance
+     */
+    @Override
+    public float getPitch(long soundId) {
+        MusicQueue music = instance( soundId );
+        return music != null ? music.getPitch() : 1;
+    }
+
+    /**
+     * Sets the pan and volume of the given instance
+     *
+     * @param soundId   The playback instance
+     * @param pan       The pan from -1 (left) to 1 (right)
+     * @param volume    The volume in the range [0,1]
+     */
+    @Override
+    public void setPan(long soundId, float pan, float volume) {
+        MusicQueue music = instance( soundId );
+        if (music != null) {
+            music.setPan( pan, volume );
+        }
+    }
+
+    /**
+     * Sets the pan of the given instance
+     *
+     * @param soundId   The playback instance
+     * @param pan       The pan from -1 (left) to 1 (right)
+     */
+    @Override
+    public void setPan(long soundId, float pan) {
+        MusicQueue music = instance( soundId );
+        if (music != null) {
+            music.setPan( pan );
+        }
+    }
+
+    /**
+     * Returns the pan value of the given instance
+     *
+     * If the sound id is not valid, this method returns 0.
+     *
+     * @param soundId   The playback instance
+     *
+     * @return the pan value of the given instance
+     */
+    @Override
+    public float getPan(long soundId) {
+        MusicQueue music = instance( soundId );
+        return music != null ? music.getPan() : 0;
+    }
+
+    /**
+     * Returns the current position of this instance in seconds.
+     *
+     * If the sound id is not valid, this method returns -1.
+     *
+     * @param soundId   The playback instance
+     *
+     * @return the current position of this instance in seconds.
+     */
+    @Override
+    public float getPosition(long soundId) {
+        MusicQueue music = instance( soundId );
+        return music != null ? music.getPosition() : -1;
+    }
+
+    /**
+     * Sets the current position of this instance in seconds.
+     *
+     * @param soundId   The playback instance
+     * @param seconds   The current position of this instance in seconds.
+     */
+    @Override
+    public void setPosition(long soundId, float seconds) {
+        MusicQueue music = instance( soundId );
+        if (music != null) {
+            music.setPosition( Math.max( 0, Math.min( seconds, getDuration() ) ) );
+        }
+    }
+
+    /**
+     * Sets the effect that the given instance is played through
+     *
+     * @param soundId   The playback instance
+     * @param effect    The effect to add
+     */
+    @Override
+    public void addEffect(long soundId, EffectFilter effect) {
+        MusicQueue music = instance( soundId );
+        if (music != null) {
+            music.addEffect( effect );
+        }
+    }
+
+    /**
+     * Removes the effect that the given instance is played through
+     *
+     * @param soundId   The playback instance
+     * @param effect    The effect to remove
+     */
+    @Override
+    public void removeEffect(long soundId, EffectFilter effect) {
+        MusicQueue music = instance( soundId );
+        if (music != null) {
+            music.removeEffect( effect );
+        }
+    }
+
+    // #mark -
+    // #mark Internals
+    /**
+     * Starts a new instance on a music queue of its own
+     *
+     * @param volume    The volume in the range [0,1]
+     * @param pitch     The pitch multiplier (1 is unchanged)
+     * @param pan       The pan from -1 (left) to 1 (right)
+     * @param looping   Whether the instance loops
+     *
+     * @return the sound id of the new instance, or -1 if there is no voice to play it
+     */
+    private long start(float volume, float pitch, float pan, boolean looping) {
+        reap();
+        MusicQueue music = engine.newMusicBuffer( isMono(), getSampleRate() );
+        if (music == null) {
+            return -1;
+        }
+        final long soundId = nextId++;
+        music.addSource( source );
+        music.setLooping( looping );
+        music.setVolume( volume );
+        music.setPitch( pitch );
+        music.setPan( pan );
+        music.setOnCompletionListener( new Music.OnCompletionListener() {
+            @Override
+            public void onCompletion(Music music) {
+                // The queue is still streaming this callback, so dispose it later
+                finished.add( soundId );
+                if (listener != null) {
+                    listener.onCompletion( StreamingSoundEffect.this, soundId );
+                }
+            }
+        } );
+        instances.put( soundId, music );
+        music.play();
+        return soundId;
+    }
+
+    /**
+     * Returns the music queue of the given instance, or null if it is not active
+     *
+     * @param soundId   The playback instance
+     *
+     * @return the music queue of the given instance, or null if it is not active
+     */
+    private MusicQueue instance(long soundId) {
+        reap();
+        return instances.get( soundId );
+    }
+
+    /**
+     * Disposes the music queues of the completed instances
+     */
+    private void reap() {
+        for (int ii = 0; ii < finished.size; ii++) {
+            MusicQueue music = instances.remove( finished.get( ii ) );
+            if (music != null) {
+                music.dispose();
+            }
+        }
+        finished.clear();
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * AIStage.java
+ *
+ * This class runs the decision half of every AI controller for a tick.  Each
+ * controller only reads the player and its own ship when it decides, and it
+ * records its movement instead of applying it (see AIController.update).  So
+ * the decisions are independent of each other and of the order in which they
+ * are made, and we can split them across the cores with a fork-join pool.  The
+ * game then applies the movement serially, in slot order, exactly as if the
+ * controllers had run one after the other.
+ *
+ * Forking has a fixed cost, so a small population is decided on the calling
+ * thread.  The chunk tasks are allocated once and reinitialized every tick, so
+ * that a parallel tick does not produce garbage.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+import edu.cornell.gdiac.shipdemo.ai.AIController;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel driver for the decision half of the AI controllers.
+ */
+public class AIStage {
+	/** The smallest population that is decided in parallel */
+	public static final int PARALLEL_THRESHOLD = 128;
+	/** The smallest number of controllers decided by a single task */
+	private static final int MIN_CHUNK = 32;
+	/** The number of tasks per worker thread (for load balancing) */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/** The pool to run the tasks in */
+	private ForkJoinPool pool;
+	/** Whether to decide in parallel at all */
+	private boolean parallel;
+	/** The chunk tasks (reused every tick) */
+	private Chunk[] chunks;
+
+	/** The store being decided (only valid during decide) */
+	private FruitStore fruits;
+	/** The frame count being decided (only valid during decide) */
+	private int frameCount;
+	/** The ships to decide for (only valid during decide; null for all) */
+	private ActivityTiers tiers;
+
+	/**
+	 * A task deciding the controllers in a range of slots
+	 */
+	private class Chunk extends RecursiveAction {
+		/** Fork-join tasks are Serializable, although these are never serialized */
+		private static final long serialVersionUID = 1L;
+		/** The first slot of the range */
+		int start;
+		/** The slot after the range */
+		int end;
+
+		@Override
+		protected void compute() {
+			decideRange(start, end);
+		}
+	}
+
+	/**
+	 * Creates a new stage using the common fork-join pool
+	 */
+	public AIStage() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a new stage using the given fork-join pool
+	 *
+	 * @param pool	The pool to run the tasks in
+	 */
+	public AIStage(ForkJoinPool pool) {
+		this.pool = pool;
+		this.parallel = pool.getParallelism() > 1;
+		this.chunks = new Chunk[0];
+	}
+
+	/**
+	 * Returns true if large populations are decided in parallel
+	 *
+	 * @return true if large populations are decided in parallel
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Sets whether large populations are decided in parallel
+	 *
+	 * The result is the same either way; this is for measuring the speedup.
+	 *
+	 * @param value	whether large populations are decided in parallel
+	 */
+	public void setParallel(boolean value) {
+		parallel = value;
+	}
+
+	/**
+	 * Runs the decision half of every controller in the store
+	 *
+	 * When this method returns, every controller has decided.  The caller must
+	 * then call {@link AIController#apply} on each of them, in slot order.
+	 *
+	 * @param fruits		The ships and their controllers
+	 * @param frameCount	The frame count to pass to the controllers
+	 */
+	public void decide(FruitStore fruits, int frameCount) {
+		decide(fruits, frameCount, null);
+	}
+
+	/**
+	 * Runs the decision half of every awake controller in the store
+	 *
+	 * When this method returns, every awake controller has decided.  The
+	 * caller must then call {@link AIController#apply} on each of them, in
+	 * slot order.  Dormant controllers are left alone.
+	 *
+	 * @param fruits		The ships and their controllers
+	 * @param frameCount	The frame count to pass to the controllers
+	 * @param tiers			The ships awake this tick (null for all)
+	 */
+	public void decide(FruitStore fruits, int frameCount, ActivityTiers tiers) {
+		int size = fruits.size();
+		this.fruits = fruits;
+		this.frameCount = frameCount;
+		this.tiers = tiers;
+		int work = tiers == null ? size : tiers.getAwakeCount();
+		if (!parallel || work < PARALLEL_THRESHOLD) {
+			decideRange(0, size);
+			this.fruits = null;
+			this.tiers = null;
+			return;
+		}
+
+		int chunk = Math.max(MIN_CHUNK, (size + pool.getParallelism()*CHUNKS_PER_THREAD - 1) /
+										(pool.getParallelism()*CHUNKS_PER_THREAD));
+		int count = (size + chunk - 1) / chunk;
+		if (count > chunks.length) {
+			Chunk[] temp = new Chunk[count];
+			System.arraycopy(chunks, 0, temp, 0, chunks.length);
+			for (int ii = chunks.length; ii < count; ii++) {
+				temp[ii] = new Chunk();
+			}
+			chunks = temp;
+		}
+		for (int ii = 0; ii < count; ii++) {
+			Chunk task = chunks[ii];
+			task.reinitialize();
+			task.start = ii*chunk;
+			task.end = Math.min(size, task.start + chunk);
+		}
+
+		// Hand all but the first chunk to the pool, and do the first one ourselves
+		for (int ii = 1; ii < count; ii++) {
+			pool.execute(chunks[ii]);
+		}
+		chunks[0].invoke();
+		for (int ii = 1; ii < count; ii++) {
+			chunks[ii].join();
+		}
+		this.fruits = null;
+		this.tiers = null;
+	}
+
+	/**
+	 * Runs the decision half of the controllers in the given slots
+	 *
+	 * @param start	The first slot
+	 * @param end	The slot after the last one
+	 */
+	private void decideRange(int start, int end) {
+		for (int ii = start; ii < end; ii++) {
+			if (tiers == null || tiers.isAwake(ii)) {
+				fruits.getController(ii).update(frameCount);
+			}
+		}
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * ActivityTiers.java
+ *
+ * This class decides which enemy ships get a full update this tick.  A ship far
+ * away from the player is off screen, and its AI has nothing interesting to do:
+ * apples and oranges only run from a nearby player, and strawberries sit still
+ * beyond 600 pixels.  Yet every ship paid for its AI, movement and collisions
+ * every tick, so a large arena with many ships was expensive for no reason.
+ *
+ * Ships within the active radius of the player are always awake.  Ships beyond
+ * it are dormant: they are only updated every Nth tick (staggered by handle, so
+ * that the dormant ships do not all wake on the same tick), or not at all if
+ * the interval is 0.  The tiers are recomputed from the distances every tick,
+ * so a dormant ship wakes up as soon as the player comes close.  Dormant ships
+ * move at a fraction of their speed, but no one is there to see it.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Per-tick awake/dormant classification of the ships in a FruitStore.
+ *
+ * The classification is indexed by slot, so it is only valid until the store
+ * changes (e.g. a ship is deleted).
+ */
+public class ActivityTiers {
+	/** Default distance from the player within which ships are always awake */
+	public static final float DEFAULT_RADIUS = 1200.0f;
+	/** Default number of ticks between updates of a dormant ship */
+	public static final int DEFAULT_INTERVAL = 4;
+
+	/** Distance from the player within which ships are always awake (0 for all) */
+	private float radius;
+	/** Number of ticks between updates of a dormant ship (0 for never) */
+	private int interval;
+	/** Whether the ship in each slot is updated this tick */
+	private boolean[] awake;
+	/** The number of ships updated this tick */
+	private int awakeCount;
+
+	/**
+	 * Creates a new classification with the default radius and interval
+	 */
+	public ActivityTiers() {
+		radius = DEFAULT_RADIUS;
+		interval = DEFAULT_INTERVAL;
+		awake = new boolean[64];
+	}
+
+	/**
+	 * Returns the distance from the player within which ships are always awake
+	 *
+	 * @return the distance from the player within which ships are always awake
+	 */
+	public float getRadius() {
+		return radius;
+	}
+
+	/**
+	 * Sets the distance from the player within which ships are always awake
+	 *
+	 * If this is 0 (or less), every ship is always awake.
+	 *
+	 * @param value	the distance from the player within which ships are always awake
+	 */
+	public void setRadius(float value) {
+		radius = value;
+	}
+
+	/**
+	 * Returns the number of ticks between updates of a dormant ship
+	 *
+	 * @return the number of ticks between updates of a dormant ship
+	 */
+	public int getInterval() {
+		return interval;
+	}
+
+	/**
+	 * Sets the number of ticks between updates of a dormant ship
+	 *
+	 * If this is 1, every ship is updated every tick.  If this is 0, dormant
+	 * ships are frozen until the player comes close.
+	 *
+	 * @param value	the number of ticks between updates of a dormant ship
+	 */
+	public void setInterval(int value) {
+		interval = value;
+	}
+
+	/**
+	 * Returns the number of ships updated this tick
+	 *
+	 * @return the number of ships updated this tick
+	 */
+	public int getAwakeCount() {
+		return awakeCount;
+	}
+
+	/**
+	 * Returns true if the ship in the given slot is updated this tick
+	 *
+	 * @param slot	The slot index
+	 *
+	 * @return true if the ship in the given slot is updated this tick
+	 */
+	public boolean isAwake(int slot) {
+		return awake[slot];
+	}
+
+	/**
+	 * Classifies every ship in the store for this tick
+	 *
+	 * @param fruits		The ships
+	 * @param center		The position of the player
+	 * @param frameCount	The current tick (for staggering)
+	 */
+	public void update(FruitStore fruits, Vector2 center, int frameCount) {
+		int size = fruits.size();
+		if (size > awake.length) {
+			awake = new boolean[Math.max(size, 2*awake.length)];
+		}
+
+		float radius2 = radius * radius;
+		awakeCount = 0;
+		for (int ii = 0; ii < size; ii++) {
+			float dx = center.x - fruits.getX(ii);
+			float dy = center.y - fruits.getY(ii);
+			boolean near = radius <= 0 || dx * dx + dy * dy <= radius2;
+			awake[ii] = near || (interval > 0 && (frameCount + fruits.getFruit(ii).getId()) % interval == 0);
+			if (awake[ii]) {
+				awakeCount++;
+			}
+		}
+	}
+}
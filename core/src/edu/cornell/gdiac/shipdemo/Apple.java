@@ -9,6 +9,11 @@ public class Apple extends Fruit {
         super(x, y, ang, size, id, APPLE_HP);
     }
 
+    @Override
+    public void reset(float x, float y, float ang, float size, int id) {
+        reset(x, y, ang, size, id, APPLE_HP);
+    }
+
     @Override
     public FruitType getType() {
         return FRUIT_TYPE;
@@ -0,0 +1,218 @@
+/*
+ * BackgroundCache.java
+ *
+ * The arena background is a grid of screen-sized tiles: sand inside of the
+ * arena bounds, and water (with its edges and corners) outside of them.  The
+ * tiles never change, so there is no reason to recompute and resubmit them to
+ * the sprite batch every frame.  Instead, we build a SpriteCache with every tile
+ * the camera can ever see once, and then each frame only draw the rows and
+ * columns of it that are actually on screen.
+ *
+ * The tile spacing is the size of the window, so the cache is rebuilt whenever
+ * the window is resized.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Static geometry for the arena background.
+ *
+ * The tiles are stored in the cache row by row, so that the visible portion of
+ * each row is a single contiguous range of sprites.
+ */
+public class BackgroundCache implements Disposable {
+	/** Amount to scale a background image to fill a tile */
+	public static final float TILE_SCALE = 1.334f;
+
+	/** The sand inside of the arena */
+	private Texture center;
+	/** The water left of the arena */
+	private Texture left;
+	/** The water right of the arena */
+	private Texture right;
+	/** The water above the arena */
+	private Texture top;
+	/** The water below the arena */
+	private Texture bottom;
+	/** The water at the upper left corner of the arena */
+	private Texture topLeft;
+	/** The water at the upper right corner of the arena */
+	private Texture topRight;
+	/** The water at the bottom left corner of the arena */
+	private Texture bottomLeft;
+	/** The water at the bottom right corner of the arena */
+	private Texture bottomRight;
+	/** The horizontal arena boundary */
+	private int boundX;
+	/** The vertical arena boundary */
+	private int boundY;
+
+	/** The tile geometry (null until first drawn) */
+	private SpriteCache cache;
+	/** The cache id of the tile geometry */
+	private int cacheId;
+	/** The horizontal tile spacing the cache was built for */
+	private int tileWidth;
+	/** The vertical tile spacing the cache was built for */
+	private int tileHeight;
+	/** The width of a single (scaled) tile image */
+	private float imageWidth;
+	/** The height of a single (scaled) tile image */
+	private float imageHeight;
+	/** The column index of the first cached column */
+	private int minCol;
+	/** The row index of the first cached row */
+	private int minRow;
+	/** The number of cached columns */
+	private int cols;
+	/** The number of cached rows */
+	private int rows;
+
+	/**
+	 * Creates a new background for an arena with the given bounds.
+	 *
+	 * The arena spans [-boundX,boundX) x [-boundY,boundY).  The tile images
+	 * should all be the same size.
+	 *
+	 * @param center		The sand inside of the arena
+	 * @param left			The water left of the arena
+	 * @param right			The water right of the arena
+	 * @param top			The water above the arena
+	 * @param bottom		The water below the arena
+	 * @param topLeft		The water at the upper left corner
+	 * @param topRight		The water at the upper right corner
+	 * @param bottomLeft	The water at the bottom left corner
+	 * @param bottomRight	The water at the bottom right corner
+	 * @param boundX		The horizontal arena boundary
+	 * @param boundY		The vertical arena boundary
+	 */
+	public BackgroundCache(Texture center, Texture left, Texture right, Texture top, Texture bottom,
+						   Texture topLeft, Texture topRight, Texture bottomLeft, Texture bottomRight,
+						   int boundX, int boundY) {
+		this.center = center;
+		this.left = left;
+		this.right = right;
+		this.top = top;
+		this.bottom = bottom;
+		this.topLeft = topLeft;
+		this.topRight = topRight;
+		this.bottomLeft = bottomLeft;
+		this.bottomRight = bottomRight;
+		this.boundX = boundX;
+		this.boundY = boundY;
+	}
+
+	/**
+	 * Discards the tile geometry, so that it is rebuilt on the next draw.
+	 *
+	 * This should be called when the window is resized.  It is safe to skip, as
+	 * {@link #draw} also notices a change in size, but it frees the old geometry
+	 * right away.
+	 */
+	public void invalidate() {
+		if (cache != null) {
+			cache.dispose();
+			cache = null;
+		}
+	}
+
+	/**
+	 * Draws the part of the background visible from the given position.
+	 *
+	 * The position is the world coordinate at the center of the screen.  The
+	 * canvas offsets should already be set to match it.
+	 *
+	 * @param canvas	The drawing context
+	 * @param cx		The x-coordinate of the screen center
+	 * @param cy		The y-coordinate of the screen center
+	 */
+	public void draw(GameCanvas canvas, float cx, float cy) {
+		int width  = canvas.getWidth();
+		int height = canvas.getHeight();
+		if (width <= 0 || height <= 0) {
+			return;	// Minimized
+		}
+		if (cache == null || width != tileWidth || height != tileHeight) {
+			build(width, height);
+		}
+
+		// Column c covers [c*width, c*width+imageWidth); same for rows
+		float x0 = cx - width / 2.0f;
+		float y0 = cy - height / 2.0f;
+		int c0 = Math.max(minCol, (int)Math.floor((x0 - imageWidth) / width) + 1);
+		int c1 = Math.min(minCol + cols - 1, (int)Math.ceil((x0 + width) / width) - 1);
+		int r0 = Math.max(minRow, (int)Math.floor((y0 - imageHeight) / height) + 1);
+		int r1 = Math.min(minRow + rows - 1, (int)Math.ceil((y0 + height) / height) - 1);
+		if (c0 > c1 || r0 > r1) {
+			return;
+		}
+
+		canvas.beginCache(cache);
+		for (int r = r0; r <= r1; r++) {
+			cache.draw(cacheId, (r - minRow) * cols + (c0 - minCol), c1 - c0 + 1);
+		}
+		canvas.endCache(cache);
+	}
+
+	/**
+	 * Builds the tile geometry for the given tile spacing.
+	 *
+	 * The cache holds every tile visible from a screen center inside of the
+	 * arena bounds (which is where the camera follows the player).
+	 *
+	 * @param width		The horizontal tile spacing (the window width)
+	 * @param height	The vertical tile spacing (the window height)
+	 */
+	private void build(int width, int height) {
+		invalidate();
+		tileWidth  = width;
+		tileHeight = height;
+		imageWidth  = center.getWidth() * TILE_SCALE;
+		imageHeight = center.getHeight() * TILE_SCALE;
+
+		minCol = (int)Math.floor((-boundX - width / 2.0f - imageWidth) / width) + 1;
+		minRow = (int)Math.floor((-boundY - height / 2.0f - imageHeight) / height) + 1;
+		cols = (int)Math.ceil((boundX + width / 2.0f) / width) - minCol;
+		rows = (int)Math.ceil((boundY + height / 2.0f) / height) - minRow;
+
+		cache = new SpriteCache(cols * rows, false);
+		cache.beginCache();
+		for (int r = 0; r < rows; r++) {
+			for (int c = 0; c < cols; c++) {
+				int x = (minCol + c) * width;
+				int y = (minRow + r) * height;
+				Texture tile = getTile(x, y);
+				cache.add(tile, x, y, tile.getWidth() * TILE_SCALE, tile.getHeight() * TILE_SCALE,
+						  0, 0, tile.getWidth(), tile.getHeight(), false, false);
+			}
+		}
+		cacheId = cache.endCache();
+	}
+
+	/**
+	 * Returns the image for the tile with the given bottom left corner.
+	 *
+	 * @param x	The x-coordinate of the tile corner
+	 * @param y	The y-coordinate of the tile corner
+	 *
+	 * @return the image for the tile with the given bottom left corner.
+	 */
+	private Texture getTile(int x, int y) {
+		if (x >= boundX) {
+			return y >= boundY ? topRight : (y < -boundY ? bottomRight : right);
+		} else if (x < -boundX) {
+			return y >= boundY ? topLeft : (y < -boundY ? bottomLeft : left);
+		}
+		return y >= boundY ? top : (y < -boundY ? bottom : center);
+	}
+
+	/**
+	 * Disposes of the tile geometry (but not the textures)
+	 */
+	public void dispose() {
+		invalidate();
+	}
+}
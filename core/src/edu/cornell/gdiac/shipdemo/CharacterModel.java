@@ -22,6 +22,27 @@ public abstract class CharacterModel {
     public Vector2 getVelocity() {
         return vel;
     }
+
+    /* The coordinate accessors let the collision code work the same whether the
+     * state is held in vectors (the monkey) or in a FruitStore (the fruit). */
+    public float getX() {
+        return getPosition().x;
+    }
+    public float getY() {
+        return getPosition().y;
+    }
+    public void setPosition(float x, float y) {
+        getPosition().set(x, y);
+    }
+    public float getVX() {
+        return getVelocity().x;
+    }
+    public float getVY() {
+        return getVelocity().y;
+    }
+    public void setVelocity(float vx, float vy) {
+        getVelocity().set(vx, vy);
+    }
     public float getMass() {
         return mass;
     }
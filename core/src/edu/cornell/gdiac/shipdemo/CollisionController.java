@@ -50,16 +50,73 @@ public class CollisionController {
 	/** Caching object for intermediate calculations */
 	private Vector2 temp;
 
+	/** Broadphase grid for ship-to-ship collisions */
+	private SpatialGrid grid;
+
 	/**
      * Contruct a new controller. 
      * 
      * This constructor initializes all the caching objects so that
      * there is no heap allocation during collision detection.
+     *
+     * @param boundX	The horizontal half-width of the playing area
+     * @param boundY	The vertical half-height of the playing area
      */
-	public CollisionController() { 
+	public CollisionController(int boundX, int boundY) {
 		velocity = new Vector2();
 		normal = new Vector2();
 		temp = new Vector2();
+
+		grid = new SpatialGrid(-boundX, -boundY, 2*boundX, 2*boundY, Fruit.SHIP_SIZE*Fruit.DEFAULT_SCALE);
+	}
+
+	/**
+	 *  Handles collisions between all pairs of ships.
+	 *
+	 *  Rather than testing every ship against every other ship, this method
+	 *  buckets the ships into a uniform grid and only tests ships in the same
+	 *  or neighboring cells.  Each pair is resolved exactly once.
+	 *
+	 *  @param fruits The ships to collide against each other
+	 */
+	public void checkForCollisions(FruitStore fruits) {
+		checkForCollisions(fruits, null);
+	}
+
+	/**
+	 *  Handles collisions between all of the ships, skipping dormant pairs
+	 *
+	 *  A pair of dormant ships is not resolved, as neither of them moved this
+	 *  tick.  If they overlap, they are pushed apart when one of them wakes.
+	 *
+	 *  @param fruits The ships to collide against each other
+	 *  @param tiers The ships awake this tick (null for all)
+	 */
+	public void checkForCollisions(FruitStore fruits, ActivityTiers tiers) {
+		// The cells must be at least as large as the largest ship
+		float diameter = Fruit.SHIP_SIZE*Fruit.DEFAULT_SCALE;
+		for(int ii = 0; ii < fruits.size(); ii++) {
+			diameter = Math.max(diameter, fruits.getFruit(ii).getDiameter());
+		}
+		if (diameter > grid.getCellSize()) {
+			grid.setCellSize(diameter);
+		}
+
+		// Grid indices are the same as the store slots
+		grid.clear();
+		for(int ii = 0; ii < fruits.size(); ii++) {
+			grid.add(fruits.getX(ii), fruits.getY(ii));
+		}
+		grid.build();
+
+		int count = grid.findPairs();
+		for(int ii = 0; ii < count; ii++) {
+			int a = grid.getPairA(ii);
+			int b = grid.getPairB(ii);
+			if (tiers == null || tiers.isAwake(a) || tiers.isAwake(b)) {
+				checkForCollision(fruits.getFruit(a), fruits.getFruit(b));
+			}
+		}
 	}
 
 	/** 
@@ -74,7 +131,7 @@ public class CollisionController {
 	 */
 	public void checkForCollision(CharacterModel fruit1, CharacterModel fruit2) {
 		// Calculate the normal of the (possible) point of collision
-		normal.set(fruit1.getPosition()).sub(fruit2.getPosition());
+		normal.set(fruit1.getX(), fruit1.getY()).sub(fruit2.getX(), fruit2.getY());
 		float distance = normal.len();
 		float impactDistance = (fruit1.getDiameter() + fruit2.getDiameter()) / 2f;
 		normal.nor();
@@ -95,14 +152,14 @@ public class CollisionController {
 			// "Roll back" time so that the ships are barely touching (e.g. point of impact).
 			// We need to use temp, as the method scl would change the contents of normal!
 			temp.set(normal).scl((impactDistance - distance) / 2);  // normal * (d1 - dist)/2
-			fruit1.getPosition().add(temp);
+			fruit1.setPosition(fruit1.getX() + temp.x, fruit1.getY() + temp.y);
 
 			temp.set(normal).scl((impactDistance - distance) / 2);  // normal * (d2 - dist)/2
-			fruit2.getPosition().sub(temp);
+			fruit2.setPosition(fruit2.getX() - temp.x, fruit2.getY() - temp.y);
 
 			// Now it is time for Newton's Law of Impact.
 			// Convert the two velocities into a single reference frame
-			velocity.set(fruit1.getVelocity()).sub(fruit2.getVelocity()); // v1-v2
+			velocity.set(fruit1.getVX(), fruit1.getVY()).sub(fruit2.getVX(), fruit2.getVY()); // v1-v2
 
 			// Compute the impulse (see Essential Math for Game Programmers)
 			float impulse = (-(1 + COLLISION_COEFF) * normal.dot(velocity)) /
@@ -110,152 +167,211 @@ public class CollisionController {
 
 			// Change velocity of the two ships using this impulse
 			temp.set(normal).scl(impulse / fruit1.getMass());
-			fruit1.getVelocity().add(temp);
+			fruit1.setVelocity(fruit1.getVX() + temp.x, fruit1.getVY() + temp.y);
 
 			temp.set(normal).scl(impulse / fruit2.getMass());
-			fruit2.getVelocity().sub(temp);
+			fruit2.setVelocity(fruit2.getVX() - temp.x, fruit2.getVY() - temp.y);
 		}
 	}
 
 	/**
 	 *  Handles collisions between a ship and photon
 	 *
+	 *  The photon is read and written in place in its queue, so that there is
+	 *  no heap allocation.  The photon bounces straight back and gives up its
+	 *  damage; the character is pushed out but keeps its velocity.
+	 *
 	 *  @param character Character in candidate collision
-	 *  @param photon1 Photon in candidate collision
+	 *  @param photons Photon queue holding the photon
+	 *  @param index Index of the photon in candidate collision
 	 */
-	public void checkForCollision(CharacterModel character, PhotonQueue.Photon photon1) {
-
+	public void checkForCollision(CharacterModel character, PhotonQueue photons, int index) {
 		// Calculate the normal of the (possible) point of collision
-		normal.set(character.getPosition()).sub(new Vector2(photon1.x, photon1.y));
-		float distance = normal.len();
-		float impactDistance = (character.getDiameter() + photon1.getDiameter()) / 2f;
-		normal.nor();
+		float px = character.getX();
+		float py = character.getY();
+		float distance = computeNormal(px, py, photons.getX(index), photons.getY(index));
+		float impactDistance = (character.getDiameter() + photons.getDiameter(index)) / 2f;
 
 		// If this normal is too small, there was a collision
 		if (distance < impactDistance) {
-
 			// "Roll back" time so that the ships are barely touching (e.g. point of impact).
-			// We need to use temp, as the method scl would change the contents of normal!
-			temp.set(normal).scl((impactDistance - distance) / 2);  // normal * (d1 - dist)/2
-			character.getPosition().add(temp);
-
-			temp.set(normal).scl((impactDistance - distance) / 2);  // normal * (d2 - dist)/2
-			photon1.getPosition().sub(temp);
-
-			// Now it is time for Newton's Law of Impact.
-			// Convert the two velocities into a single reference frame
-			velocity.set(character.getVelocity()).sub(photon1.getVelocity()); // v1-v2
-
-			// Compute the impulse (see Essential Math for Game Programmers)
-			float impulse = (-(1 + COLLISION_COEFF) * normal.dot(velocity)) /
-					(normal.dot(normal) * (1 / character.getMass() + 1 / photon1.getMass()));
-
-			// Change velocity of the two ships using this impulse
-			temp.set(normal).scl(impulse / character.getMass());
-			//character.getVelocity().add(temp);
+			float correction = (impactDistance - distance) / 2;
+			character.setPosition(px + normal.x * correction, py + normal.y * correction);
 
-			temp.set(normal).scl(impulse / photon1.getMass());
-			photon1.setVelocity(photon1.getVelocity().mulAdd(photon1.getVelocity(),-2));
-			character.takeDamage(photon1.damage);
-			photon1.damage = 0;
+			// Reflect the photon
+			character.takeDamage(photons.hit(index, -normal.x * correction, -normal.y * correction));
 		}
 	}
 
 	/**
-	 *  Handles collisions between a ship and photon
+	 *  Handles collisions between a ship and the tip of a skewer
+	 *
+	 *  The skewer is read and written through its fields, so that there is
+	 *  no heap allocation.
+	 *
+	 *  The tip can move further than the width of a ship in one tick, so an
+	 *  overlap at the end of the tick is not enough.  If the tip does not
+	 *  overlap the ship now, but passed through it on the way from where it
+	 *  was at the start of the tick, the ship still takes the damage.  There
+	 *  is nothing to push apart in that case.
 	 *
 	 *  @param fruit Fruit in candidate collision
 	 *  @param skewer Skewer in candidate collision
 	 */
 	public void checkForCollision(Fruit fruit, Skewer skewer) {
-		normal.set(fruit.getPosition()).sub(skewer.getTipPosition());
-		float distance = normal.len();
+		float px = fruit.getX();
+		float py = fruit.getY();
+		float distance = computeNormal(px, py, skewer.getTipX(), skewer.getTipY());
 		float impactDistance = (fruit.getDiameter() + skewer.getDiameter()) / 2f;
-		normal.nor();
 
 		// If this normal is too small, there was a collision
 		if (distance < impactDistance) {
 			// "Roll back" time so that the ships are barely touching (e.g. point of impact).
-			// We need to use temp, as the method scl would change the contents of normal!
-			temp.set(normal).scl((impactDistance - distance) / 2);  // normal * (d1 - dist)/2
-			fruit.getPosition().add(temp);
+			// Moving the skewer moves its tip by the same amount.
+			float correction = (impactDistance - distance) / 2;
+			fruit.setPosition(px + normal.x * correction, py + normal.y * correction);
+			skewer.x -= normal.x * correction;
+			skewer.y -= normal.y * correction;
 
-			temp.set(normal).scl((impactDistance - distance) / 2);  // normal * (d2 - dist)/2
-			skewer.getTipPosition().sub(temp);
-
-			// Now it is time for Newton's Law of Impact.
-			// Convert the two velocities into a single reference frame
-			velocity.set(fruit.getVelocity()).sub(skewer.getVelocity()); // v1-v2
-
-			// Compute the impulse (see Essential Math for Game Programmers)
-//			float impulse = (-(1 + COLLISION_COEFF) * normal.dot(velocity)) /
-//					(normal.dot(normal) * (1 / fruit.getMass() + 1 / skewer.getMass()));
-
-			// Change velocity of the two ships using this impulse
-//			temp.set(normal).scl(impulse / fruit.getMass());
-//			fruit.getVelocity().add(temp);
-
-//			temp.set(normal).scl(impulse / skewer.getMass());
-//			skewer.setVelocity(skewer.getVelocity().mulAdd(skewer.getVelocity(), -2));
+			fruit.takeDamage(skewer.damage);
+			skewer.damage = 0;
+		} else if (skewer.damage > 0 &&
+				   sweep(px, py, skewer.getLastTipX(), skewer.getLastTipY(),
+						 skewer.getTipX(), skewer.getTipY(), impactDistance) >= 0) {
 			fruit.takeDamage(skewer.damage);
 			skewer.damage = 0;
 		}
 	}
 
 	/**
-	 *  Handles collisions between a ship and photon
+	 *  Handles collisions between a ship and the punching glove of a skewer
+	 *
+	 *  The skewer is read and written through its fields, so that there is
+	 *  no heap allocation.
+	 *
+	 *  As with the skewer tip, the glove is tested along its path this tick.
+	 *  If it passed through the ship, the ship is stunned and knocked away
+	 *  from the point where the glove first touched it.
 	 *
 	 *  @param fruit Fruit in candidate collision
 	 *  @param skewer Skewer in candidate collision
 	 */
 	public void checkForStunCollision(Fruit fruit, Skewer skewer) {
-		normal.set(fruit.getPosition()).sub(skewer.getPunchPosition());
-		float distance = normal.len();
+		float px = fruit.getX();
+		float py = fruit.getY();
+		float distance = computeNormal(px, py, skewer.getPunchX(), skewer.getPunchY());
 		float impactDistance = (fruit.getDiameter() + 2*skewer.getDiameter()) / 2f;
-		normal.nor();
+
+		// If the glove passed through the ship this tick, hit it where it first touched
+		boolean swept = false;
+		if (distance >= impactDistance) {
+			float x0 = skewer.getLastPunchX();
+			float y0 = skewer.getLastPunchY();
+			float t = sweep(px, py, x0, y0, skewer.getPunchX(), skewer.getPunchY(), impactDistance);
+			if (t >= 0) {
+				computeNormal(px, py, x0 + (skewer.getPunchX() - x0) * t, y0 + (skewer.getPunchY() - y0) * t);
+				swept = true;
+			}
+		}
 
 		// If this normal is too small, there was a collision
-		if (distance < impactDistance) {
+		if (distance < impactDistance || swept) {
 			// "Roll back" time so that the ships are barely touching (e.g. point of impact).
-			// We need to use temp, as the method scl would change the contents of normal!
-			temp.set(normal).scl((impactDistance - distance) / 2);  // normal * (d1 - dist)/2
-			fruit.getPosition().add(temp);
-
-			temp.set(normal).scl((impactDistance - distance) / 2);  // normal * (d2 - dist)/2
-			skewer.getPunchPosition().sub(temp);
+			// Moving the glove position moves the glove by the same amount.
+			if (!swept) {
+				float correction = (impactDistance - distance) / 2;
+				fruit.setPosition(px + normal.x * correction, py + normal.y * correction);
+				skewer.xp -= normal.x * correction;
+				skewer.yp -= normal.y * correction;
+			}
 
 			// Now it is time for Newton's Law of Impact.
 			// Convert the two velocities into a single reference frame
-			velocity.set(fruit.getVelocity()).sub(skewer.getVelocity()); // v1-v2
+			velocity.set(fruit.getVX(), fruit.getVY()).sub(skewer.vx, skewer.vy); // v1-v2
 
 			// Compute the impulse (see Essential Math for Game Programmers)
 			float impulse = (-(1 + COLLISION_COEFF) * normal.dot(velocity)) /
 					(normal.dot(normal) * (1 / fruit.getMass() + 1 / skewer.getMass()));
 
-			// Change velocity of the two ships using this impulse
-			temp.set(normal).scl(impulse / fruit.getMass());
-			fruit.getVelocity().add(temp);
+			// Change velocity of the ship using this impulse
+			float scale = impulse / fruit.getMass();
+			fruit.setVelocity(fruit.getVX() + normal.x * scale, fruit.getVY() + normal.y * scale);
 
-//			temp.set(normal).scl(impulse / skewer.getMass());
-//			skewer.setVelocity(skewer.getVelocity().mulAdd(skewer.getVelocity(), -2));
-//			fruit.takeDamage(skewer.damage);
-//			skewer.damage = 0;
 			fruit.isStunned = true;
-			fruit.stunTimer = STUN_TIME;
+			fruit.setStunTimer(STUN_TIME);
+		}
+	}
+
+	/**
+	 *  Returns when a moving point first comes within a radius of a position.
+	 *
+	 *  The point moves in a straight line from (x0,y0) to (x1,y1) over the
+	 *  tick.  This is the same as a moving circle against a still one, with
+	 *  the radius the sum of the two radii.  It solves |p0 + t(p1-p0) - pos| = r
+	 *  for the smallest t.
+	 *
+	 *  @param px		The x-coordinate of the ship
+	 *  @param py		The y-coordinate of the ship
+	 *  @param x0		The x-coordinate of the point at the start of the tick
+	 *  @param y0		The y-coordinate of the point at the start of the tick
+	 *  @param x1		The x-coordinate of the point at the end of the tick
+	 *  @param y1		The y-coordinate of the point at the end of the tick
+	 *  @param radius	The distance that counts as touching
+	 *
+	 *  @return the fraction of the tick at first contact (0 to 1), or -1 if none
+	 */
+	private float sweep(float px, float py, float x0, float y0, float x1, float y1, float radius) {
+		float mx = x0 - px;
+		float my = y0 - py;
+		float c = mx * mx + my * my - radius * radius;
+		if (c <= 0) {
+			return 0;	// Touching from the start
 		}
+		float dx = x1 - x0;
+		float dy = y1 - y0;
+		float a = dx * dx + dy * dy;
+		float b = mx * dx + my * dy;
+		if (a == 0 || b >= 0) {
+			return -1;	// Not moving, or moving away
+		}
+		float disc = b * b - a * c;
+		if (disc < 0) {
+			return -1;	// Misses
+		}
+		float t = (-b - (float)Math.sqrt(disc)) / a;
+		return t <= 1 ? t : -1;
+	}
+
+	/**
+	 *  Computes the unit normal from the point (x,y) to the given position.
+	 *
+	 *  The normal is stored in the normal cache object.
+	 *
+	 *  @param px	The x-coordinate of the ship
+	 *  @param py	The y-coordinate of the ship
+	 *  @param x	The x-coordinate of the other object
+	 *  @param y	The y-coordinate of the other object
+	 *
+	 *  @return the distance from (x,y) to the given position
+	 */
+	private float computeNormal(float px, float py, float x, float y) {
+		normal.set(px - x, py - y);
+		float distance = normal.len();
+		normal.nor();
+		return distance;
 	}
 
 	public void checkForBounds(CharacterModel character, int boundX, int boundY) {
-		if (character.getPosition().x <= -boundX) {
-			character.getPosition().x = -boundX + 1f;
-		} else if (character.getPosition().x >= boundX) {
-			character.getPosition().x = boundX - 1f;
+		if (character.getX() <= -boundX) {
+			character.setPosition(-boundX + 1f, character.getY());
+		} else if (character.getX() >= boundX) {
+			character.setPosition(boundX - 1f, character.getY());
 		}
 
-		if (character.getPosition().y <= -boundY) {
-			character.getPosition().y = -boundY + 1f;
-		} else if (character.getPosition().y >= boundY) {
-			character.getPosition().y = boundY - 1f;
+		if (character.getY() <= -boundY) {
+			character.setPosition(character.getX(), -boundY + 1f);
+		} else if (character.getY() >= boundY) {
+			character.setPosition(character.getX(), boundY - 1f);
 		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+/*
+ * FrameHistogram.java
+ *
+ * This class counts how often each frame time occurs, so that we can report
+ * percentiles (p50, p99) instead of an average.  An average hides the stutter
+ * we care about: one 100 ms frame in a thousand barely moves it.
+ *
+ * Storing every sample would grow without bound, so the samples are counted
+ * in buckets instead, in the style of HdrHistogram.  The first 32 buckets are
+ * one microsecond wide.  After that, every power of two is split into 32
+ * buckets, so a bucket is never wider than about 3% of the values in it.  The
+ * table is allocated once, and recording a sample is a few shifts and an
+ * increment.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size, log-linear histogram of durations.
+ *
+ * Durations are recorded in nanoseconds and reported in microseconds.  This
+ * class is not thread-safe; each thread should record into its own histogram.
+ */
+public class FrameHistogram {
+	/** The number of bits of precision in each power of two */
+	private static final int SUB_BITS = 5;
+	/** The number of buckets in each power of two */
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	/** The largest duration that can be told apart (about 67 s, in microseconds) */
+	private static final long MAX_MICROS = (1L << 26) - 1;
+	/** The number of buckets needed to reach MAX_MICROS */
+	private static final int BUCKETS = (26 - SUB_BITS + 1) * SUB_COUNT;
+
+	/** The number of samples in each bucket */
+	private long[] counts;
+	/** The total number of samples */
+	private long total;
+	/** The sum of all samples (in microseconds) */
+	private long sum;
+	/** The largest sample (in microseconds) */
+	private long max;
+
+	/**
+	 * Creates a new, empty histogram
+	 */
+	public FrameHistogram() {
+		counts = new long[BUCKETS];
+	}
+
+	/**
+	 * Adds a duration to this histogram
+	 *
+	 * Durations longer than about 67 seconds are counted as 67 seconds.
+	 *
+	 * @param nanos	The duration (in nanoseconds)
+	 */
+	public void record(long nanos) {
+		long micros = Math.min(MAX_MICROS, Math.max(0, nanos / 1000));
+		counts[indexOf(micros)]++;
+		total++;
+		sum += micros;
+		max = Math.max(max, micros);
+	}
+
+	/**
+	 * Returns the number of durations recorded
+	 *
+	 * @return the number of durations recorded
+	 */
+	public long getCount() {
+		return total;
+	}
+
+	/**
+	 * Returns the longest duration recorded (in microseconds)
+	 *
+	 * @return the longest duration recorded (in microseconds)
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * Returns the average duration recorded (in microseconds)
+	 *
+	 * @return the average duration recorded (in microseconds)
+	 */
+	public double getMean() {
+		return total == 0 ? 0 : sum / (double)total;
+	}
+
+	/**
+	 * Returns the duration below which the given percentage of samples fall
+	 *
+	 * The result is the upper end of the bucket holding that sample, so it
+	 * may overestimate by the bucket width (about 3%), but never by more than
+	 * the largest sample.
+	 *
+	 * @param percent	The percentile (0 to 100)
+	 *
+	 * @return the duration at the given percentile (in microseconds)
+	 */
+	public long getPercentile(double percent) {
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long)Math.ceil(percent / 100.0 * total));
+		long seen = 0;
+		for (int ii = 0; ii < BUCKETS; ii++) {
+			seen += counts[ii];
+			if (seen >= rank) {
+				return Math.min(max, highestValueOf(ii));
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Removes all samples from this histogram
+	 */
+	public void reset() {
+		Arrays.fill(counts, 0);
+		total = 0;
+		sum = 0;
+		max = 0;
+	}
+
+	/**
+	 * Returns the bucket for the given duration
+	 *
+	 * @param micros	The duration (in microseconds)
+	 *
+	 * @return the bucket for the given duration
+	 */
+	private static int indexOf(long micros) {
+		if (micros < SUB_COUNT) {
+			return (int)micros;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BITS;
+		return (shift + 1) * SUB_COUNT + (int)(micros >> shift) - SUB_COUNT;
+	}
+
+	/**
+	 * Returns the largest duration in the given bucket
+	 *
+	 * @param index	The bucket
+	 *
+	 * @return the largest duration in the given bucket (in microseconds)
+	 */
+	private static long highestValueOf(int index) {
+		if (index < SUB_COUNT) {
+			return index;
+		}
+		int shift = index / SUB_COUNT - 1;
+		long sub = SUB_COUNT + index % SUB_COUNT;
+		return ((sub + 1) << shift) - 1;
+	}
+}
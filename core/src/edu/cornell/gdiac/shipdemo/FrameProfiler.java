@@ -0,0 +1,189 @@
+/*
+ * FrameProfiler.java
+ *
+ * This class keeps frame time histograms for a whole play session.  The
+ * performance overlay (see FrameStats) only shows the last frame, which is
+ * useless for finding the occasional long frame that the player sees as a
+ * stutter.  The profiler records every frame, and at the end of the session it
+ * can write the percentiles of each phase of the game loop to a CSV file.
+ *
+ * There are four phases.  The frame interval is the time between the starts
+ * of two frames, as the player sees it (it includes vsync and the driver).
+ * Render is the CPU time of GDXRoot.render.  Update and draw are the CPU time
+ * of a single GameMode.update (one tick) and GameMode.draw.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Frame time percentiles for each phase of the game loop.
+ *
+ * All methods must be called from the render thread.
+ */
+public class FrameProfiler {
+	/** The time between the starts of two frames */
+	private FrameHistogram interval;
+	/** The CPU time of a whole frame */
+	private FrameHistogram render;
+	/** The CPU time of a single game tick */
+	private FrameHistogram update;
+	/** The CPU time of drawing the game */
+	private FrameHistogram draw;
+
+	/** Frames longer than this are logged (in nanoseconds; 0 for none) */
+	private long budget;
+	/** The number of frames longer than the budget */
+	private long overBudget;
+
+	/**
+	 * Creates a new profiler with no frame budget
+	 */
+	public FrameProfiler() {
+		interval = new FrameHistogram();
+		render = new FrameHistogram();
+		update = new FrameHistogram();
+		draw = new FrameHistogram();
+	}
+
+	/**
+	 * Returns the frame budget (in nanoseconds; 0 for none)
+	 *
+	 * @return the frame budget (in nanoseconds; 0 for none)
+	 */
+	public long getBudget() {
+		return budget;
+	}
+
+	/**
+	 * Sets the frame budget (in nanoseconds; 0 for none)
+	 *
+	 * A frame whose CPU time exceeds the budget is logged as it happens.
+	 *
+	 * @param nanos	the frame budget (in nanoseconds; 0 for none)
+	 */
+	public void setBudget(long nanos) {
+		budget = nanos;
+	}
+
+	/**
+	 * Returns the number of frames that exceeded the budget
+	 *
+	 * @return the number of frames that exceeded the budget
+	 */
+	public long getOverBudget() {
+		return overBudget;
+	}
+
+	/**
+	 * Records the time between the starts of two frames
+	 *
+	 * @param nanos	The frame interval (in nanoseconds)
+	 */
+	public void recordInterval(long nanos) {
+		interval.record(nanos);
+	}
+
+	/**
+	 * Records the CPU time of a whole frame
+	 *
+	 * @param nanos	The frame time (in nanoseconds)
+	 */
+	public void recordRender(long nanos) {
+		render.record(nanos);
+		if (budget > 0 && nanos > budget) {
+			overBudget++;
+			Gdx.app.log("FrameProfiler", "Frame took "+(nanos/1000)+" us (budget "+(budget/1000)+" us)");
+		}
+	}
+
+	/**
+	 * Records the CPU time of a single game tick
+	 *
+	 * @param nanos	The tick time (in nanoseconds)
+	 */
+	public void recordUpdate(long nanos) {
+		update.record(nanos);
+	}
+
+	/**
+	 * Records the CPU time of drawing the game
+	 *
+	 * @param nanos	The draw time (in nanoseconds)
+	 */
+	public void recordDraw(long nanos) {
+		draw.record(nanos);
+	}
+
+	/**
+	 * Removes all samples from this profiler
+	 */
+	public void reset() {
+		interval.reset();
+		render.reset();
+		update.reset();
+		draw.reset();
+		overBudget = 0;
+	}
+
+	/**
+	 * Writes the percentiles of each phase as CSV
+	 *
+	 * There is one row per phase.  All times are in microseconds.
+	 *
+	 * @param out	The writer to write to
+	 *
+	 * @throws IOException if the writer fails
+	 */
+	public void write(Writer out) throws IOException {
+		out.write("phase,count,mean_us,p50_us,p95_us,p99_us,max_us\n");
+		writeRow(out, "interval", interval);
+		writeRow(out, "render", render);
+		writeRow(out, "update", update);
+		writeRow(out, "draw", draw);
+	}
+
+	/**
+	 * Writes the percentiles of each phase as CSV to the given file
+	 *
+	 * Failures are logged rather than thrown, as this is called on exit.
+	 *
+	 * @param file	The file to (over)write
+	 */
+	public void dump(FileHandle file) {
+		Writer out = null;
+		try {
+			out = file.writer(false, "UTF-8");
+			write(out);
+		} catch (Exception e) {
+			Gdx.app.error("FrameProfiler", "Could not write "+file.path(), e);
+		} finally {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException e) {
+					Gdx.app.error("FrameProfiler", "Could not write "+file.path(), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes a single CSV row for the given phase
+	 *
+	 * @param out	The writer to write to
+	 * @param name	The name of the phase
+	 * @param phase	The histogram of the phase
+	 *
+	 * @throws IOException if the writer fails
+	 */
+	private void writeRow(Writer out, String name, FrameHistogram phase) throws IOException {
+		out.write(name+","+phase.getCount()+","+Math.round(phase.getMean())+","+
+				  phase.getPercentile(50)+","+phase.getPercentile(95)+","+
+				  phase.getPercentile(99)+","+phase.getMax()+"\n");
+	}
+}
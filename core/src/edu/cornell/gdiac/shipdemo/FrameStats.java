@@ -0,0 +1,152 @@
+/*
+ * FrameStats.java
+ *
+ * This class records what a single frame cost.  GameCanvas counts the drawing
+ * work (how many sprites, how many times the sprite batch had to flush, and why),
+ * while GDXRoot measures the CPU time spent in the update and draw halves of the
+ * game loop.  Together they tell us which part of the loop regresses when the
+ * number of ships goes up.
+ *
+ * The counters are plain fields so that recording them never allocates.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+/**
+ * Counters and timings for a single frame.
+ *
+ * GameCanvas keeps two of these: one for the frame in progress, and one for
+ * the last completed frame.  Only the latter should be read.
+ */
+public class FrameStats {
+	/** Number of drawing requests made to the canvas */
+	int drawCalls;
+	/** Number of sprites (quads) submitted to the sprite batch */
+	int sprites;
+	/** Number of times the sprite batch flushed to the graphics card */
+	int renderCalls;
+	/** Number of times consecutive sprites used different textures */
+	int textureSwitches;
+	/** Number of times the blend state changed */
+	int blendChanges;
+	/** Number of objects skipped because they were off screen */
+	int culled;
+	/** CPU time spent updating the game (in nanoseconds) */
+	long updateTime;
+	/** CPU time spent drawing the game (in nanoseconds) */
+	long drawTime;
+
+	/**
+	 * Returns the number of drawing requests made to the canvas
+	 *
+	 * Each call to a draw method of GameCanvas is one request, even if it
+	 * draws several sprites (e.g. text or a progress bar).
+	 *
+	 * @return the number of drawing requests made to the canvas
+	 */
+	public int getDrawCalls() {
+		return drawCalls;
+	}
+
+	/**
+	 * Returns the number of sprites (quads) submitted to the sprite batch
+	 *
+	 * @return the number of sprites (quads) submitted to the sprite batch
+	 */
+	public int getSprites() {
+		return sprites;
+	}
+
+	/**
+	 * Returns the number of times the sprite batch flushed to the graphics card
+	 *
+	 * This is the sum of SpriteBatch.renderCalls over every begin-end pair in
+	 * the frame.  Each flush is a separate OpenGL draw call.
+	 *
+	 * @return the number of times the sprite batch flushed to the graphics card
+	 */
+	public int getRenderCalls() {
+		return renderCalls;
+	}
+
+	/**
+	 * Returns the number of times consecutive sprites used different textures
+	 *
+	 * Every texture switch forces the sprite batch to flush.
+	 *
+	 * @return the number of times consecutive sprites used different textures
+	 */
+	public int getTextureSwitches() {
+		return textureSwitches;
+	}
+
+	/**
+	 * Returns the number of times the blend state changed
+	 *
+	 * Every blend state change forces the sprite batch to flush.
+	 *
+	 * @return the number of times the blend state changed
+	 */
+	public int getBlendChanges() {
+		return blendChanges;
+	}
+
+	/**
+	 * Returns the number of objects skipped because they were off screen
+	 *
+	 * @return the number of objects skipped because they were off screen
+	 */
+	public int getCulled() {
+		return culled;
+	}
+
+	/**
+	 * Returns the CPU time spent updating the game (in nanoseconds)
+	 *
+	 * @return the CPU time spent updating the game (in nanoseconds)
+	 */
+	public long getUpdateTime() {
+		return updateTime;
+	}
+
+	/**
+	 * Returns the CPU time spent drawing the game (in nanoseconds)
+	 *
+	 * This includes the final flush of the sprite batch, but not the time
+	 * the graphics card spends on the frame.
+	 *
+	 * @return the CPU time spent drawing the game (in nanoseconds)
+	 */
+	public long getDrawTime() {
+		return drawTime;
+	}
+
+	/**
+	 * Resets all counters and timings to zero
+	 */
+	public void reset() {
+		drawCalls = 0;
+		sprites = 0;
+		renderCalls = 0;
+		textureSwitches = 0;
+		blendChanges = 0;
+		culled = 0;
+		updateTime = 0;
+		drawTime = 0;
+	}
+
+	/**
+	 * Copies all counters and timings from the given frame
+	 *
+	 * @param other	The frame to copy
+	 */
+	public void set(FrameStats other) {
+		drawCalls = other.drawCalls;
+		sprites = other.sprites;
+		renderCalls = other.renderCalls;
+		textureSwitches = other.textureSwitches;
+		blendChanges = other.blendChanges;
+		culled = other.culled;
+		updateTime = other.updateTime;
+		drawTime = other.drawTime;
+	}
+}
@@ -26,6 +26,7 @@ package edu.cornell.gdiac.shipdemo;
 
 import com.badlogic.gdx.math.*;
 import com.badlogic.gdx.graphics.*;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import edu.cornell.gdiac.util.*;
 
 /**
@@ -83,12 +84,14 @@ public abstract class Fruit extends CharacterModel {
     /** Amount of velocity the boost adds */
     public static final int BOOST_FACTOR = 40;
 
-    private int hp;
+    // The position, velocity, angle, health, stun timer and type live in a FruitStore
+    /** The store holding the state of this ship */
+    FruitStore store;
+    /** The slot of this ship in its store */
+    int slot;
+    /** The one-slot store that holds the state while this ship is not in a game store */
+    final FruitStore home;
 
-    /** Position of the ship */
-    public Vector2 pos;
-    /** Velocity of the ship */
-    private Vector2 vel;
     /** Color to tint this ship (red or blue) */
     public Color  tint;
     /** Color of the ships shadow (cached) */
@@ -100,8 +103,6 @@ public abstract class Fruit extends CharacterModel {
     // The following are protected, because they have no accessors
     /** Offset of the ships target */
     public Vector2 tofs;
-    /** Current angle of the ship */
-    public float ang;
     /** Accumulator variable to turn faster as key is held down */
     public float dang;
     /** Countdown to limit refire rate */
@@ -112,18 +113,17 @@ public abstract class Fruit extends CharacterModel {
     public int type;
     /** Stunned attribute */
     public boolean isStunned;
-    public int stunTimer;
     /** Frames left until boost is available */
     public int boostCooldown;
     private int id;
 
     // Asset references.  These should be set by GameMode
     /** Reference to ship's sprite for drawing */
-    private Texture shipSprite;
+    private TextureRegion shipSprite;
     /** Texture for the target reticule */
-    private Texture weaponTexture;
+    private TextureRegion weaponTexture;
     /** Texture for the heart */
-    private Texture heartTexture;
+    private TextureRegion heartTexture;
 
     // ACCESSORS
     /**
@@ -134,7 +134,7 @@ public abstract class Fruit extends CharacterModel {
      *
      * @return the image texture for this ship
      */
-    public Texture getTexture() {
+    public TextureRegion getTexture() {
         return shipSprite;
     }
 
@@ -146,7 +146,7 @@ public abstract class Fruit extends CharacterModel {
      *
      * param value the image texture for this ship
      */
-    public void setTexture(Texture value) {
+    public void setTexture(TextureRegion value) {
         shipSprite = value;
     }
 
@@ -158,7 +158,7 @@ public abstract class Fruit extends CharacterModel {
      *
      * @return the image texture for the target reticule
      */
-    public Texture getWeaponTexture() {
+    public TextureRegion getWeaponTexture() {
         return weaponTexture;
     }
 
@@ -170,7 +170,7 @@ public abstract class Fruit extends CharacterModel {
      *
      * param value the image texture for the target reticule
      */
-    public void setWeaponTexture(Texture value) {
+    public void setWeaponTexture(TextureRegion value) {
         weaponTexture = value;
     }
 
@@ -182,7 +182,7 @@ public abstract class Fruit extends CharacterModel {
      *
      * param value the image heart texture
      */
-    public void setHeartTexture(Texture value) {
+    public void setHeartTexture(TextureRegion value) {
         heartTexture = value;
     }
 
@@ -191,10 +191,14 @@ public abstract class Fruit extends CharacterModel {
      *
      * This is location of the center pixel of the ship on the screen.
      *
-     * @return the position of this ship
+     * The position lives in the FruitStore, so this allocates a new vector.
+     * Changing it does not move the ship; use setPosition for that.  Code
+     * that runs every frame should use getX and getY instead.
+     *
+     * @return a new vector with the position of this ship
      */
     public Vector2 getPosition() {
-        return pos;
+        return new Vector2(store.x[slot], store.y[slot]);
     }
 
     /**
@@ -205,7 +209,38 @@ public abstract class Fruit extends CharacterModel {
      * @param value the position of this ship
      */
     public void setPosition(Vector2 value) {
-        pos.set(value);
+        setPosition(value.x, value.y);
+    }
+
+    /**
+     * Sets the position of this ship.
+     *
+     * This is location of the center pixel of the ship on the screen.
+     *
+     * @param x the x-coordinate of this ship
+     * @param y the y-coordinate of this ship
+     */
+    public void setPosition(float x, float y) {
+        store.x[slot] = x;
+        store.y[slot] = y;
+    }
+
+    /**
+     * Returns the x-coordinate of this ship.
+     *
+     * @return the x-coordinate of this ship
+     */
+    public float getX() {
+        return store.x[slot];
+    }
+
+    /**
+     * Returns the y-coordinate of this ship.
+     *
+     * @return the y-coordinate of this ship
+     */
+    public float getY() {
+        return store.y[slot];
     }
 
     /**
@@ -213,10 +248,14 @@ public abstract class Fruit extends CharacterModel {
      *
      * This value is necessary to control momementum in ship movement.
      *
-     * @return the velocity of this ship
+     * The velocity lives in the FruitStore, so this allocates a new vector.
+     * Changing it does not affect the ship; use setVelocity for that.  Code
+     * that runs every frame should use getVX and getVY instead.
+     *
+     * @return a new vector with the velocity of this ship
      */
     public Vector2 getVelocity() {
-        return vel;
+        return new Vector2(store.vx[slot], store.vy[slot]);
     }
 
     /**
@@ -227,7 +266,38 @@ public abstract class Fruit extends CharacterModel {
      * @param value the velocity of this ship
      */
     public void setVelocity(Vector2 value) {
-        vel.set(value);
+        setVelocity(value.x, value.y);
+    }
+
+    /**
+     * Sets the velocity of this ship.
+     *
+     * This value is necessary to control momementum in ship movement.
+     *
+     * @param vx the x-velocity of this ship
+     * @param vy the y-velocity of this ship
+     */
+    public void setVelocity(float vx, float vy) {
+        store.vx[slot] = vx;
+        store.vy[slot] = vy;
+    }
+
+    /**
+     * Returns the x-velocity of this ship.
+     *
+     * @return the x-velocity of this ship
+     */
+    public float getVX() {
+        return store.vx[slot];
+    }
+
+    /**
+     * Returns the y-velocity of this ship.
+     *
+     * @return the y-velocity of this ship
+     */
+    public float getVY() {
+        return store.vy[slot];
     }
 
     /**
@@ -238,7 +308,7 @@ public abstract class Fruit extends CharacterModel {
      * @return the angle of the ship
      */
     public float getAngle() {
-        return ang;
+        return store.ang[slot];
     }
 
     /**
@@ -249,7 +319,25 @@ public abstract class Fruit extends CharacterModel {
      * @param value the angle of the ship
      */
     public void setAngle(float value) {
-        ang = value;
+        store.ang[slot] = value;
+    }
+
+    /**
+     * Returns the number of frames this ship remains stunned.
+     *
+     * @return the number of frames this ship remains stunned
+     */
+    public int getStunTimer() {
+        return store.stunTimer[slot];
+    }
+
+    /**
+     * Sets the number of frames this ship remains stunned.
+     *
+     * @param value the number of frames this ship remains stunned
+     */
+    public void setStunTimer(int value) {
+        store.stunTimer[slot] = value;
     }
 
     /**
@@ -333,7 +421,18 @@ public abstract class Fruit extends CharacterModel {
      * @return the ship type
      */
     public int getHP() {
-        return hp;
+        return store.hp[slot];
+    }
+
+    /**
+     * Sets the HP of the ship.
+     *
+     * This is for drawing a snapshot of the game; use takeDamage in the game.
+     *
+     * @param value the ship HP
+     */
+    public void setHP(int value) {
+        store.hp[slot] = value;
     }
 
     /**
@@ -343,8 +442,9 @@ public abstract class Fruit extends CharacterModel {
      * @param damage the damage taken by the ship
      */
     public void takeDamage(int damage) {
-        this.hp -= damage;
-        this.hp = Math.max(this.hp, 0);
+        int[] hp = store.hp;
+        hp[slot] -= damage;
+        hp[slot] = Math.max(hp[slot], 0);
     }
 
     /**
@@ -356,29 +456,79 @@ public abstract class Fruit extends CharacterModel {
      * @param size The size scaling of this ship
      */
     public Fruit(float x, float y, float ang, float size, int id, int hp) {
+        // Allocate the state and colors once; reset fills them in
+        home = new FruitStore(1);
+        home.type[0] = getType().ordinal();
+        bind(home, 0);
+        tofs = new Vector2();
+        tint  = new Color(Color.WHITE);
+        stint = new Color(0.0f,0.0f,0.0f,0.5f);
+
+        reset(x, y, ang, size, id, hp);
+    }
+
+    /**
+     * Resets this ship to a new ship at the given location with the given facing.
+     *
+     * This allows a dead ship to be recycled (see AIFactory) instead of allocated.
+     * The textures are not changed.
+     *
+     * @param x The initial x-coordinate of the center
+     * @param y The initial y-coordinate of the center
+     * @param ang The initial angle of rotation
+     * @param size The size scaling of this ship
+     * @param id The ship handle
+     */
+    public abstract void reset(float x, float y, float ang, float size, int id);
+
+    /**
+     * Resets this ship to a new ship at the given location with the given facing.
+     *
+     * @param x The initial x-coordinate of the center
+     * @param y The initial y-coordinate of the center
+     * @param ang The initial angle of rotation
+     * @param size The size scaling of this ship
+     * @param id The ship handle
+     * @param hp The initial health
+     */
+    protected void reset(float x, float y, float ang, float size, int id, int hp) {
         // Set the position of this ship.
-        this.pos = new Vector2(x,y);
-        this.ang = ang;
+        setPosition(x, y);
+        setAngle(ang);
         this.size = size;
 
         // We start at rest.
-        vel = new Vector2();
+        setVelocity(0, 0);
         dang = 0.0f;
         mass = 1.0f;
 
         // Currently no target sited.
-        tofs = new Vector2();
+        tofs.setZero();
         refire = 0;
+        boostCooldown = 0;
 
         //Set current ship image
-        tint  = new Color(Color.WHITE);
-        stint = new Color(0.0f,0.0f,0.0f,0.5f);
+        stint.set(0.0f,0.0f,0.0f,0.5f);
         this.setColor(Color.WHITE);
 
         this.id = id;
-        this.hp = hp;
+        setHP(hp);
         this.isStunned = false;
-        this.stunTimer = 0;
+        setStunTimer(0);
+        this.isSpiked = false;
+    }
+
+    /**
+     * Makes this ship a view of the given slot.
+     *
+     * This is called by FruitStore whenever the ship changes slots.
+     *
+     * @param store The store holding the state of this ship
+     * @param slot  The slot of this ship in the store
+     */
+    void bind(FruitStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
     }
 
     /**
@@ -396,20 +546,30 @@ public abstract class Fruit extends CharacterModel {
         // Process the ship turning.
         setAngle(angle * 360 / ((float)Math.PI * 2));
 
-        pos.add(upward * THRUST_FACTOR,rightward * THRUST_FACTOR);
+        float[] x = store.x;
+        float[] y = store.y;
+        float[] vx = store.vx;
+        float[] vy = store.vy;
+        float[] ang = store.ang;
+        int s = slot;
+
+        x[s] += upward * THRUST_FACTOR;
+        y[s] += rightward * THRUST_FACTOR;
         // Gradually slow the ship down
-        vel.scl(FORWARD_DAMPING);
+        vx[s] *= FORWARD_DAMPING;
+        vy[s] *= FORWARD_DAMPING;
 
         // Move the ship, updating it.
         // Adjust the angle by the change in angle
-        ang += dang;  // INVARIANT: -360 < ang < 720
-        if (ang > 360)
-            ang -= 360;
-        if (ang < 0)
-            ang += 360;
+        ang[s] += dang;  // INVARIANT: -360 < ang < 720
+        if (ang[s] > 360)
+            ang[s] -= 360;
+        if (ang[s] < 0)
+            ang[s] += 360;
 
         // Move the ship position by the ship velocity
-        pos.add(vel);
+        x[s] += vx[s];
+        y[s] += vy[s];
 
         //Increment the refire readiness counter
         if (refire <= RELOAD_RATE) {
@@ -444,6 +604,42 @@ public abstract class Fruit extends CharacterModel {
          */
     }
 
+    /**
+     * Returns true if anything drawShip draws would be on screen
+     *
+     * The bounds cover the ship at any angle, its shadow and its hearts, so
+     * this is more generous than getDiameter (the textures are larger than
+     * SHIP_SIZE, and the hearts sit above the ship).
+     *
+     * @param canvas The drawing canvas.
+     *
+     * @return true if anything drawShip draws would be on screen
+     */
+    public boolean isVisible(GameCanvas canvas) {
+        if (shipSprite == null) {
+            return false;
+        }
+        float ox = 0.5f * shipSprite.getRegionWidth();
+        float oy = 0.5f * shipSprite.getRegionHeight();
+        float radius = (float)Math.sqrt(ox * ox + oy * oy) * DEFAULT_SCALE * size;
+        float px = getX();
+        float py = getY();
+        int hp = getHP();
+
+        float left = px - radius;
+        float bottom = py - radius;
+        float right = px + radius + SHADOW_OFFSET;
+        float top = py + radius + SHADOW_OFFSET;
+        if (heartTexture != null && hp > 0) {
+            // Hearts are rows of 5, drawn with the ship's origin
+            left = Math.min(left, px - ox);
+            bottom = Math.min(bottom, py + SHIP_SIZE - oy);
+            right = Math.max(right, 80 + px - ox + heartTexture.getRegionWidth() * DEFAULT_SCALE);
+            top = Math.max(top, py + SHIP_SIZE + ((hp - 1) / 5) * 25 - oy + heartTexture.getRegionHeight() * DEFAULT_SCALE);
+        }
+        return canvas.isVisible(left, bottom, right, top);
+    }
+
     /**
      * Draws the ship (and its related images) to the given GameCanvas.
      *
@@ -459,16 +655,20 @@ public abstract class Fruit extends CharacterModel {
             return;
         }
         // For placement purposes, put origin in center.
-        float ox = 0.5f * shipSprite.getWidth();
-        float oy = 0.5f * shipSprite.getHeight();
+        float ox = 0.5f * shipSprite.getRegionWidth();
+        float oy = 0.5f * shipSprite.getRegionHeight();
+        float px = getX();
+        float py = getY();
+        float ang = getAngle();
+        int hp = getHP();
 
         // How much to rotate the image
         float rotate = -(90+ang);
 
         // Draw the shadow.  Make a translucent color.
         // Position it offset by 10 so it can be seen.
-        float sx = pos.x+SHADOW_OFFSET;
-        float sy = pos.y+SHADOW_OFFSET;
+        float sx = px+SHADOW_OFFSET;
+        float sy = py+SHADOW_OFFSET;
 
         // Need to negate y scale because of coordinate access flip.
         // Draw the shadow first
@@ -481,15 +681,15 @@ public abstract class Fruit extends CharacterModel {
 
         canvas.draw(shipSprite, s, ox, oy, sx, sy, ang - 180, DEFAULT_SCALE * size, DEFAULT_SCALE * size);
         // Then draw the ship
-        canvas.draw(shipSprite, t, ox, oy, pos.x, pos.y, ang - 180, DEFAULT_SCALE * size, DEFAULT_SCALE * size);
+        canvas.draw(shipSprite, t, ox, oy, px, py, ang - 180, DEFAULT_SCALE * size, DEFAULT_SCALE * size);
 
         // Draw the HP
         int xoffset = 0;
         int yoffset = 0;
 
-        for (int i = 1; i <= this.hp; i++) {
+        for (int i = 1; i <= hp; i++) {
 //			canvas.draw(shipSprite, tint, ox, oy, 70 + pos.x - i*20, pos.y + 50, 0, DEFAULT_SCALE/4.0f * size, DEFAULT_SCALE/4.0f * size);
-            if(heartTexture != null) canvas.draw(heartTexture, Color.WHITE, ox, oy, 80 + pos.x - xoffset*20, pos.y + SHIP_SIZE + yoffset * 25, 0, DEFAULT_SCALE, DEFAULT_SCALE);
+            if(heartTexture != null) canvas.draw(heartTexture, Color.WHITE, ox, oy, 80 + px - xoffset*20, py + SHIP_SIZE + yoffset * 25, 0, DEFAULT_SCALE, DEFAULT_SCALE);
             xoffset++;
             if(i % 5 == 0){
                 yoffset++;
@@ -499,8 +699,9 @@ public abstract class Fruit extends CharacterModel {
 //		canvas.draw(shipSprite, tint, ox, oy, pos.x + 50, pos.y + 50, 0, DEFAULT_SCALE/5.0f * size, DEFAULT_SCALE/5.0f * size);
         // Draw hit animation
         float hitTintMagnitude = Math.max((float)( boostCooldown) / BOOST_COOLDOWN_LENGTH, 0);
-        Color hitTint = new Color(hitTintMagnitude, hitTintMagnitude, 0, hitTintMagnitude);
-        canvas.draw(shipSprite, hitTint, ox, oy, pos.x, pos.y, ang, DEFAULT_SCALE * size, DEFAULT_SCALE * size);
+        hitTintMagnitude = Math.min(hitTintMagnitude, 1);
+        float hitTint = Color.toFloatBits(hitTintMagnitude, hitTintMagnitude, 0, hitTintMagnitude);
+        canvas.draw(shipSprite, hitTint, ox, oy, px, py, ang, DEFAULT_SCALE * size, DEFAULT_SCALE * size);
     }
 
     /**
@@ -519,8 +720,8 @@ public abstract class Fruit extends CharacterModel {
         }
 
         // Target position
-        float tx = pos.x + tofs.x;
-        float ty = pos.y + tofs.y;
+        float tx = getX() + tofs.x;
+        float ty = getY() + tofs.y;
 
         // For placement purposes, put origin in center.
         float ox = 0.5f * TARGET_SIZE;
@@ -533,8 +734,9 @@ public abstract class Fruit extends CharacterModel {
      * Boosts the ships. The ship will have to wait before it can boost again.
      */
     public void boost() {
-        vel.add(BOOST_FACTOR * (float)Math.cos(Math.toRadians (ang)) * THRUST_FACTOR,
-                BOOST_FACTOR * (float)-Math.sin (Math.toRadians (ang)) * THRUST_FACTOR);
+        float ang = getAngle();
+        store.vx[slot] += BOOST_FACTOR * (float)Math.cos(Math.toRadians (ang)) * THRUST_FACTOR;
+        store.vy[slot] += BOOST_FACTOR * (float)-Math.sin (Math.toRadians (ang)) * THRUST_FACTOR;
         boostCooldown = BOOST_COOLDOWN_LENGTH;
     }
 
@@ -553,7 +755,7 @@ public abstract class Fruit extends CharacterModel {
      * @return whether dead
      */
     public boolean isDead() {
-        return this.hp == 0;
+        return getHP() == 0;
     }
 
     public int getId() {
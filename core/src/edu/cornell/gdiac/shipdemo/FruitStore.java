@@ -0,0 +1,359 @@
+/*
+ * FruitStore.java
+ *
+ * This class stores all of the enemy ships and their AI controllers.  We used
+ * to keep these in a pair of HashMaps keyed by ship id.  That boxes the id on
+ * every lookup and scatters the entries all over the heap, which is fine for a
+ * dozen ships but shows up in the profiler once there are thousands.
+ *
+ * Instead, the ships and controllers are kept in dense parallel arrays.  The
+ * live entries always occupy the slots [0,size), so the game loop can walk them
+ * with a plain for-loop.  Deleting an entry moves the last entry into its slot
+ * ("swap-remove"), so deletion is constant time and never leaves holes.
+ *
+ * Because slots move around, ships are identified by a separate handle (the
+ * ship id).  Handles are stable for the lifetime of the ship and are recycled
+ * once the ship is deleted.
+ *
+ * The per-tick ship state (position, velocity, angle, health, stun timer and
+ * type) does not live in the Fruit objects.  It lives here, in one primitive
+ * array per field, so that the loops that only need positions (collisions,
+ * activity tiers, snapshots) stream through a couple of float arrays instead
+ * of chasing a Fruit and two Vector2 objects per ship.  A Fruit is just a view
+ * of one slot.  The store rebinds that view whenever the ship changes slots.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+import edu.cornell.gdiac.shipdemo.ai.AIController;
+
+/**
+ * Dense storage for enemy ships and their AI controllers.
+ *
+ * Slots are for iteration and change whenever an entry is deleted.  Handles
+ * are for identification and never change while the ship is alive.
+ */
+public class FruitStore {
+	/** Default number of ships to reserve space for */
+	private static final int DEFAULT_CAPACITY = 64;
+	/** The fruit types, indexed by ordinal (values() copies the array each call) */
+	private static final FruitType[] TYPES = FruitType.values();
+
+	// The ship state columns.  These are package visible for Fruit.
+	/** The x-coordinate of the ship in each slot */
+	float[] x;
+	/** The y-coordinate of the ship in each slot */
+	float[] y;
+	/** The x-velocity of the ship in each slot */
+	float[] vx;
+	/** The y-velocity of the ship in each slot */
+	float[] vy;
+	/** The angle (in degrees) of the ship in each slot */
+	float[] ang;
+	/** The health of the ship in each slot */
+	int[] hp;
+	/** The frames of stun left for the ship in each slot */
+	int[] stunTimer;
+	/** The type (FruitType ordinal) of the ship in each slot */
+	int[] type;
+
+	/** The ship in each slot */
+	private Fruit[] fruits;
+	/** The AI controller in each slot */
+	private AIController[] controllers;
+	/** The handle of the ship in each slot */
+	private int[] slotHandle;
+	/** The slot of each handle (-1 if the handle is not in use) */
+	private int[] handleSlot;
+	/** Stack of recycled handles */
+	private int[] freeHandles;
+	/** Number of recycled handles on the stack */
+	private int freeCount;
+	/** The next never-used handle */
+	private int nextHandle;
+	/** Number of live entries */
+	private int size;
+
+	/**
+	 * Creates a new, empty store
+	 */
+	public FruitStore() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new, empty store with space for the given number of ships
+	 *
+	 * @param capacity	The initial number of slots
+	 */
+	public FruitStore(int capacity) {
+		fruits = new Fruit[capacity];
+		controllers = new AIController[capacity];
+		slotHandle = new int[capacity];
+		handleSlot = new int[capacity];
+		freeHandles = new int[capacity];
+		x = new float[capacity];
+		y = new float[capacity];
+		vx = new float[capacity];
+		vy = new float[capacity];
+		ang = new float[capacity];
+		hp = new int[capacity];
+		stunTimer = new int[capacity];
+		type = new int[capacity];
+		freeCount = 0;
+		nextHandle = 1; // Handle 0 is never used, so that it can mean "no ship"
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of live ships
+	 *
+	 * @return the number of live ships
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the ship in the given slot
+	 *
+	 * @param slot The slot index (0 to size-1)
+	 *
+	 * @return the ship in the given slot
+	 */
+	public Fruit getFruit(int slot) {
+		return fruits[slot];
+	}
+
+	/**
+	 * Returns the AI controller in the given slot
+	 *
+	 * @param slot The slot index (0 to size-1)
+	 *
+	 * @return the AI controller in the given slot
+	 */
+	public AIController getController(int slot) {
+		return controllers[slot];
+	}
+
+	/**
+	 * Returns the x-coordinate of the ship in the given slot
+	 *
+	 * @param slot The slot index (0 to size-1)
+	 *
+	 * @return the x-coordinate of the ship in the given slot
+	 */
+	public float getX(int slot) {
+		return x[slot];
+	}
+
+	/**
+	 * Returns the y-coordinate of the ship in the given slot
+	 *
+	 * @param slot The slot index (0 to size-1)
+	 *
+	 * @return the y-coordinate of the ship in the given slot
+	 */
+	public float getY(int slot) {
+		return y[slot];
+	}
+
+	/**
+	 * Returns the angle (in degrees) of the ship in the given slot
+	 *
+	 * @param slot The slot index (0 to size-1)
+	 *
+	 * @return the angle of the ship in the given slot
+	 */
+	public float getAngle(int slot) {
+		return ang[slot];
+	}
+
+	/**
+	 * Returns the health of the ship in the given slot
+	 *
+	 * @param slot The slot index (0 to size-1)
+	 *
+	 * @return the health of the ship in the given slot
+	 */
+	public int getHP(int slot) {
+		return hp[slot];
+	}
+
+	/**
+	 * Returns the type of the ship in the given slot
+	 *
+	 * @param slot The slot index (0 to size-1)
+	 *
+	 * @return the type of the ship in the given slot
+	 */
+	public FruitType getType(int slot) {
+		return TYPES[type[slot]];
+	}
+
+	/**
+	 * Returns the slot of the ship with the given handle
+	 *
+	 * @param handle The ship handle
+	 *
+	 * @return the slot of the ship with the given handle, or -1 if it is not alive
+	 */
+	public int slotOf(int handle) {
+		if (handle <= 0 || handle >= nextHandle) {
+			return -1;
+		}
+		return handleSlot[handle];
+	}
+
+	/**
+	 * Reserves a handle for a new ship
+	 *
+	 * The ship must be constructed with this handle as its id and then added
+	 * with {@link #add}.
+	 *
+	 * @return a handle for a new ship
+	 */
+	public int reserve() {
+		if (freeCount > 0) {
+			return freeHandles[--freeCount];
+		}
+		if (nextHandle == handleSlot.length) {
+			handleSlot = grow(handleSlot, 2*nextHandle);
+		}
+		handleSlot[nextHandle] = -1;
+		return nextHandle++;
+	}
+
+	/**
+	 * Adds a ship and its controller under a previously reserved handle
+	 *
+	 * The ship state is copied from wherever the ship currently keeps it (its
+	 * private one-slot store if it is not in a store yet), and the ship then
+	 * reads and writes the columns of this store instead.
+	 *
+	 * @param handle		The handle from {@link #reserve}
+	 * @param fruit			The ship
+	 * @param controller	The ship AI controller
+	 */
+	public void add(int handle, Fruit fruit, AIController controller) {
+		if (size == fruits.length) {
+			int capacity = Math.max(2*size, 1);
+			Fruit[] ftemp = new Fruit[capacity];
+			System.arraycopy(fruits, 0, ftemp, 0, size);
+			fruits = ftemp;
+			AIController[] ctemp = new AIController[capacity];
+			System.arraycopy(controllers, 0, ctemp, 0, size);
+			controllers = ctemp;
+			slotHandle = grow(slotHandle, capacity);
+			x = grow(x, capacity);
+			y = grow(y, capacity);
+			vx = grow(vx, capacity);
+			vy = grow(vy, capacity);
+			ang = grow(ang, capacity);
+			hp = grow(hp, capacity);
+			stunTimer = grow(stunTimer, capacity);
+			type = grow(type, capacity);
+		}
+		copy(fruit.store, fruit.slot, this, size);
+		fruit.bind(this, size);
+		fruits[size] = fruit;
+		controllers[size] = controller;
+		slotHandle[size] = handle;
+		handleSlot[handle] = size;
+		size++;
+	}
+
+	/**
+	 * Deletes the ship in the given slot
+	 *
+	 * The last ship is moved into this slot.  When deleting inside of a loop
+	 * over the slots, do not advance the loop index after a deletion.
+	 *
+	 * The deleted ship takes its final state back to its private store, so it
+	 * can still be read (or recycled) after it leaves this store.
+	 *
+	 * @param slot The slot index (0 to size-1)
+	 */
+	public void remove(int slot) {
+		int handle = slotHandle[slot];
+		int last = --size;
+
+		Fruit gone = fruits[slot];
+		copy(this, slot, gone.home, 0);
+		gone.bind(gone.home, 0);
+
+		if (slot != last) {
+			copy(this, last, this, slot);
+			fruits[slot] = fruits[last];
+			fruits[slot].bind(this, slot);
+			controllers[slot] = controllers[last];
+			slotHandle[slot] = slotHandle[last];
+			handleSlot[slotHandle[slot]] = slot;
+		}
+
+		// Drop the references so the garbage collector can have them
+		fruits[last] = null;
+		controllers[last] = null;
+
+		handleSlot[handle] = -1;
+		if (freeCount == freeHandles.length) {
+			freeHandles = grow(freeHandles, 2*freeCount);
+		}
+		freeHandles[freeCount++] = handle;
+	}
+
+	/**
+	 * Deletes all ships from this store
+	 */
+	public void clear() {
+		while (size > 0) {
+			remove(size-1);
+		}
+	}
+
+	/**
+	 * Copies the ship state from one slot to another
+	 *
+	 * @param src		The store to copy from
+	 * @param from		The slot to copy from
+	 * @param dst		The store to copy to
+	 * @param to		The slot to copy to
+	 */
+	static void copy(FruitStore src, int from, FruitStore dst, int to) {
+		dst.x[to] = src.x[from];
+		dst.y[to] = src.y[from];
+		dst.vx[to] = src.vx[from];
+		dst.vy[to] = src.vy[from];
+		dst.ang[to] = src.ang[from];
+		dst.hp[to] = src.hp[from];
+		dst.stunTimer[to] = src.stunTimer[from];
+		dst.type[to] = src.type[from];
+	}
+
+	/**
+	 * Returns a copy of the array with the given length
+	 *
+	 * @param array 	The array to copy
+	 * @param length	The new length
+	 *
+	 * @return a copy of the array with the given length
+	 */
+	private static int[] grow(int[] array, int length) {
+		int[] temp = new int[length];
+		System.arraycopy(array, 0, temp, 0, array.length);
+		return temp;
+	}
+
+	/**
+	 * Returns a copy of the array with the given length
+	 *
+	 * @param array 	The array to copy
+	 * @param length	The new length
+	 *
+	 * @return a copy of the array with the given length
+	 */
+	private static float[] grow(float[] array, int length) {
+		float[] temp = new float[length];
+		System.arraycopy(array, 0, temp, 0, array.length);
+		return temp;
+	}
+}
@@ -18,6 +18,7 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.graphics.*;
+import com.badlogic.gdx.utils.TimeUtils;
 import edu.cornell.gdiac.assets.AssetDirectory;
 
 /**
@@ -33,6 +34,9 @@ import edu.cornell.gdiac.assets.AssetDirectory;
  * how each one is used.
  */
 public class GDXRoot extends ApplicationAdapter {
+	/** Longest frame the game will catch up on (in seconds); a longer one slows the game */
+	private static final float MAX_FRAME_TIME = 0.25f;
+
 	/** AssetManager to load game assets (textures, sounds, etc.) */
 	AssetDirectory directory;
 	
@@ -44,11 +48,65 @@ public class GDXRoot extends ApplicationAdapter {
 	GameMode    playing;
 	/** Polymorphic reference to the active player mode */
 	ModeController controller;
+	/** Whether to update the game proper on its own thread */
+	boolean threaded;
+	/** The thread updating the game proper (null if not threaded) */
+	SimulationThread simulation;
+	/** Frame time not yet simulated (in seconds) */
+	float accumulator;
+	/** The number of ticks simulated so far */
+	long ticks;
+	/** The snapshot of the tick before the latest one (not threaded) */
+	RenderSnapshot previous;
+	/** The snapshot of the latest tick (not threaded) */
+	RenderSnapshot current;
+	/** Frame time percentiles for the game proper */
+	FrameProfiler profiler;
+	/** The file to write the frame time percentiles to on exit (null for none) */
+	String profileFile;
+	/** The start of the last frame of the game proper (0 if none) */
+	long lastFrame;
+
+	/**
+	 * Creates a new game application root
+	 */
+	public GDXRoot() {
+		this(false);
+	}
 
 	/**
 	 * Creates a new game application root
+	 *
+	 * If threaded is true, the game proper is updated on its own thread at a
+	 * fixed rate, and drawn from snapshots (see SimulationThread).
+	 *
+	 * @param threaded	Whether to update the game on its own thread
 	 */
-	public GDXRoot() {}
+	public GDXRoot(boolean threaded) {
+		this.threaded = threaded;
+		profiler = new FrameProfiler();
+	}
+
+	/**
+	 * Returns the frame time percentiles for the game proper
+	 *
+	 * @return the frame time percentiles for the game proper
+	 */
+	public FrameProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * Sets the file to write the frame time percentiles to on exit
+	 *
+	 * The path is relative to the local storage directory (usually the working
+	 * directory on desktop).  If it is null, nothing is written.
+	 *
+	 * @param path	The file to write the frame time percentiles to
+	 */
+	public void setProfileFile(String path) {
+		profileFile = path;
+	}
 	
 	/** 
 	 * Called when the Application is first created.
@@ -78,26 +136,121 @@ public class GDXRoot extends ApplicationAdapter {
 	 */
 	@Override
 	public void render () {
+		long frameStart = TimeUtils.nanoTime();
 		if (loading != null && loading.isReady()) {
 			directory = loading.getAssets();
 			loading.dispose(); // This will NOT dispose the assets.
 			loading = null;
-			controller = new GameMode(canvas.getWidth(),canvas.getHeight(),directory);
+			startGame();
 		}
 		if(controller instanceof GameMode && ((GameMode) controller).isRestart()) {
-			controller.dispose();
-			controller = new GameMode(canvas.getWidth(),canvas.getHeight(),directory);
+			stopGame();
+			startGame();
+		}
+		if (playing != null) {
+			if (lastFrame != 0) {
+				profiler.recordInterval(frameStart-lastFrame);
+			}
+			lastFrame = frameStart;
 		}
 		
-		// Update the game state
-		controller.update();
+		// Update the game state (unless the simulation thread does it)
+		canvas.beginFrame();
+		long start = TimeUtils.nanoTime();
+		if (simulation != null) {
+			canvas.recordUpdateTime(simulation.getTickTime());
+		} else if (playing != null) {
+			step(Gdx.graphics.getDeltaTime());
+			canvas.recordUpdateTime(TimeUtils.nanoTime()-start);
+		} else {
+			controller.update();
+			canvas.recordUpdateTime(TimeUtils.nanoTime()-start);
+		}
 		
 		// Draw the game
+		start = TimeUtils.nanoTime();
 		Gdx.gl.glClearColor(0.39f, 0.58f, 0.93f, 1.0f);  // Homage to the XNA years
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 		canvas.begin();
-		controller.draw(canvas);
+		if (simulation != null) {
+			// Only the newest tick is recorded if the simulation ran several since the last frame
+			if (simulation.acquire()) {
+				profiler.recordUpdate(simulation.getTickTime());
+			}
+			playing.draw(canvas, simulation.getPrevious(), simulation.getNext(), simulation.getAlpha(start));
+		} else if (playing != null) {
+			playing.draw(canvas, previous, current, Math.min(1, accumulator / Simulation.TIME_STEP));
+		} else {
+			controller.draw(canvas);
+		}
 		canvas.end();
+		long end = TimeUtils.nanoTime();
+		canvas.recordDrawTime(end-start);
+		if (playing != null) {
+			profiler.recordDraw(end-start);
+			profiler.recordRender(end-frameStart);
+		}
+	}
+
+	/**
+	 * Advances the game proper by the given amount of real time
+	 *
+	 * The game logic counts ticks, so it must always be stepped by the same
+	 * amount of time.  The frame time goes into an accumulator, and we run as
+	 * many whole ticks as it holds (possibly none).  The remainder carries over
+	 * to the next frame, and says how far to interpolate between the last two
+	 * ticks when drawing.  So the game runs at the same speed whatever the
+	 * frame rate is.
+	 *
+	 * @param delta	The time since the last frame (in seconds)
+	 */
+	private void step(float delta) {
+		accumulator += Math.min(delta, MAX_FRAME_TIME);
+		while (accumulator >= Simulation.TIME_STEP && !playing.isRestart()) {
+			RenderSnapshot temp = previous;
+			previous = current;
+			current = temp;
+			long start = TimeUtils.nanoTime();
+			playing.update();
+			profiler.recordUpdate(TimeUtils.nanoTime()-start);
+			current.capture(playing, ++ticks);
+			accumulator -= Simulation.TIME_STEP;
+		}
+	}
+
+	/**
+	 * Creates a new game proper and makes it the active player mode
+	 *
+	 * If the root is threaded, this also starts the simulation thread.
+	 */
+	private void startGame() {
+		playing = new GameMode(canvas.getWidth(),canvas.getHeight(),directory);
+		controller = playing;
+		if (threaded) {
+			simulation = new SimulationThread(playing);
+			simulation.start();
+		} else {
+			if (current == null) {
+				previous = new RenderSnapshot();
+				current  = new RenderSnapshot();
+			}
+			accumulator = 0;
+			ticks = 0;
+			previous.capture(playing, ticks);
+			current.capture(playing, ticks);
+		}
+	}
+
+	/**
+	 * Stops and disposes the game proper
+	 */
+	private void stopGame() {
+		if (simulation != null) {
+			simulation.stop();
+			simulation = null;
+		}
+		controller.dispose();
+		playing = null;
 	}
 	
 	/**
@@ -109,7 +262,14 @@ public class GDXRoot extends ApplicationAdapter {
 	 */
 	@Override
 	public void dispose() {
+		if (simulation != null) {
+			simulation.stop();
+			simulation = null;
+		}
 		controller.dispose();
+		if (profileFile != null) {
+			profiler.dump(Gdx.files.local(profileFile));
+		}
 		if (directory != null) {
 			directory.unloadAssets();
 			directory.dispose();
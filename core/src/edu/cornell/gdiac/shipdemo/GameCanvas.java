@@ -25,6 +25,7 @@ import com.badlogic.gdx.graphics.*;
 import com.badlogic.gdx.graphics.g2d.*;
 import com.badlogic.gdx.math.*;
 
+import com.badlogic.gdx.utils.StringBuilder;
 import java.util.List;
 
 /**
@@ -53,12 +54,32 @@ public class GameCanvas {
 	
 	/** The current color blending mode */
 	private BlendState blend;
+
+	// PERFORMANCE COUNTERS
+	/** Counters for the frame in progress */
+	private FrameStats frame;
+	/** Counters for the last completed frame */
+	private FrameStats lastFrame;
+	/** The texture of the last sprite submitted (to detect texture switches) */
+	private Texture lastTexture;
+	/** Whether to draw the performance overlay */
+	private boolean statsVisible;
+	/** Font for the performance overlay (created on first use) */
+	private BitmapFont statsFont;
+	/** Text buffer for the performance overlay */
+	private StringBuilder statsText;
 	
 	// CACHE OBJECTS
 	/** Affine cache for current sprite to draw */
 	private Affine2 local;
 	/** Affine cache for all sprites this drawing pass */
 	private Affine2 global;
+	/** Affine cache for the pieces of a progress bar */
+	private Affine2 progressTransform;
+	/** Layout cache for drawing text */
+	private GlyphLayout textLayout;
+	/** Matrix cache for drawing from a sprite cache */
+	private Matrix4 cacheTransform;
 	/** Cache object to unify everything under a master draw method */
 	private TextureRegion holder;
 	/** Global X offset */
@@ -86,6 +107,12 @@ public class GameCanvas {
 		holder = new TextureRegion();
 		local  = new Affine2();
 		global = new Affine2();
+		progressTransform = new Affine2();
+		textLayout = new GlyphLayout();
+		cacheTransform = new Matrix4();
+		frame = new FrameStats();
+		lastFrame = new FrameStats();
+		statsText = new StringBuilder();
 	}
 	
 	/**
@@ -132,6 +159,12 @@ public class GameCanvas {
 		holder = new TextureRegion();
 		local  = new Affine2();
 		global = new Affine2();
+		progressTransform = new Affine2();
+		textLayout = new GlyphLayout();
+		cacheTransform = new Matrix4();
+		frame = new FrameStats();
+		lastFrame = new FrameStats();
+		statsText = new StringBuilder();
 	}
 
 	/**
@@ -151,6 +184,30 @@ public class GameCanvas {
 	public void setYOffset(float newOffset) {
 		yOffset = newOffset;
 	}
+
+	/**
+	 * Returns true if any of the given rectangle would be on screen
+	 *
+	 * The rectangle is in world coordinates, and is compared to the window
+	 * shifted by the global offset.  This assumes the identity transform (see
+	 * {@link #begin()}).  It is for skipping objects that would not be seen,
+	 * so a rectangle that fails is counted as culled in the frame stats.
+	 *
+	 * @param left		The left edge of the rectangle
+	 * @param bottom	The bottom edge of the rectangle
+	 * @param right		The right edge of the rectangle
+	 * @param top		The top edge of the rectangle
+	 *
+	 * @return true if any of the given rectangle would be on screen
+	 */
+	public boolean isVisible(float left, float bottom, float right, float top) {
+		if (right + xOffset < 0 || left + xOffset > getWidth() ||
+			top + yOffset < 0 || bottom + yOffset > getHeight()) {
+			frame.culled++;
+			return false;
+		}
+		return true;
+	}
 		
     /**
      * Eliminate any resources that should be garbage collected manually.
@@ -162,7 +219,14 @@ public class GameCanvas {
 		}
 		spriteBatch.dispose();
     	spriteBatch = null;
+		if (statsFont != null) {
+			statsFont.dispose();
+			statsFont = null;
+		}
     	global = null;
+    	progressTransform = null;
+    	textLayout = null;
+    	cacheTransform = null;
     	local  = null;
     	holder = null;
     }
@@ -358,6 +422,7 @@ public class GameCanvas {
 			break;
 		}
 		blend = state;
+		frame.blendChanges++;
 	}
 
 	/**
@@ -367,6 +432,7 @@ public class GameCanvas {
 	 */
     public void begin() {
     	spriteBatch.begin();
+    	lastTexture = null;
     	active = true;
     }
 
@@ -383,6 +449,7 @@ public class GameCanvas {
     public void begin(Affine2 transform) {
     	global.set(transform);
     	spriteBatch.begin();
+    	lastTexture = null;
     }
 
 	/**
@@ -390,9 +457,150 @@ public class GameCanvas {
 	 */
     public void end() {
     	spriteBatch.end();
+    	frame.renderCalls += spriteBatch.renderCalls;
     	active = false;
     }
 
+	/**
+	 * Starts a new frame for the performance counters.
+	 *
+	 * The counters of the frame in progress become the last completed frame,
+	 * and the counters are reset.  This should be called once at the start of
+	 * every frame, before the game is updated.
+	 */
+	public void beginFrame() {
+		lastFrame.set(frame);
+		frame.reset();
+	}
+
+	/**
+	 * Records the CPU time spent updating the game this frame.
+	 *
+	 * @param nanos	The update time in nanoseconds
+	 */
+	public void recordUpdateTime(long nanos) {
+		frame.updateTime += nanos;
+	}
+
+	/**
+	 * Records the CPU time spent drawing the game this frame.
+	 *
+	 * @param nanos	The draw time in nanoseconds
+	 */
+	public void recordDrawTime(long nanos) {
+		frame.drawTime += nanos;
+	}
+
+	/**
+	 * Returns the performance counters of the last completed frame.
+	 *
+	 * The object is reused every frame, so copy it if you need to keep it.
+	 *
+	 * @return the performance counters of the last completed frame.
+	 */
+	public FrameStats getFrameStats() {
+		return lastFrame;
+	}
+
+	/**
+	 * Returns true if the performance overlay is visible
+	 *
+	 * @return true if the performance overlay is visible
+	 */
+	public boolean isStatsVisible() {
+		return statsVisible;
+	}
+
+	/**
+	 * Sets whether the performance overlay is visible
+	 *
+	 * The overlay is drawn by {@link #drawStats}; this is just a flag for the
+	 * game mode to check.  The counters are collected either way.
+	 *
+	 * @param value whether the performance overlay is visible
+	 */
+	public void setStatsVisible(boolean value) {
+		statsVisible = value;
+	}
+
+	/**
+	 * Draws the performance counters of the last completed frame.
+	 *
+	 * The text is drawn in screen coordinates, ignoring the global offset.
+	 *
+	 * @param x The x-coordinate of the upper-left corner
+	 * @param y The y-coordinate of the upper-left corner
+	 */
+	public void drawStats(float x, float y) {
+		if (!active) {
+			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
+			return;
+		}
+		if (statsFont == null) {
+			statsFont = new BitmapFont();
+		}
+		statsText.setLength(0);
+		statsText.append("update ").append(lastFrame.updateTime/1000).append(" us   draw ")
+				 .append(lastFrame.drawTime/1000).append(" us\n");
+		statsText.append("draw calls ").append(lastFrame.drawCalls).append("   sprites ")
+				 .append(lastFrame.sprites).append('\n');
+		statsText.append("render calls ").append(lastFrame.renderCalls).append("   texture switches ")
+				 .append(lastFrame.textureSwitches).append("   blend changes ").append(lastFrame.blendChanges)
+				 .append("   culled ").append(lastFrame.culled);
+		frame.drawCalls++;
+		frame.sprites += statsText.length();
+		lastTexture = null; // The font has its own texture
+		statsFont.setColor(Color.WHITE);
+		statsFont.draw(spriteBatch, statsText, x, y);
+	}
+
+	/**
+	 * Suspends the sprite batch to draw from the given sprite cache.
+	 *
+	 * A sprite cache holds static geometry on the graphics card, so drawing it
+	 * costs the CPU nothing per sprite.  It has its own shader and matrices, so
+	 * the sprite batch is flushed first.  The cache is drawn with the same
+	 * projection, global transform and global offset as the canvas, and the
+	 * current blend state.
+	 *
+	 * Between this call and {@link #endCache} the caller should only draw with
+	 * the cache; no other canvas draw method may be used.
+	 *
+	 * @param cache	The sprite cache to draw from
+	 */
+	public void beginCache(SpriteCache cache) {
+		if (!active) {
+			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
+			return;
+		}
+		spriteBatch.end();
+		frame.renderCalls += spriteBatch.renderCalls;
+
+		cacheTransform.set(global).translate(xOffset, yOffset, 0);
+		cache.setProjectionMatrix(spriteBatch.getProjectionMatrix());
+		cache.setTransformMatrix(cacheTransform);
+		Gdx.gl.glEnable(GL20.GL_BLEND);
+		Gdx.gl.glBlendFunc(spriteBatch.getBlendSrcFunc(), spriteBatch.getBlendDstFunc());
+		cache.begin();
+		frame.drawCalls++;
+	}
+
+	/**
+	 * Finishes drawing from the given sprite cache and resumes the sprite batch.
+	 *
+	 * @param cache	The sprite cache drawn from
+	 */
+	public void endCache(SpriteCache cache) {
+		if (!active) {
+			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
+			return;
+		}
+		cache.end();
+		frame.renderCalls += cache.renderCalls;
+		lastTexture = null; // The cache binds its own textures
+		spriteBatch.begin();
+	}
+
 	/**
 	 * Draws the texture at the given position.
 	 *
@@ -453,9 +661,12 @@ public class GameCanvas {
 			return;
 		}
 
-		GlyphLayout layout = new GlyphLayout(font,text);
+		textLayout.setText(font,text);
+		frame.drawCalls++;
+		frame.sprites += text.length();
+		lastTexture = null; // The font has its own texture
 		font.setColor(Color.WHITE);
-		font.draw(spriteBatch, layout, x, y);
+		font.draw(spriteBatch, textLayout, x, y);
 	}
 
 
@@ -607,15 +818,39 @@ public class GameCanvas {
 	 */	
 	public void draw(TextureRegion region, Color tint, float ox, float oy, 
 					 float x, float y, float angle, float sx, float sy) {
+		draw(region, tint.toFloatBits(), ox, oy, x, y, angle, sx, sy);
+	}
+
+	/**
+	 * Draws the tinted texture region (filmstrip) with the given transformations
+	 *
+	 * This is the same as {@link #draw(TextureRegion, Color, float, float, float, float, float, float, float)},
+	 * except that the tint is packed into a float (see Color.toFloatBits).  A
+	 * tint that changes every frame can be computed as a packed float without
+	 * allocating a Color.
+	 *
+	 * @param region	The texture to draw
+	 * @param tint  	The color tint, packed into a float
+	 * @param ox 		The x-coordinate of texture origin (in pixels)
+	 * @param oy 		The y-coordinate of texture origin (in pixels)
+	 * @param x 		The x-coordinate of the texture origin
+	 * @param y 		The y-coordinate of the texture origin
+	 * @param angle 	The rotation angle (in degrees) about the origin.
+	 * @param sx 		The x-axis scaling factor
+	 * @param sy 		The y-axis scaling factor
+	 */
+	public void draw(TextureRegion region, float tint, float ox, float oy,
+					 float x, float y, float angle, float sx, float sy) {
 		//  THIS IS THE MASTER DRAW METHOD
 		// This is the method that you should alter to implement clipping.
 		if (!active) {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
+		frame.drawCalls++;
 		computeTransform(ox, oy, x + xOffset, y + yOffset, angle, sx, sy);
-		spriteBatch.setColor(tint);
-		spriteBatch.draw(region, region.getRegionWidth(), region.getRegionHeight(), local);
+		spriteBatch.setPackedColor(tint);
+		submit(region);
 	}
 
 	/**
@@ -648,15 +883,35 @@ public class GameCanvas {
 	 */
 	public void drawAbsolute(TextureRegion region, Color tint, float ox, float oy,
 					 float x, float y, float angle, float sx, float sy) {
-		//  THIS IS THE MASTER DRAW METHOD
-		// This is the method that you should alter to implement clipping.
+		drawAbsolute(region, tint.toFloatBits(), ox, oy, x, y, angle, sx, sy);
+	}
+
+	/**
+	 * Call this method to ignore global offset
+	 *
+	 * This is the same as {@link #drawAbsolute(TextureRegion, Color, float, float, float, float, float, float, float)},
+	 * except that the tint is packed into a float (see Color.toFloatBits).
+	 *
+	 * @param region	The texture to draw
+	 * @param tint  	The color tint, packed into a float
+	 * @param ox 		The x-coordinate of texture origin (in pixels)
+	 * @param oy 		The y-coordinate of texture origin (in pixels)
+	 * @param x 		The x-coordinate of the texture origin
+	 * @param y 		The y-coordinate of the texture origin
+	 * @param angle 	The rotation angle (in degrees) about the origin.
+	 * @param sx 		The x-axis scaling factor
+	 * @param sy 		The y-axis scaling factor
+	 */
+	public void drawAbsolute(TextureRegion region, float tint, float ox, float oy,
+					 float x, float y, float angle, float sx, float sy) {
 		if (!active) {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
+		frame.drawCalls++;
 		computeTransform(ox, oy, x, y, angle, sx, sy);
-		spriteBatch.setColor(tint);
-		spriteBatch.draw(region, region.getRegionWidth(), region.getRegionHeight(), local);
+		spriteBatch.setPackedColor(tint);
+		submit(region);
 	}
 
 
@@ -685,10 +940,41 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
+		frame.drawCalls++;
+		drawTransformed(region, tint, trans);
+	}
+
+	/**
+	 * Draws the tinted texture region with the given transformation (uncounted)
+	 *
+	 * This is the body of {@link #draw(TextureRegion, Color, Affine2)}, for
+	 * methods that draw several sprites as a single drawing request.
+	 *
+	 * @param region	The texture to draw
+	 * @param tint  	The color tint
+	 * @param trans 	The coordinate space transform
+	 */
+	private void drawTransformed(TextureRegion region, Color tint, Affine2 trans) {
 		local.set(global);
 		local.mul(trans);
 		spriteBatch.setColor(tint);
-		spriteBatch.draw(region,region.getRegionWidth(),region.getRegionHeight(),local);
+		submit(region);
+	}
+
+	/**
+	 * Submits the region to the sprite batch, using the local transform
+	 *
+	 * This is where sprites and texture switches are counted.
+	 *
+	 * @param region	The texture to draw
+	 */
+	private void submit(TextureRegion region) {
+		if (region.getTexture() != lastTexture) {
+			frame.textureSwitches++;
+			lastTexture = region.getTexture();
+		}
+		frame.sprites++;
+		spriteBatch.draw(region, region.getRegionWidth(), region.getRegionHeight(), local);
 	}
 	
 	/**
@@ -753,6 +1039,8 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
+		frame.drawCalls++;
+		countTexture(image);
 		spriteBatch.setColor(tint);
 		spriteBatch.draw(image, x, y);
     }
@@ -808,10 +1096,25 @@ public class GameCanvas {
 			w = image.getWidth();
 			h = image.getHeight();
 		}
+		frame.drawCalls++;
+		countTexture(image);
 		spriteBatch.setColor(tint);
 		spriteBatch.draw(image, 0, 0, w, h);
     }
 
+	/**
+	 * Counts a sprite with the given texture that bypasses {@link #submit}
+	 *
+	 * @param texture	The texture of the sprite
+	 */
+	private void countTexture(Texture texture) {
+		if (texture != lastTexture) {
+			frame.textureSwitches++;
+			lastTexture = texture;
+		}
+		frame.sprites++;
+	}
+
 	/**
 	 * Updates the progress bar according to loading progress
 	 *
@@ -837,41 +1140,42 @@ public class GameCanvas {
 							  TextureRegion statusBkgMiddle,TextureRegion statusBkgLeft,
 							   int centerX, int centerY, int width, float scale, float progress) {
 
+		frame.drawCalls++;
 		if (reverse){
 			progress=1-progress;
 		}
 		// In practice I would do this with affine transforms, but that would make Exercise 4 harder.
-		Affine2 transf  = new Affine2();
+		Affine2 transf  = progressTransform;
 
 		transf.setToTranslation(centerX-width/2, centerY);
 		transf.scale(scale,scale);
-		this.draw(statusBkgLeft,Color.WHITE, transf);
+		drawTransformed(statusBkgLeft,Color.WHITE, transf);
 
 		transf.setToTranslation(centerX+width/2-scale*statusBkgRight.getRegionWidth(), centerY);
 		transf.scale(scale,scale);
-		this.draw(statusBkgRight, Color.WHITE, transf);
+		drawTransformed(statusBkgRight, Color.WHITE, transf);
 
 		transf.setToTranslation(centerX-width/2+scale*statusBkgRight.getRegionWidth(), centerY);
 		transf.scale((width-2*scale*statusBkgLeft.getRegionWidth())/((float)statusBkgMiddle.getRegionWidth()), scale);
-		this.draw(statusBkgMiddle, Color.WHITE, transf);
+		drawTransformed(statusBkgMiddle, Color.WHITE, transf);
 
 		transf.setToTranslation(centerX-width/2, centerY);
 		transf.scale(scale,scale);
-		this.draw(statusFrgLeft, Color.WHITE, transf);
+		drawTransformed(statusFrgLeft, Color.WHITE, transf);
 
 		if (progress > 0) {
 			float span = progress*(width-2*scale*statusFrgRight.getRegionWidth());
 			transf.setToTranslation(centerX-width/2+scale*statusFrgRight.getRegionWidth()+span, centerY);
 			transf.scale(scale,scale);
-			this.draw(statusFrgRight, Color.WHITE, transf);
+			drawTransformed(statusFrgRight, Color.WHITE, transf);
 
 			transf.setToTranslation(centerX-width/2+scale*statusFrgRight.getRegionWidth(), centerY);
 			transf.scale(span/((float)statusFrgMiddle.getRegionWidth()),scale);
-			this.draw(statusFrgMiddle, Color.WHITE, transf);
+			drawTransformed(statusFrgMiddle, Color.WHITE, transf);
 		} else {
 			transf.setToTranslation(centerX-width/2+scale*statusFrgRight.getRegionWidth(), centerY);
 			transf.scale(scale,scale);
-			this.draw(statusFrgRight, Color.WHITE, transf);
+			drawTransformed(statusFrgRight, Color.WHITE, transf);
 		}
 	}
 
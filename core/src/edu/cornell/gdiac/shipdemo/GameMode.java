@@ -38,15 +38,19 @@ public class GameMode implements ModeController {
 	//New fields relevant for Gameplay prototype below:
 	/** Order Controller */
 	OrderController orderController;
-	/** Maps ID to enemy ship*/
-	Map<Integer,Fruit> fruits = new HashMap<>();
-	/** Maps ID to AI controller*/
-	Map<Integer, AIController> enemyControllers = new HashMap<>();
-	/** Internal structure for managing deletions*/
-	List<Integer> toDelete = new ArrayList<>();
-
-	/** Counter for assigning ID to ships*/
-	int spawnCounter = 1;
+	/** Dense storage for the enemy ships and their AI controllers */
+	FruitStore fruits = new FruitStore();
+	/** Recycles the enemy ships and their AI controllers */
+	AIFactory factory = new AIFactory(this);
+	/** Runs the AI controllers (in parallel for large populations) */
+	AIStage aiStage = new AIStage();
+	/** Which ships are updated this tick (ships far from the player are dormant) */
+	ActivityTiers tiers = new ActivityTiers();
+	/** Maximum number of ships alive at once */
+	int maxFruits = DEFAULT_MAX_FRUITS;
+
+	/** Default maximum number of ships alive at once */
+	public static final int DEFAULT_MAX_FRUITS = 25;
 
 	/** X (horizontal) boundary*/
 	public static final int BOUND_X = 1280;
@@ -84,39 +88,43 @@ public class GameMode implements ModeController {
 	private Texture borderBr;
 	private Texture borderTl;
 	private Texture borderTr;
+	/** The arena background, pre-built from the tiles above */
+	private BackgroundCache backgroundCache;
 
+	// The sprites below are packed into a single atlas (see assets.json), so that
+	// drawing them does not flush the sprite batch.  The backgrounds are too big.
 
 	/** The image for a single apple skewer */
-	private Texture appleSkTexture;
+	private TextureRegion appleSkTexture;
 	/** The image for a single strawberry skewer*/
-	private Texture strawberrySkTexture;
+	private TextureRegion strawberrySkTexture;
 	/** The image for a single orange skewer*/
-	private Texture orangeSkTexture;
+	private TextureRegion orangeSkTexture;
 
 	/** The image for a single apple */
-	private Texture appleTexture;
+	private TextureRegion appleTexture;
 	/** The image for a single orange */
-	private Texture orangeTexture;
+	private TextureRegion orangeTexture;
 	/** The image for a single strawberry */
-	private Texture strawberryTexture;
+	private TextureRegion strawberryTexture;
 	/** The image for a empty skewer*/
-	private Texture emptySkTexture;
+	private TextureRegion emptySkTexture;
 	/** The image for a single proton */
-	private Texture photonTexture;
+	private TextureRegion photonTexture;
 	/** Texture for the ship (colored for each player) */
-	private Texture shipTexture;
+	private TextureRegion shipTexture;
 	/** Texture for the target reticule */
-	private Texture targetTexture;
+	private TextureRegion targetTexture;
 	/** Texture for the heart */
-	private Texture heartTexture;
+	private TextureRegion heartTexture;
 	/** Texture for the monkey */
-	private Texture monkeyTexture;
+	private TextureRegion monkeyTexture;
 	/** Texture for the monkey */
-	private Texture monkeySpriteTexture;
+	private TextureRegion monkeySpriteTexture;
 	/** Texture for the skewer */
-	private Texture skewerTexture;
+	private TextureRegion skewerTexture;
 	/** Texture for the skewer */
-	private Texture punchTexture;
+	private TextureRegion punchTexture;
 	/** Game over picture */
 	private Texture gameOverTexture;
 	/** The weapon fire sound for the blue player */
@@ -139,12 +147,33 @@ public class GameMode implements ModeController {
 
 	/** Store the bounds to enforce the playing region */	
 	private Rectangle bounds;
+	/** Cache object for the position of a ship firing a photon */
+	private Vector2 firePosition = new Vector2();
+	/** Cache object for the velocity of a ship firing a photon */
+	private Vector2 fireVelocity = new Vector2();
 
 	/** The number of frames that have elapsed */
 	private int frameCount;
 	/** Is game over? */
 	private boolean isGameOver;
-	private boolean isRestart;
+	private volatile boolean isRestart;
+	/** Whether the player ignores death (for simulations) */
+	private boolean invulnerable;
+	/** How many times the player has toggled the performance overlay (in update) */
+	private int statsToggles;
+	/** How many of those toggles have been applied to the canvas (in draw) */
+	private int statsToggled;
+
+	// SNAPSHOT VIEW (only used when drawing a RenderSnapshot)
+	/** Stand-in for the player when drawing a snapshot */
+	private Monkey viewMonkey;
+	/** Stand-in for each type of ship when drawing a snapshot */
+	private Fruit[] viewFruits;
+	/** Stand-in for the orders UI when drawing a snapshot */
+	private OrderController viewOrders;
+
+	/** Source of all randomness in the game (seed it for reproducible games) */
+	private Random random;
 
 	/** The font for giving messages to the player */
 	private BitmapFont displayFont;
@@ -161,53 +190,47 @@ public class GameMode implements ModeController {
 	 * @param assets	The asset directory containing all the loaded assets
 	 */
 	public GameMode(float width, float height, AssetDirectory assets) {
-//		displayFont = assets.getEntry("times",BitmapFont.class);
-		// Extract the assets from the asset directory.  All images are textures.
-		background = assets.getEntry("background", Texture.class );
-		background2 = assets.getEntry("background2", Texture.class );
-		borderLeft = assets.getEntry("borderleft", Texture.class );
-		borderRight = assets.getEntry("borderright", Texture.class );
-		borderTop = assets.getEntry("bordertop", Texture.class );
-		borderBottom = assets.getEntry("borderbottom", Texture.class );
-		borderBl = assets.getEntry("borderbl", Texture.class );
-		borderBr = assets.getEntry("borderbr", Texture.class );
-		borderTl = assets.getEntry("bordertl", Texture.class );
-		borderTr = assets.getEntry("bordertr", Texture.class );
-
-		shipTexture = assets.getEntry( "ship", Texture.class );
-		monkeySpriteTexture = assets.getEntry( "monkeySprite", Texture.class );
-		targetTexture = assets.getEntry( "target", Texture.class );
-		heartTexture = assets.getEntry("heart", Texture.class);
-		monkeyTexture = assets.getEntry("monkey", Texture.class);
-		photonTexture = assets.getEntry( "photon", Texture.class );
-		skewerTexture = assets.getEntry("skewer", Texture.class);
-		punchTexture = assets.getEntry("glove", Texture.class);
-		gameOverTexture = assets.getEntry("gameOver", Texture.class);
-		strawberryTexture =  assets.getEntry("strawberry", Texture.class);
-		appleTexture =  assets.getEntry("apple", Texture.class);
-		orangeTexture =  assets.getEntry("orange", Texture.class);
-		statusBkgLeft = assets.getEntry( "progress.backleft", TextureRegion.class );
-		statusBkgRight = assets.getEntry( "progress.backright", TextureRegion.class );
-		statusBkgMiddle = assets.getEntry( "progress.background", TextureRegion.class );
+		this(width, height, assets, new Random());
+	}
 
-		statusFrgLeft = assets.getEntry( "progress.foreleft", TextureRegion.class );
-		statusFrgRight = assets.getEntry( "progress.foreright", TextureRegion.class );
-		statusFrgMiddle = assets.getEntry( "progress.foreground", TextureRegion.class );
+	/**
+	 * Creates a new headless game with a playing field of the given size.
+	 *
+	 * A headless game has no textures, sounds, or input devices.  It can be
+	 * updated without a window, but it should not be drawn.  All randomness
+	 * comes from a generator with the given seed, so two headless games with
+	 * the same seed play out identically.
+	 *
+	 * @param width 	The width of the (virtual) game window
+	 * @param height 	The height of the (virtual) game window
+	 * @param seed		The seed for all random number generation
+	 */
+	public GameMode(float width, float height, long seed) {
+		this(width, height, null, new Random(seed));
+	}
 
-		strawberrySkTexture=  assets.getEntry("strawberrySkewer", Texture.class);
-		appleSkTexture=  assets.getEntry("appleSkewer", Texture.class);
-		orangeSkTexture=  assets.getEntry("orangeSkewer", Texture.class);
-		emptySkTexture=  assets.getEntry("emptySkewer", Texture.class);
+	/**
+	 * Creates a new game with a playing field of the given size.
+	 *
+	 * If assets is null, the game is headless: no assets are loaded and no
+	 * input devices are polled.
+	 *
+	 * @param width 	The width of the game window
+	 * @param height 	The height of the game window
+	 * @param assets	The asset directory containing all the loaded assets (or null)
+	 * @param random	The generator for all random numbers in the game
+	 */
+	public GameMode(float width, float height, AssetDirectory assets, Random random) {
+		this.random = random;
+		if (assets != null) {
+			loadAssets(assets);
+		}
 
 		// Initialize the photons.
 		photons = new PhotonQueue();
 		photons.setTexture(photonTexture);
 		bounds = new Rectangle(0,0,width,height);
 
-		// Load the sounds.  We need to use the subclass SoundBuffer because of our changes to audio.
-		blueSound = assets.getEntry( "laser",  SoundEffect.class);
-		redSound  = assets.getEntry( "fusion", SoundEffect.class);
-
         // Player ship
 		playerMonkey = new Monkey(0, 0, 0, 1.5f);
 
@@ -218,21 +241,76 @@ public class GameMode implements ModeController {
 
 		playerMonkey.setHeartTexture(heartTexture);
 		playerMonkey.setMonkeyTexture(monkeyTexture);
-		playerMonkey.setFilmStrip(new FilmStrip(monkeySpriteTexture,2,5,8));
+		if (monkeySpriteTexture != null) {
+			playerMonkey.setFilmStrip(new FilmStrip(monkeySpriteTexture,2,5,8));
+		}
 
 		// Create the input controllers.
-		redController  = new InputController(1);
-		blueController = new InputController(0);
-		physicsController = new CollisionController();
+		redController  = new InputController(1, assets != null);
+		blueController = new InputController(0, assets != null);
+		physicsController = new CollisionController(BOUND_X, BOUND_Y);
 		orderController = new OrderController(this);
 
-		orderController.loadFilm(new FilmStrip(shipTexture,SHIP_ROWS,SHIP_COLS,SHIP_SIZE));
+		if (shipTexture != null) {
+			orderController.loadFilm(new FilmStrip(shipTexture,SHIP_ROWS,SHIP_COLS,SHIP_SIZE));
+		}
 		orderController.setEnemyTexture(strawberrySkTexture, appleSkTexture, orangeSkTexture, emptySkTexture);
 		orderController.setSkewerTexture(skewerTexture);
 		orderController.setLoadingTexture(statusBkgLeft, statusBkgRight, statusBkgMiddle, statusFrgLeft, statusFrgRight, statusFrgMiddle);
 
 	}
 
+	/**
+	 * Extracts the assets for this game from the asset directory.
+	 *
+	 * @param assets	The asset directory containing all the loaded assets
+	 */
+	private void loadAssets(AssetDirectory assets) {
+//		displayFont = assets.getEntry("times",BitmapFont.class);
+		// Extract the assets from the asset directory.  All images are textures.
+		background = assets.getEntry("background", Texture.class );
+		background2 = assets.getEntry("background2", Texture.class );
+		borderLeft = assets.getEntry("borderleft", Texture.class );
+		borderRight = assets.getEntry("borderright", Texture.class );
+		borderTop = assets.getEntry("bordertop", Texture.class );
+		borderBottom = assets.getEntry("borderbottom", Texture.class );
+		borderBl = assets.getEntry("borderbl", Texture.class );
+		borderBr = assets.getEntry("borderbr", Texture.class );
+		borderTl = assets.getEntry("bordertl", Texture.class );
+		borderTr = assets.getEntry("bordertr", Texture.class );
+		backgroundCache = new BackgroundCache(background, borderLeft, borderRight, borderTop, borderBottom,
+											  borderTl, borderTr, borderBl, borderBr, BOUND_X, BOUND_Y);
+
+		shipTexture = assets.getEntry( "ship", TextureRegion.class );
+		monkeySpriteTexture = assets.getEntry( "monkeySprite", TextureRegion.class );
+		targetTexture = assets.getEntry( "target", TextureRegion.class );
+		heartTexture = assets.getEntry("heart", TextureRegion.class);
+		monkeyTexture = assets.getEntry("monkey", TextureRegion.class);
+		photonTexture = assets.getEntry( "photon", TextureRegion.class );
+		skewerTexture = assets.getEntry("skewer", TextureRegion.class);
+		punchTexture = assets.getEntry("glove", TextureRegion.class);
+		gameOverTexture = assets.getEntry("gameOver", Texture.class);
+		strawberryTexture =  assets.getEntry("strawberry", TextureRegion.class);
+		appleTexture =  assets.getEntry("apple", TextureRegion.class);
+		orangeTexture =  assets.getEntry("orange", TextureRegion.class);
+		statusBkgLeft = assets.getEntry( "progress.backleft", TextureRegion.class );
+		statusBkgRight = assets.getEntry( "progress.backright", TextureRegion.class );
+		statusBkgMiddle = assets.getEntry( "progress.background", TextureRegion.class );
+
+		statusFrgLeft = assets.getEntry( "progress.foreleft", TextureRegion.class );
+		statusFrgRight = assets.getEntry( "progress.foreright", TextureRegion.class );
+		statusFrgMiddle = assets.getEntry( "progress.foreground", TextureRegion.class );
+
+		strawberrySkTexture=  assets.getEntry("strawberrySkewer", TextureRegion.class);
+		appleSkTexture=  assets.getEntry("appleSkewer", TextureRegion.class);
+		orangeSkTexture=  assets.getEntry("orangeSkewer", TextureRegion.class);
+		emptySkTexture=  assets.getEntry("emptySkewer", TextureRegion.class);
+
+		// Load the sounds.  We need to use the subclass SoundBuffer because of our changes to audio.
+		blueSound = assets.getEntry( "laser",  SoundEffect.class);
+		redSound  = assets.getEntry( "fusion", SoundEffect.class);
+	}
+
 	/** 
 	 * Read user input, calculate physics, and update the models.
 	 *
@@ -241,6 +319,10 @@ public class GameMode implements ModeController {
 	 * contains all of the calculations for updating the world, such as
 	 * checking for collisions, gathering input, and playing audio.  It
 	 * should not contain any calls for drawing to the screen.
+	 *
+	 * All of the game timers count calls to this method, so it must be called
+	 * once per fixed tick of {@link Simulation#TIME_STEP} seconds, and not once
+	 * per graphics frame.  GDXRoot takes care of this.
 	 */
 	@Override
 	public void update() {
@@ -249,6 +331,9 @@ public class GameMode implements ModeController {
 		blueController.readInput ();
 
 		isRestart = redController.didPressRestart() && isGameOver;
+		if (redController.didToggleStats()) {
+			statsToggles++;
+		}
 		if(isGameOver) return;
 
 		frameCount++;
@@ -284,9 +369,16 @@ public class GameMode implements ModeController {
 			playerMonkey.boost();
 		}
 
-		for(Fruit s : getFruits()) {
-			getAIController(s.getId()).update(frameCount);
-			if(getAIController(s.getId()).didPressFire() && firePhoton(s, photons)) {
+		// Ships far from the player are only updated now and then
+		tiers.update(fruits, playerMonkey.getPosition(), frameCount);
+
+		// The controllers decide in parallel, but move and fire in order
+		aiStage.decide(fruits, frameCount, tiers);
+		for(int ii = 0; ii < fruits.size(); ii++) {
+			if(!tiers.isAwake(ii)) continue;
+			AIController controller = fruits.getController(ii);
+			controller.apply();
+			if(controller.didPressFire() && firePhoton(fruits.getFruit(ii), photons)) {
 //				redSound.play();
 			}
 		}
@@ -295,18 +387,16 @@ public class GameMode implements ModeController {
 		//shipRed.acquireTarget(shipBlue);
 		//shipBlue.acquireTarget(shipRed);
 		
-		// Handles ship-to-ship and photon collisions; QUADRATIC WARNING!
-		for(Fruit s : getFruits()) {
+		// Handles ship-to-ship and photon collisions (dormant ships are too far to touch the player)
+		for(int ii = 0; ii < fruits.size(); ii++) {
+			if(!tiers.isAwake(ii)) continue;
+			Fruit s = fruits.getFruit(ii);
 			//photons.shipPhotonCollisions(s, physicsController);
 			physicsController.checkForCollision(playerMonkey, s);
 			if(!playerMonkey.canFireWeapon()) playerMonkey.skewer.fruitSkewerCollisions(s, physicsController);
 			if(!playerMonkey.canPunch()) playerMonkey.skewer.fruitPunchCollisions(s, physicsController);
 		}
-		for(Fruit s1 : getFruits()) {
-			for(Fruit s2 : getFruits()) {
-				if(s1 != s2) physicsController.checkForCollision(s1, s2);
-			}
-		}
+		physicsController.checkForCollisions(fruits, tiers);
 		//physicsController.checkInBounds(shipBlue, bounds);
 		//physicsController.checkInBounds(shipRed, bounds);
 
@@ -314,29 +404,70 @@ public class GameMode implements ModeController {
 
 		//photons.shipPhotonCollisions(shipBlue, physicsController);
 
-		for(Fruit s : getFruits()) {
+		// Deleting swaps the last ship into this slot, so only advance if we keep it
+		for(int ii = 0; ii < fruits.size(); ) {
+			Fruit s = fruits.getFruit(ii);
 			if(s.isDead()) {
 				orderController.acceptIngredient(s.getType());
-				deleteShip(s.getId());
+				factory.free(s, fruits.getController(ii));
+				fruits.remove(ii);
+			} else {
+				physicsController.checkForBounds(s, BOUND_X, BOUND_Y);
+				ii++;
 			}
-			physicsController.checkForBounds(s, BOUND_X, BOUND_Y);
 		}
 
 		physicsController.checkForBounds(playerMonkey, BOUND_X, BOUND_Y);
 
-		for(int id : toDelete) {
-			fruits.remove(id);
-			enemyControllers.remove(id);
-		}
-		toDelete.clear();
-
 		doSpawns();
 
-		if(playerMonkey.isDead()) {
+		if(playerMonkey.isDead() && !invulnerable) {
 			gameOver();
 		}
 	}
 
+	/**
+	 * Returns the generator for all random numbers in the game
+	 *
+	 * Controllers should draw their random numbers from here rather than making
+	 * their own generators, so that a seeded game is reproducible.
+	 *
+	 * @return the generator for all random numbers in the game
+	 */
+	public Random getRandom() {
+		return random;
+	}
+
+	/**
+	 * Returns the number of frames that have elapsed
+	 *
+	 * @return the number of frames that have elapsed
+	 */
+	public int getFrameCount() {
+		return frameCount;
+	}
+
+	/**
+	 * Returns true if the game is over
+	 *
+	 * @return true if the game is over
+	 */
+	public boolean isGameOver() {
+		return isGameOver;
+	}
+
+	/**
+	 * Sets whether the player ignores death
+	 *
+	 * This is for simulations and benchmarks, so that the game keeps running
+	 * after the player runs out of health.
+	 *
+	 * @param value whether the player ignores death
+	 */
+	public void setInvulnerable(boolean value) {
+		invulnerable = value;
+	}
+
 	/**
 	 * Called when the player dies
 	 */
@@ -347,47 +478,104 @@ public class GameMode implements ModeController {
 	/**
 	 * Get enemy ship of ID
 	 *
-	 * Will throw exception if ship of given ID doesn't exist
+	 * Returns null if ship of given ID doesn't exist
 	 *
 	 * @param id ID of ship
 	 * @return ship of id
 	 */
 	public Fruit getShip(int id) {
-		return fruits.get(id);
+		int slot = fruits.slotOf(id);
+		return slot < 0 ? null : fruits.getFruit(slot);
 	}
 
 	/**
 	 * Get enemy AI Controller of ID
 	 *
-	 * Will throw exception if ship of given ID doesn't exist
+	 * Returns null if ship of given ID doesn't exist
 	 *
 	 * @param id ID of controller
 	 * @return AI Controller of id
 	 */
 	public AIController getAIController(int id) {
-		return enemyControllers.get(id);
+		int slot = fruits.slotOf(id);
+		return slot < 0 ? null : fruits.getController(slot);
 	}
 
 	/**
-	 * Collection of enemy ships
+	 * Dense storage of enemy ships
 	 *
-	 * Useful for for-each loops
+	 * Iterate over the slots 0 to size()-1 with a plain for-loop
 	 *
-	 * @return Collection of enemy ships
+	 * @return Dense storage of enemy ships
 	 */
-	public Collection<Fruit> getFruits() {
-		return fruits.values();
+	public FruitStore getFruits() {
+		return fruits;
 	}
 
 	/**
 	 * Delete the ship and its associated AI Controller
 	 *
-	 * Note that deletions are carried through only at the end of each tick
+	 * The deletion is immediate, and the last ship in the store is moved into
+	 * the freed slot.  Do not call this while looping over the store slots.
 	 *
 	 * @param id of ship to delete
 	 */
 	public void deleteShip(int id) {
-		toDelete.add(id);
+		int slot = fruits.slotOf(id);
+		if (slot >= 0) {
+			factory.free(fruits.getFruit(slot), fruits.getController(slot));
+			fruits.remove(slot);
+		}
+	}
+
+	/**
+	 * Returns true if large populations of AI controllers run in parallel
+	 *
+	 * @return true if large populations of AI controllers run in parallel
+	 */
+	public boolean isParallelAI() {
+		return aiStage.isParallel();
+	}
+
+	/**
+	 * Sets whether large populations of AI controllers run in parallel
+	 *
+	 * The game plays out the same either way.
+	 *
+	 * @param value	whether large populations of AI controllers run in parallel
+	 */
+	public void setParallelAI(boolean value) {
+		aiStage.setParallel(value);
+	}
+
+	/**
+	 * Returns the classification of ships into awake and dormant
+	 *
+	 * Use this to change the active radius or the dormant interval.  Setting
+	 * the radius to 0 updates every ship every tick.
+	 *
+	 * @return the classification of ships into awake and dormant
+	 */
+	public ActivityTiers getActivityTiers() {
+		return tiers;
+	}
+
+	/**
+	 * Returns the maximum number of ships alive at once
+	 *
+	 * @return the maximum number of ships alive at once
+	 */
+	public int getMaxFruits() {
+		return maxFruits;
+	}
+
+	/**
+	 * Sets the maximum number of ships alive at once
+	 *
+	 * @param value the maximum number of ships alive at once
+	 */
+	public void setMaxFruits(int value) {
+		maxFruits = value;
 	}
 
 	/**
@@ -397,15 +585,15 @@ public class GameMode implements ModeController {
 	 */
 	public void doSpawns() {
 
-		//Don't spawn ships if there are already 25 ships on screen
-		if(fruits.size() > 25){
+		//Don't spawn ships if there are already too many ships on screen
+		if(fruits.size() > maxFruits){
 			return;
 		}
 
 		//Generate initial location of enemies
-		Random rand = new Random();
+		Random rand = random;
 		float radius = bounds.width/2 + rand.nextInt(800);
-		double theta = 2 * Math.PI *  Math.random();
+		double theta = 2 * Math.PI *  rand.nextDouble();
 		float x =  (float) (radius * Math.cos(theta));
 		float y = (float) (radius * Math.sin(theta));
 
@@ -442,35 +630,25 @@ public class GameMode implements ModeController {
 	public int spawn(float relativeX, float relativeY, FruitType type) {
 
 
-		Fruit ship;
+		int spawnCounter = fruits.reserve();
+		Fruit ship = factory.makeFruit(type, playerMonkey.getPosition().x + relativeX,
+									   playerMonkey.getPosition().y + relativeY, 0, 1, spawnCounter);
 
 		switch(type){
 			case APPLE:
-				ship = new Apple(playerMonkey.getPosition().x + relativeX, playerMonkey.getPosition().y + relativeY,
-						0, 1, spawnCounter);
 				ship.setTexture(appleTexture);
 				break;
 			case ORANGE:
-				ship = new Orange(playerMonkey.getPosition().x + relativeX, playerMonkey.getPosition().y + relativeY,
-						0, 1, spawnCounter);
 				ship.setTexture(orangeTexture);
 				break;
 			case STRAWBERRY:
-				ship = new Strawberry(playerMonkey.getPosition().x + relativeX, playerMonkey.getPosition().y + relativeY,
-						0, 1, spawnCounter);
 				ship.setTexture(strawberryTexture);
 				break;
-			default:
-				throw new AssertionError();
-
 		}
 		ship.setHeartTexture(heartTexture);
-		AIController controller = AIFactory.makeAI(ship, this);
+		AIController controller = factory.makeAI(ship);
 
-		fruits.put(spawnCounter, ship);
-		enemyControllers.put(spawnCounter, controller);
-
-		spawnCounter++;
+		fruits.add(spawnCounter, ship, controller);
 		return ship.getId();
 
 	}
@@ -486,91 +664,21 @@ public class GameMode implements ModeController {
 	 */
 	@Override
 	public void draw(GameCanvas canvas) {
-		for(int i = -2; i <= 1; i++) {
-			for(int j = -2; j <= 1; j++) {
-				int x = (i + (int) playerMonkey.getPosition().x / canvas.getWidth()) * canvas.getWidth();
-				int y = (j + (int) playerMonkey.getPosition().y / canvas.getHeight()) * canvas.getHeight();
-				if(x >= BOUND_X) {
-					if(y >= BOUND_Y) {
-						canvas.draw(borderTr, Color.WHITE, 0, 0,
-								x,
-								y,
-								0, 1.334f, 1.334f);
-					}
-					else {
-						if(y < -BOUND_Y) {
-							canvas.draw(borderBr, Color.WHITE, 0, 0,
-									x,
-									y,
-									0, 1.334f, 1.334f);
-						}
-						else {
-							canvas.draw(borderRight, Color.WHITE, 0, 0,
-									x,
-									y,
-									0, 1.334f, 1.334f);
-						}
-					}
-				}
-				else if (x < -BOUND_X) {
-					if(y >= BOUND_Y) {
-						canvas.draw(borderTl, Color.WHITE, 0, 0,
-								x,
-								y,
-								0, 1.334f, 1.334f);
-					}
-					else {
-						if(y < -BOUND_Y) {
-							canvas.draw(borderBl, Color.WHITE, 0, 0,
-									x,
-									y,
-									0, 1.334f, 1.334f);
-						}
-						else {
-							canvas.draw(borderLeft, Color.WHITE, 0, 0,
-									x,
-									y,
-									0, 1.334f, 1.334f);
-						}
-					}
-				}
-				else {
-					if(y >= BOUND_Y) {
-						canvas.draw(borderTop, Color.WHITE, 0, 0,
-								x,
-								y,
-								0, 1.334f, 1.334f);
-					}
-					else {
-						if(y < -BOUND_Y) {
-							canvas.draw(borderBottom, Color.WHITE, 0, 0,
-									x,
-									y,
-									0, 1.334f, 1.334f);
-						}
-						else {
-							canvas.draw(background, Color.WHITE, 0, 0,
-									x,
-									y,
-									0, 1.334f, 1.334f);
-						}
-					}
-				}
-			}
-		}
-
-
-
-
-		// First drawing pass (ships + shadows)
-		// Draw Red and Blue ships
+		// The camera follows the player; the background needs the offsets too
 		canvas.setXOffset(-playerMonkey.getPosition().x + canvas.getWidth() / 2f);
 		canvas.setYOffset(-playerMonkey.getPosition().y + canvas.getHeight() / 2f);
+		backgroundCache.draw(canvas, playerMonkey.getPosition().x, playerMonkey.getPosition().y);
 
+		// First drawing pass (ships + shadows)
+		// Draw Red and Blue ships
 		playerMonkey.drawMonkey(canvas, orderController);
 
-		for(Fruit s : getFruits()) {
-			s.drawShip(canvas);
+		// Only ships near the player are on screen
+		for(int ii = 0; ii < fruits.size(); ii++) {
+			Fruit fruit = fruits.getFruit(ii);
+			if (fruit.isVisible(canvas)) {
+				fruit.drawShip(canvas);
+			}
 		}
 
 		// Second drawing pass (photons)
@@ -584,13 +692,161 @@ public class GameMode implements ModeController {
 		if(isGameOver) {
 			canvas.drawOverlay(gameOverTexture, true);
 		}
+
+		drawStats(canvas, statsToggles);
+	}
+
+	/**
+	 * Draws a snapshot of the game on the provided GameCanvas
+	 *
+	 * This is for when the game is updated on another thread (see
+	 * SimulationThread), so that draw cannot read the models.  The ships are
+	 * drawn between their positions in the two snapshots.  Everything else is
+	 * drawn as it is in the newer one.
+	 *
+	 * @param canvas	The drawing context
+	 * @param prev		The snapshot of the previous tick
+	 * @param next		The snapshot of the latest tick
+	 * @param alpha		The fraction of a tick since the latest tick (0 to 1)
+	 */
+	public void draw(GameCanvas canvas, RenderSnapshot prev, RenderSnapshot next, float alpha) {
+		if (viewMonkey == null) {
+			createView();
+		}
+
+		float px = MathUtils.lerp(prev.playerX, next.playerX, alpha);
+		float py = MathUtils.lerp(prev.playerY, next.playerY, alpha);
+		canvas.setXOffset(-px + canvas.getWidth() / 2f);
+		canvas.setYOffset(-py + canvas.getHeight() / 2f);
+		backgroundCache.draw(canvas, px, py);
+
+		viewOrders.restore(next);
+		viewMonkey.getPosition().set(px, py);
+		viewMonkey.ang = MathUtils.lerpAngleDeg(prev.playerAngle, next.playerAngle, alpha);
+		viewMonkey.setHP(next.playerHP);
+		Skewer skewer = viewMonkey.skewer;
+		skewer.x  = MathUtils.lerp(prev.skewerX, next.skewerX, alpha);
+		skewer.y  = MathUtils.lerp(prev.skewerY, next.skewerY, alpha);
+		skewer.xp = MathUtils.lerp(prev.punchX, next.punchX, alpha);
+		skewer.yp = MathUtils.lerp(prev.punchY, next.punchY, alpha);
+		skewer.setOrientation(MathUtils.lerpAngleDeg(prev.skewerAngle, next.skewerAngle, alpha));
+		viewMonkey.drawMonkey(canvas, viewOrders);
+
+		for(int ii = 0; ii < next.fruitCount; ii++) {
+			Fruit view = viewFruits[next.fruitType[ii].ordinal()];
+			float x = next.fruitX[ii];
+			float y = next.fruitY[ii];
+			float ang = next.fruitAngle[ii];
+			int jj = next.previousIndex(prev, ii);
+			if (jj >= 0) {
+				x = MathUtils.lerp(prev.fruitX[jj], x, alpha);
+				y = MathUtils.lerp(prev.fruitY[jj], y, alpha);
+				ang = MathUtils.lerpAngleDeg(prev.fruitAngle[jj], ang, alpha);
+			}
+			view.setPosition(x, y);
+			view.setAngle(ang);
+			view.size = next.fruitSize[ii];
+			view.setHP(next.fruitHP[ii]);
+			if (!view.isVisible(canvas)) {
+				continue;
+			}
+			view.boostCooldown = next.fruitBoost[ii];
+			view.setSpiked(next.fruitSpiked[ii]);
+			view.drawShip(canvas);
+		}
+
+		canvas.setBlendState(GameCanvas.BlendState.ALPHA_BLEND);
+		photons.draw(canvas, next, alpha);
+		canvas.setBlendState(GameCanvas.BlendState.ALPHA_BLEND);
+
+		viewOrders.draw(canvas);
+
+		if(next.gameOver) {
+			canvas.drawOverlay(gameOverTexture, true);
+		}
+
+		drawStats(canvas, next.statsToggles);
+	}
+
+	/**
+	 * Draws the performance overlay, if it is visible
+	 *
+	 * The overlay setting lives in the canvas, so that it survives a restart.
+	 * The game only counts how often the player toggled it.
+	 *
+	 * @param canvas	The drawing context
+	 * @param toggles	How many times the player has toggled the overlay
+	 */
+	private void drawStats(GameCanvas canvas, int toggles) {
+		if ((toggles - statsToggled) % 2 != 0) {
+			canvas.setStatsVisible(!canvas.isStatsVisible());
+		}
+		statsToggled = toggles;
+		if (canvas.isStatsVisible()) {
+			canvas.drawStats(10, 70);
+		}
+	}
+
+	/**
+	 * Copies the drawable state of the game into the snapshot
+	 *
+	 * This must be called on the thread that updates the game, in between
+	 * updates.
+	 *
+	 * @param snapshot	The snapshot to fill in
+	 */
+	void capture(RenderSnapshot snapshot) {
+		snapshot.gameOver = isGameOver;
+		snapshot.statsToggles = statsToggles;
+		snapshot.capturePlayer(playerMonkey);
+		snapshot.captureFruits(fruits);
+		photons.capture(snapshot);
+		orderController.capture(snapshot);
+	}
+
+	/**
+	 * Creates the stand-in models for drawing a snapshot
+	 *
+	 * The stand-ins have the same textures as the real models, but they are
+	 * never updated.  Their state is copied from the snapshot before drawing.
+	 */
+	private void createView() {
+		viewMonkey = new Monkey(0, 0, 0, 1.5f);
+		viewMonkey.setPunchTexture(punchTexture);
+		viewMonkey.setSkewerTexture(skewerTexture,strawberrySkTexture, appleSkTexture, orangeSkTexture, emptySkTexture);
+		viewMonkey.setHeartTexture(heartTexture);
+		viewMonkey.setMonkeyTexture(monkeyTexture);
+		if (monkeySpriteTexture != null) {
+			viewMonkey.setFilmStrip(new FilmStrip(monkeySpriteTexture,2,5,8));
+		}
+
+		viewFruits = new Fruit[FruitType.values().length];
+		viewFruits[FruitType.APPLE.ordinal()] = new Apple(0, 0, 0, 1, 0);
+		viewFruits[FruitType.APPLE.ordinal()].setTexture(appleTexture);
+		viewFruits[FruitType.ORANGE.ordinal()] = new Orange(0, 0, 0, 1, 0);
+		viewFruits[FruitType.ORANGE.ordinal()].setTexture(orangeTexture);
+		viewFruits[FruitType.STRAWBERRY.ordinal()] = new Strawberry(0, 0, 0, 1, 0);
+		viewFruits[FruitType.STRAWBERRY.ordinal()].setTexture(strawberryTexture);
+		for (Fruit view : viewFruits) {
+			if (view != null) {
+				view.setHeartTexture(heartTexture);
+			}
+		}
+
+		viewOrders = new OrderController(this);
+		viewOrders.setEnemyTexture(strawberrySkTexture, appleSkTexture, orangeSkTexture, emptySkTexture);
+		viewOrders.setSkewerTexture(skewerTexture);
+		viewOrders.setLoadingTexture(statusBkgLeft, statusBkgRight, statusBkgMiddle, statusFrgLeft, statusFrgRight, statusFrgMiddle);
 	}
 
 	/**
 	 * Dispose of all (non-static) resources allocated to this mode.
 	 */
 	public void dispose() {
-		// Garbage collection here is sufficient.  Nothing to do
+		// The textures belong to the asset directory; only the geometry is ours
+		if (backgroundCache != null) {
+			backgroundCache.dispose();
+		}
 	}
 	
 	/**
@@ -605,6 +861,9 @@ public class GameMode implements ModeController {
 	 */
 	public void resize(int width, int height) {
 		bounds.set(0,0,width,height);
+		if (backgroundCache != null) {
+			backgroundCache.invalidate();
+		}
 	}
 	
 	/**
@@ -620,7 +879,9 @@ public class GameMode implements ModeController {
 	private boolean firePhoton(Fruit ship, PhotonQueue photons) {
 		// Only process if enough time has passed since last.
 		if (ship.canFireWeapon()) {
-			photons.addPhoton(ship.getPosition(), ship.getVelocity(), ship.getAngle(), ship.getType());
+			firePosition.set(ship.getX(), ship.getY());
+			fireVelocity.set(ship.getVX(), ship.getVY());
+			photons.addPhoton(firePosition, fireVelocity, ship.getAngle(), ship.getType());
 			ship.reloadWeapon();
 //			ship.takeDamage(1);
 			return true;
@@ -37,6 +37,8 @@ public class InputController {
 
     /** X-Box controller associated with this player (if any) */
 	protected XBoxController xbox;
+	/** Whether to read the input devices at all (false for headless games) */
+	protected boolean polling;
 
 	/** How much up are we going? */
 	private float up;
@@ -58,6 +60,15 @@ public class InputController {
 	/** Did we press switch skewer button */
 	private boolean pressedSwitch;
 	private boolean pressedRestart;
+	/** Did we press the performance overlay button? */
+	private boolean pressedStats;
+
+	/** Was the boost button down when we last read the input? */
+	private boolean heldBoost;
+	/** Was the switch skewer button down when we last read the input? */
+	private boolean heldSwitch;
+	/** Was the performance overlay button down when we last read the input? */
+	private boolean heldStats;
 	
 	/** 
 	 * Returns the amount of upward movement.
@@ -130,6 +141,15 @@ public class InputController {
 		return pressedRestart;
 	}
 
+	/**
+	 * Returns whether the performance overlay button was pressed.
+	 *
+	 * @return whether the performance overlay button was pressed.
+	 */
+	public boolean didToggleStats() {
+		return pressedStats;
+	}
+
 
 	/**
 	 * Creates a new input controller for the specified player.
@@ -141,14 +161,31 @@ public class InputController {
 	 * @param id Player id number (0..4)
 	 */
 	public InputController(int id) {
+		this(id, true);
+	}
+
+	/**
+	 * Creates a new input controller for the specified player.
+	 *
+	 * If poll is false, this controller never reads any device.  It always
+	 * reports no movement and no button presses.  This is for headless games,
+	 * where there are no input devices to read.
+	 *
+	 * @param id 	Player id number (0..4)
+	 * @param poll	Whether to read the input devices
+	 */
+	public InputController(int id, boolean poll) {
 		player = id;
+		polling = poll;
 		
 		// If we have a game-pad for id, then use it.
-		Array<XBoxController> controllers = Controllers.get().getXBoxControllers();
-		if (controllers.size > id) {
-			xbox = controllers.get(id);
-		} else {
-			xbox = null;
+		if (poll) {
+			Array<XBoxController> controllers = Controllers.get().getXBoxControllers();
+			if (controllers.size > id) {
+				xbox = controllers.get(id);
+			} else {
+				xbox = null;
+			}
 		}
 	}
 
@@ -159,8 +196,16 @@ public class InputController {
 	 * we ask the controller about its current state.  When the game is running,
 	 * it is typically best to poll input instead of using listeners.  Listeners
 	 * are more appropriate for menus and buttons (like the loading screen). 
+	 *
+	 * This is called once per game tick, which is not always once per frame.
+	 * So button presses are found by comparing against the last call, rather
+	 * than with isKeyJustPressed (which is true for a whole frame).
 	 */
 	public void readInput() {
+		if (!polling) {
+			return;
+		}
+
 		// If there is a game-pad, then use it.
 		if (xbox != null) {
 			System.err.println("Xbox controller unsupported");
@@ -216,7 +261,9 @@ public class InputController {
 			}
 
 			// Boosting
-			pressedBoost = Gdx.input.isKeyJustPressed(boost);
+			boolean held = Gdx.input.isKeyPressed(boost);
+			pressedBoost = held && !heldBoost;
+			heldBoost = held;
 
 			angle = (float)Math.atan2(Gdx.input.getY() - 360, Gdx.input.getX() - 640);
 
@@ -225,9 +272,14 @@ public class InputController {
 				pressedFire = true;
 			}
 
-			pressedSwitch = Gdx.input.isButtonJustPressed(Input.Buttons.RIGHT);
+			held = Gdx.input.isButtonPressed(Input.Buttons.RIGHT);
+			pressedSwitch = held && !heldSwitch;
+			heldSwitch = held;
 
 			this.pressedRestart = Gdx.input.isKeyPressed(restart);
+			held = Gdx.input.isKeyPressed(Input.Keys.F3);
+			pressedStats = held && !heldStats;
+			heldStats = held;
 
 
 		}
@@ -76,6 +76,8 @@ public class LoadingMode implements ModeController, InputProcessor, ControllerLi
 
 	/** Default budget for asset loader (do nothing but load 60 fps) */
 	private static int DEFAULT_BUDGET = 15;
+	/** Local directory for the decoded images (see TextureCache) */
+	private static String TEXTURE_CACHE = "cache/textures";
 
 	// Asset Dimensions
 	/** Standard width that the assets were designed for */
@@ -188,7 +190,10 @@ public class LoadingMode implements ModeController, InputProcessor, ControllerLi
 		scale = -1.0f;
 
 		// We need these files loaded immediately
+		// Images decoded by an earlier launch are read from the cache
+		TextureCache cache = new TextureCache( Gdx.files.local( TEXTURE_CACHE ) );
 		internal = new AssetDirectory( "loading.json" );
+		internal.setTextureCache( cache );
 		internal.loadAssets();
 		internal.finishLoading();
 
@@ -220,6 +225,7 @@ public class LoadingMode implements ModeController, InputProcessor, ControllerLi
 
 		// Start loading the real assets
 		assets = new AssetDirectory( file );
+		assets.setTextureCache( cache );
 		assets.loadAssets();
 	}
 	
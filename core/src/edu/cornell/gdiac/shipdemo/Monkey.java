@@ -26,6 +26,7 @@ package edu.cornell.gdiac.shipdemo;
 
 import com.badlogic.gdx.math.*;
 import com.badlogic.gdx.graphics.*;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.util.*;
 
@@ -101,9 +102,9 @@ public class Monkey extends CharacterModel {
 
     // Asset references.  These should be set by GameMode
     /** Texture for the monkey */
-    private Texture monkeyTexture;
+    private TextureRegion monkeyTexture;
     /** Texture for the heart */
-    private Texture heartTexture;
+    private TextureRegion heartTexture;
     /** Reference to ship's sprite for drawing */
     private FilmStrip monkeySprite;
 
@@ -117,7 +118,7 @@ public class Monkey extends CharacterModel {
      *
      * @return the image texture for the skewer
      */
-    public Texture getSkewerTexture() {
+    public TextureRegion getSkewerTexture() {
         return skewer.getTexture();
     }
 
@@ -129,7 +130,7 @@ public class Monkey extends CharacterModel {
      *
      * param value the image texture for the skewer
      */
-    public void setSkewerTexture(Texture value, Texture strawberrySkTexture,Texture appleSkTexture, Texture orangeSkTexture, Texture emptySkTexture) {
+    public void setSkewerTexture(TextureRegion value, TextureRegion strawberrySkTexture,TextureRegion appleSkTexture, TextureRegion orangeSkTexture, TextureRegion emptySkTexture) {
         skewer.setTexture(value);
         skewer.setEnemyTexture(strawberrySkTexture, appleSkTexture, orangeSkTexture, emptySkTexture);
 
@@ -143,7 +144,7 @@ public class Monkey extends CharacterModel {
      *
      * param value the image texture for the skewer
      */
-    public void setPunchTexture(Texture value) {
+    public void setPunchTexture(TextureRegion value) {
         skewer.setPunchTexture(value);
     }
 
@@ -155,7 +156,7 @@ public class Monkey extends CharacterModel {
      *
      * param value the image heart texture
      */
-    public void setHeartTexture(Texture value) {
+    public void setHeartTexture(TextureRegion value) {
         heartTexture = value;
     }
 
@@ -167,7 +168,7 @@ public class Monkey extends CharacterModel {
      *
      * param value the image monkey texture
      */
-    public void setMonkeyTexture(Texture value) {
+    public void setMonkeyTexture(TextureRegion value) {
         monkeyTexture = value;
     }
 
@@ -356,6 +357,17 @@ public class Monkey extends CharacterModel {
         return hp;
     }
 
+    /**
+     * Sets the HP of the monkey.
+     *
+     * This is for drawing a snapshot of the game; use takeDamage in the game.
+     *
+     * @param value the monkey HP
+     */
+    public void setHP(int value) {
+        this.hp = value;
+    }
+
     /**
      * Decreases the health of the monkey by damage param
      * HP lower bounded by 0
@@ -443,6 +455,8 @@ public class Monkey extends CharacterModel {
         // Progress boost cooldown
         if(boostCooldown > 0)
             boostCooldown--;
+        // The skewer and glove are swept from where they were to where they are now
+        skewer.savePrevious();
         float rotate = -(180+ang);
         tofs.x = pos.x + (float) (Math.cos(Math.toRadians(rotate-180)) * 30); tofs.y = pos.y + (float) (Math.sin(Math.toRadians(rotate-180)) * 30);
         float xoffset = (float) (Math.cos(Math.toRadians(rotate-180)) * 100);
@@ -514,7 +528,7 @@ public class Monkey extends CharacterModel {
 
         for (int i = 1; i <= this.hp; i++) {
 //            if(heartTexture != null) canvas.draw(heartTexture, Color.WHITE, ox, oy, 80 + pos.x - xoffset*20, pos.y + MONKEY_SIZE + yoffset * 25, 0, DEFAULT_SCALE, DEFAULT_SCALE);
-            if(heartTexture != null) canvas.draw(heartTexture, Color.WHITE, 0.5f * heartTexture.getWidth(), 0.5f * heartTexture.getHeight(), (float) (pos.x + xoffset*(1.0/10.0 * monkeyTexture.getWidth())), pos.y + MONKEY_SIZE + yoffset * 25, 0, DEFAULT_SCALE, DEFAULT_SCALE);
+            if(heartTexture != null) canvas.draw(heartTexture, Color.WHITE, 0.5f * heartTexture.getRegionWidth(), 0.5f * heartTexture.getRegionHeight(), (float) (pos.x + xoffset*(1.0/10.0 * monkeyTexture.getRegionWidth())), pos.y + MONKEY_SIZE + yoffset * 25, 0, DEFAULT_SCALE, DEFAULT_SCALE);
             xoffset++;
             if(i % 5 == 0){
                 yoffset++;
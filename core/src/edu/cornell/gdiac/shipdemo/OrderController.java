@@ -1,6 +1,5 @@
 package edu.cornell.gdiac.shipdemo;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Affine2;
 import com.badlogic.gdx.utils.Array;
@@ -10,7 +9,6 @@ import edu.cornell.gdiac.util.FilmStrip;
 
 import java.util.Deque;
 import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.HashMap;
 
 public class OrderController {
@@ -26,13 +24,13 @@ public class OrderController {
     /**
      * Texture for the ship (colored for each player)
      */
-    private Texture appleTexture;
+    private TextureRegion appleTexture;
 //    private Texture watermelonTexture;
 //    private Texture pineappleTexture;
-    private Texture strawberryTexture;
-    private Texture orangeTexture;
-    private Texture skewerTexture;
-    private Texture emptyTexture;
+    private TextureRegion strawberryTexture;
+    private TextureRegion orangeTexture;
+    private TextureRegion skewerTexture;
+    private TextureRegion emptyTexture;
 
     /** Left portion of the status background (grey region) */
     private TextureRegion statusBkgLeft;
@@ -50,7 +48,9 @@ public class OrderController {
     private Skewer skewers[];
 
     private int completed;
-    static private Array<Order> orders;
+    private Array<Order> orders;
+    /** Orders recycled by restore (only used when drawing a snapshot) */
+    private Array<Order> spareOrders;
 
     /**
      * Texture for the ship (colored for each player)
@@ -61,7 +61,7 @@ public class OrderController {
 
     static final int MaxOrders=3;
 
-    private Texture getEnemy(FruitType i) {
+    private TextureRegion getEnemy(FruitType i) {
 
         switch (i) {
             case EMPTY:
@@ -87,6 +87,7 @@ public class OrderController {
         this.gameMode = gameMode;
 
         this.orders = new Array<Order>();
+        this.spareOrders = new Array<Order>();
         this.completed=0;
         currentSkewer = 0;
         this.numSkewers = num_skewers;
@@ -100,7 +101,7 @@ public class OrderController {
 
     public void update(int frameCount) {
         if(orders.size<MaxOrders) {
-            if (new Random().nextInt(20) == 1) {
+            if (gameMode.getRandom().nextInt(20) == 1) {
                 addOrder();
             }
         }
@@ -117,13 +118,13 @@ public class OrderController {
         this.shipSprite = assets;
     }
 
-    public void setEnemyTexture(Texture strawberryTexture, Texture appleTexture, Texture orangeTexture, Texture emptyTexture){
+    public void setEnemyTexture(TextureRegion strawberryTexture, TextureRegion appleTexture, TextureRegion orangeTexture, TextureRegion emptyTexture){
         this.strawberryTexture = strawberryTexture;
         this.appleTexture = appleTexture;
         this.orangeTexture = orangeTexture;
         this.emptyTexture = emptyTexture;
     }
-    public void setSkewerTexture(Texture skewerTexture){
+    public void setSkewerTexture(TextureRegion skewerTexture){
         this.skewerTexture=skewerTexture;
     }
     public void setLoadingTexture( TextureRegion BL,  TextureRegion BR,  TextureRegion BM, TextureRegion FL, TextureRegion FR, TextureRegion FM){
@@ -153,18 +154,18 @@ public class OrderController {
                 sizefactor=2;
                 skewerscale=1.2f;
             }
-            canvas.drawAbsolute(skewerTexture, Color.WHITE, skewerTexture.getWidth()/2, skewerTexture.getHeight()/2,
+            canvas.drawAbsolute(skewerTexture, Color.WHITE, skewerTexture.getRegionWidth()/2, skewerTexture.getRegionHeight()/2,
                     100,canvas.getHeight() - 40 * (1 + skew),270,DEFAULT_SCALE,DEFAULT_SCALE*3.5f*skewerscale);
 
             for (int i = 0; i < skewers[skew].getQueue().size; i++) {
                 Color c = Color.WHITE;
                 if(skewers[skew].getFruitAt(i)==FruitType.EMPTY) {
-                    c = new Color(0, 0, 0, 1);
+                    c = Color.BLACK;
                 }
-                Texture enemy = getEnemy(skewers[skew].getFruitAt(i));
+                TextureRegion enemy = getEnemy(skewers[skew].getFruitAt(i));
                 float size = DEFAULT_SCALE/2;
 
-                canvas.drawAbsolute(enemy, c, enemy.getWidth()/2, enemy.getHeight()/2,
+                canvas.drawAbsolute(enemy, c, enemy.getRegionWidth()/2, enemy.getRegionHeight()/2,
                         60+i * 60, canvas.getHeight() - 40 * (1 + skew), 0,sizefactor*size, sizefactor*size);
             }
         }
@@ -173,12 +174,67 @@ public class OrderController {
             orders.get(o).draw(canvas,canvas.getHeight()-60*(o+1)+20);
         }
         for(int i=0; i<completed;i++){
-            canvas.drawAbsolute(shipSprite, new Color(.5f,.5f,.5f,1), 0, 0, i * 20, 20, 0,DEFAULT_SCALE/3f, DEFAULT_SCALE/3f);
+            canvas.drawAbsolute(shipSprite, Color.GRAY, 0, 0, i * 20, 20, 0,DEFAULT_SCALE/3f, DEFAULT_SCALE/3f);
+        }
+    }
+
+    /**
+     * Copies the state needed to draw the orders UI into the snapshot
+     *
+     * @param snapshot  The snapshot to fill in
+     */
+    void capture(RenderSnapshot snapshot) {
+        snapshot.reserveOrders(numSkewers, orders.size, 3);
+        snapshot.currentSkewer = currentSkewer;
+        snapshot.completed = completed;
+        snapshot.skewerCount = numSkewers;
+        for (int skew = 0; skew < numSkewers; skew++) {
+            Queue<FruitType> q = skewers[skew].getQueue();
+            snapshot.skewerSize[skew] = q.size;
+            for (int i = 0; i < q.size; i++) {
+                snapshot.skewerItems[skew][i] = q.get(i);
+            }
+        }
+        snapshot.orderCount = orders.size;
+        for (int o = 0; o < orders.size; o++) {
+            Order order = orders.get(o);
+            System.arraycopy(order.items, 0, snapshot.orderItems[o], 0, order.items.length);
+            snapshot.orderProgress[o] = order.progress;
+        }
+    }
+
+    /**
+     * Sets the orders UI to the state in the snapshot
+     *
+     * This is for a controller that only draws a snapshot.  It must not be
+     * the controller of a running game.
+     *
+     * @param snapshot  The snapshot to copy
+     */
+    void restore(RenderSnapshot snapshot) {
+        currentSkewer = snapshot.currentSkewer;
+        completed = snapshot.completed;
+        for (int skew = 0; skew < Math.min(numSkewers, snapshot.skewerCount); skew++) {
+            skewers[skew].makeEmpty();
+            for (int i = 0; i < snapshot.skewerSize[skew]; i++) {
+                skewers[skew].getQueue().addLast(snapshot.skewerItems[skew][i]);
+            }
+        }
+        while (orders.size > snapshot.orderCount) {
+            spareOrders.add(orders.pop());
+        }
+        while (orders.size < snapshot.orderCount) {
+            orders.add(spareOrders.size > 0 ? spareOrders.pop() : new Order(FruitType.EMPTY, FruitType.EMPTY, FruitType.EMPTY));
+        }
+        for (int o = 0; o < orders.size; o++) {
+            Order order = orders.get(o);
+            System.arraycopy(snapshot.orderItems[o], 0, order.items, 0, order.items.length);
+            order.progress = snapshot.orderProgress[o];
         }
     }
 
     public FruitType random(){
-        switch(ThreadLocalRandom.current().nextInt(0, 3 )){
+        switch(gameMode.getRandom().nextInt(3)){
             case(0):
                 return FruitType.APPLE;
             case(1):
@@ -257,6 +313,10 @@ public class OrderController {
                 float val= progress/frames;
                 return val;
             }
+            /** Returns how much of the order time has passed, without advancing it */
+            private float getFraction(){
+                return progress/(time*60);
+            }
             public boolean update(){
                 if (convert_frames_to_time()>=1f){
                     return true;
@@ -273,16 +333,16 @@ public class OrderController {
                 }
                 canvas.drawProgress( true, statusFrgRight, statusFrgMiddle,
                         statusFrgLeft,  statusBkgRight,
-                        statusBkgMiddle, statusBkgLeft, canvas.getWidth()-70, height+25, width, scale/5, convert_frames_to_time());
+                        statusBkgMiddle, statusBkgLeft, canvas.getWidth()-70, height+25, width, scale/5, getFraction());
 
-                canvas.drawAbsolute(skewerTexture, Color.WHITE, skewerTexture.getWidth()/2, skewerTexture.getHeight()/2,
+                canvas.drawAbsolute(skewerTexture, Color.WHITE, skewerTexture.getRegionWidth()/2, skewerTexture.getRegionHeight()/2,
                         canvas.getWidth() - (220/3)-30,height,270,DEFAULT_SCALE,DEFAULT_SCALE*3.5f);
                 for (int i = 0; i < items.length; i++) {
                     Color c = Color.WHITE;
-                    Texture enemy = getEnemy(items[i]);
+                    TextureRegion enemy = getEnemy(items[i]);
                     float size = DEFAULT_SCALE/1.5f;
 
-                    canvas.drawAbsolute(enemy, c, enemy.getWidth()/2, enemy.getHeight()/2,  canvas.getWidth() - 110 + (i * 40), height, 0,size,size);
+                    canvas.drawAbsolute(enemy, c, enemy.getRegionWidth()/2, enemy.getRegionHeight()/2,  canvas.getWidth() - 110 + (i * 40), height, 0,size,size);
                 }
 
             }
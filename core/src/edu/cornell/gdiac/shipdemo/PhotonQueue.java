@@ -8,15 +8,24 @@
  * that are too old are deleted, so that they are not bouncing about the game
  * forever.
  * 
- * The PhotonQueue is exactly what it sounds like: a queue. In this implementation
- * we use the circular array implementation of a queue (which you may have learned
- * in CS 2110).  Why do we do this when C# has perfectly good Collection classes?
- * Because in game programming it is considered bad form to have "new" statements
- * in an update or a graphics loop if you can easily avoid it.  Each "new" is
- * a potentially expensive memory allocation.  It is (often) much better to 
- * allocate all the memory that you need at start-up, so that all you do is
- * assign variables during game time. If you notice, all the Photon objects
- * are declared and initialized in the constructor; we just reassign the fields
+ * The PhotonQueue is still a queue: photons are kept in the order they were
+ * fired, so the oldest ones are always at the front.  But instead of an array
+ * of Photon objects, it is a "structure of arrays": one primitive array per
+ * field (x, y, vx, vy, age, damage, ...).  Moving the photons is then a tight
+ * loop over contiguous floats, which the JIT can turn into vector instructions,
+ * and there is no object header or pointer chase per photon.
+ *
+ * Why not a Collection class?  Because in game programming it is considered bad
+ * form to have "new" statements in an update or a graphics loop if you can easily
+ * avoid it.  The arrays grow (by doubling) when they are full, so after a short
+ * warm-up the queue never allocates.  Dead photons (too old, or spent on a hit)
+ * are removed by sliding the live ones down, which keeps them in firing order.
+ *
+ * To test the photons against a character, we do not look at every photon.
+ * The photons are put in a SpatialGrid, which is built at most once per add or
+ * move and can then be queried for any number of characters.  So the cost stays
+ * near-linear as both the photons and the characters grow.  A hit pushes the
+ * photon, but does not rebuild the grid; queries just search a little further.
  *
  * Author: Walker M. White
  * Based on original GameX Ship Demo by Rama C. Hoetzlein, 2002
@@ -26,6 +35,9 @@ package edu.cornell.gdiac.shipdemo;
 
 import com.badlogic.gdx.math.*;
 import com.badlogic.gdx.graphics.*;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+import java.util.Arrays;
 
 /**
  * Model class representing an "particle system" of photons.
@@ -33,6 +45,9 @@ import com.badlogic.gdx.graphics.*;
  * Note that the graphics resources in this class are static.  That
  * is because all photons share the same image file, and it would waste
  * memory to load the same image file for each photon.
+ *
+ * A photon is identified by its index in the arrays.  An index is only valid
+ * until the next call to {@link #move}, which compacts the arrays.
  */
 public class PhotonQueue {
 	/** Standard photon size */
@@ -45,134 +60,79 @@ public class PhotonQueue {
 	private static final float PHOTON_VELOCITY = 8f;
 	/** Number of animation frames a photon lives before deleted */
 	private static final int MAX_AGE = 60;
-	/** Maximum number of photons allowed on screen at a time. */
-	private static final int MAX_PHOTONS = 512;
+	/** Initial number of photons to make room for */
+	private static final int DEFAULT_CAPACITY = 512;
+	/** Width of a cell in the photon index */
+	private static final float CELL_SIZE = 2*PHOTON_SIZE;
 
 	/** Graphic asset representing a single photon. */
-	private static Texture texture;
-
-	// QUEUE DATA STRUCTURES
-	/** Array implementation of a circular queue. */
-	protected Photon[] queue;
-	/** Index of head element in the queue */
-	protected int head;
-	/** Index of tail element in the queue */
-	protected int tail;
-	/** Number of elements currently in the queue */
-	protected int size;
-	
-	/**
-	 * An inner class that represents a single Photon.
-	 * 
-	 * To count down on memory references, the photon is "flattened" so that
-	 * it contains no other objects.
-     */
-	public class Photon {
-		public int damage;
-		/** X-coordinate of photon position */
-		public float x; 
-		/** Y-coordinate of photon position */
-		public float y;
-		/** X-coordinate of photon velocity */
-		public float vx; 
-		/** X-coordinate of photon velocity */
-		public float vy;
-		/** Age for the photon in frames (for decay) */
-		public int age;
-		/** The type of ship that fired this photon*/
-		public FruitType type;
-		/** Relative size of this photon*/
-		public float size;
-
-		public boolean hasHit;
-		
-		/**
-		 * Creates a new empty photon with age -1.
-		 * 
-		 * Photons created this way "do not exist".  This constructor is
-		 * solely for preallocation.  To actually use a photon, use the
-		 * allocate() method.
-		 */
-		public Photon() {
-			this.x  = 0.0f; this.y  = 0.0f;
-			this.vx = 0.0f; this.vy = 0.0f;
-			this.age = -1;
-			this.damage = 1;
-        }
-		
-		/**
-		 * Allocates a photon by setting its position and velocity.
-		 * A newly allocated photon starts with age 0.
-		 *
-		 * @param x  The x-coordinate of the position
-		 * @param y  The y-coordinate of the position
-		 * @param vx The x-coordinate of the velocity
-		 * @param vy The y-coordinate of the velocity
-		 */
-		public void allocate(float x, float y, float vx, float vy, FruitType type) {
-			this.x  = x;  this.y  = y;
-			this.vx = vx; this.vy = vy;
-			this.age = 0;
-			this.type = type;
-			this.size = 1;
+	private static TextureRegion texture;
 
-		}
-		
-		/**
-		 * Moves the photon within the given boundary.
-		 * 
-		 * If the photon goes outside of bounds, it bounces off the edge.
-		 * This method also advances the age of the photon.
-		 */
-		public void move(Rectangle bounds) {
-			x += vx;
-			y += vy;
-
-            
-            // Finally, advance the age of the photon.
-            age++;
-		}
-
-		/**
-		 * Return this photon's diameter
-		 */
-		public float getDiameter() {
-			return PhotonQueue.PHOTON_SIZE * size * (1.25f - (float)age * 0.5f / (float)MAX_AGE);
-		}
-
-		public Vector2 getPosition() {
-			return new Vector2(x, y);
-		}
-
-		public Vector2 getVelocity() {
-			return new Vector2(vx, vy);
-		}
-
-		public float getMass() {
-			return 0.5f;
-		}
+	// QUEUE DATA STRUCTURES (one entry per photon, oldest first)
+	/** X-coordinate of photon position */
+	protected float[] x;
+	/** Y-coordinate of photon position */
+	protected float[] y;
+	/** X-coordinate of photon velocity */
+	protected float[] vx;
+	/** Y-coordinate of photon velocity */
+	protected float[] vy;
+	/** Age for the photon in frames (for decay) */
+	protected int[] age;
+	/** Damage dealt by the photon (0 once it has hit something) */
+	protected int[] damage;
+	/** Relative size of the photon */
+	protected float[] sizes;
+	/** The type of ship that fired the photon */
+	protected FruitType[] type;
+	/** Number of photons currently in the queue */
+	protected int size;
+	/** The largest relative size of any photon since the last clear */
+	protected float maxSize;
 
-		public void setVelocity(Vector2 v){
-			vx = v.x;
-			vy = v.y;
-		}
-	}
+	// SPATIAL INDEX
+	/** The photon positions, bucketed for radius queries */
+	private SpatialGrid grid;
+	/** Whether the grid holds the current photons */
+	private boolean indexed;
+	/** How far each photon has been pushed since the grid was built */
+	private float[] pushed;
+	/** The furthest any photon has been pushed since the grid was built */
+	private float drift;
+	/** The photons found by the last radius query, in queue order */
+	private int[] found;
+	/** The number of photons found by the last radius query */
+	private int foundCount;
 
 	/**
 	 *  Constructs a new (empty) PhotonQueue
 	 */
 	public PhotonQueue() {
-		// Construct the queue.
-		queue = new Photon[MAX_PHOTONS];
-		
-        head = 0;
-        tail = -1;
-        size = 0;
-
-        // "Predeclare" all the photons for efficiency
-        for (int ii = 0; ii < MAX_PHOTONS; ii++) {
-        	queue[ii] = new Photon();
-        }
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 *  Constructs a new (empty) PhotonQueue with room for the given number of photons
+	 *
+	 *  The queue grows if more photons are added.
+	 *
+	 *  @param capacity	The initial number of photons to make room for
+	 */
+	public PhotonQueue(int capacity) {
+		capacity = Math.max(1, capacity);
+		x  = new float[capacity];
+		y  = new float[capacity];
+		vx = new float[capacity];
+		vy = new float[capacity];
+		age = new int[capacity];
+		damage = new int[capacity];
+		sizes = new float[capacity];
+		type = new FruitType[capacity];
+		size = 0;
+
+		grid = new SpatialGrid(-GameMode.BOUND_X, -GameMode.BOUND_Y, 2*GameMode.BOUND_X, 2*GameMode.BOUND_Y, CELL_SIZE);
+		found = new int[capacity];
+		pushed = new float[capacity];
 	}
 
 	/** 
@@ -183,7 +143,7 @@ public class PhotonQueue {
      *
 	 * @return the image for a single photon; reused by all photons.
 	 */
-	public Texture getTexture() {
+	public TextureRegion getTexture() {
 		return texture;
 	}
 
@@ -195,10 +155,74 @@ public class PhotonQueue {
      *
 	 * @param value the image for a single photon; reused by all photons.
 	 */
-	public void setTexture(Texture value) {
+	public void setTexture(TextureRegion value) {
 		texture = value;
 	}
 
+	/**
+	 * Returns the number of photons in the queue
+	 *
+	 * @return the number of photons in the queue
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the x-coordinate of the given photon
+	 *
+	 * @param index	The photon index
+	 *
+	 * @return the x-coordinate of the given photon
+	 */
+	public float getX(int index) {
+		return x[index];
+	}
+
+	/**
+	 * Returns the y-coordinate of the given photon
+	 *
+	 * @param index	The photon index
+	 *
+	 * @return the y-coordinate of the given photon
+	 */
+	public float getY(int index) {
+		return y[index];
+	}
+
+	/**
+	 * Returns the damage the given photon deals (0 if it already hit something)
+	 *
+	 * @param index	The photon index
+	 *
+	 * @return the damage the given photon deals
+	 */
+	public int getDamage(int index) {
+		return damage[index];
+	}
+
+	/**
+	 * Returns the diameter of the given photon
+	 *
+	 * Photons shrink as they age.
+	 *
+	 * @param index	The photon index
+	 *
+	 * @return the diameter of the given photon
+	 */
+	public float getDiameter(int index) {
+		return PHOTON_SIZE * sizes[index] * getScale(age[index]);
+	}
+
+	/**
+	 * Returns the mass of a photon
+	 *
+	 * @return the mass of a photon
+	 */
+	public float getMass() {
+		return 0.5f;
+	}
+
 	/**
 	 * Adds a photon to the active queue.
 	 * 
@@ -206,11 +230,6 @@ public class PhotonQueue {
 	 * given position, velocity, and facing (angle).  We could have a general
 	 * photon adding function, but this will make refactoring easier in
 	 * Exercise 9.
-	 * 
-	 * As all Photons are predeclared, this involves moving the head and the tail, 
-	 * and reseting the values of the object in place.  This is a simple implementation
-	 * of a memory pool. It works because we delete objects in the same order that
-	 * we allocate them.
 	 *
 	 * @param position  The velocity of the ship firing the photon
 	 * @param velocity  The position of the ship firing the photon
@@ -221,69 +240,194 @@ public class PhotonQueue {
 		// Determine direction and velocity of the photon.
 		float fire_x = velocity.x + (float)Math.cos(Math.toRadians(angle))  * PHOTON_VELOCITY;
 		float fire_y = velocity.y + (float)-Math.sin(Math.toRadians(angle)) * PHOTON_VELOCITY;         
-		
-		// Check if any room in queue.  
-		// If maximum is reached, remove the oldest photon.
-        if (size == MAX_PHOTONS) {
-        	head = ((head + 1) % MAX_PHOTONS);
-        	size--;
-        }
-
-        // Add a new photon at the end.
-        // Already declared, so just initialize.
-        tail = ((tail + 1) % MAX_PHOTONS);
-        queue[tail].allocate(position.x,position.y,fire_x,fire_y, type);
-        size++;
+		addPhoton(position.x, position.y, fire_x, fire_y, type);
+	}
+
+	/**
+	 * Adds a photon with the given position and velocity to the active queue.
+	 *
+	 * A new photon starts with age 0.  If the queue is full, it grows.
+	 *
+	 * @param px	The x-coordinate of the position
+	 * @param py	The y-coordinate of the position
+	 * @param pvx	The x-coordinate of the velocity
+	 * @param pvy	The y-coordinate of the velocity
+	 * @param ptype	The type of ship firing
+	 */
+	public void addPhoton(float px, float py, float pvx, float pvy, FruitType ptype) {
+		if (size == x.length) {
+			resize(2*size);
+		}
+		x[size]  = px;  y[size]  = py;
+		vx[size] = pvx; vy[size] = pvy;
+		age[size] = 0;
+		damage[size] = 1;
+		sizes[size] = 1;
+		type[size] = ptype;
+		maxSize = Math.max(maxSize, sizes[size]);
+		size++;
+		indexed = false;
+	}
+
+	/**
+	 * Removes all photons from the queue
+	 */
+	public void clear() {
+		size = 0;
+		maxSize = 0;
+		indexed = false;
 	}
 	
 	/**
-	 * Moves all the photons in the active queu.
+	 * Moves all the photons in the active queue.
 	 *  
-	 * Each photon is advanced according to its velocity. Photons out of bounds are 
-	 * rebounded into view. Photons which are too old are deleted.
+	 * Each photon is advanced according to its velocity. Photons which are too old,
+	 * or which have already hit something, are deleted.
+	 *
+	 * @param bounds	The game bounds (unused; photons may leave the arena)
 	 */
 	public void move(Rectangle bounds) {
-		// First, delete all old photons.  
-        // INVARIANT: Photons are in queue in decending age order.
-        // That means we just remove the head until the photons are young enough.
-        while (size > 0 && queue[head].age > MAX_AGE) {
-        	// As photons are predeclared, all we have to do is move head forward.
-            head = ((head + 1) % MAX_PHOTONS);
-            size--;
-        }
-
-        // Now, step through each active photon in the queue.
-        for (int ii = 0; ii < size; ii++) {
-        	// Find the position of this photon.
-            int idx = ((head+ii) % MAX_PHOTONS);
-
-            // Move the photon according to velocity.
-            queue[idx].move(bounds);
-        }
+		// First, delete the dead photons, sliding the rest down to keep them in order.
+		int live = 0;
+		for (int ii = 0; ii < size; ii++) {
+			if (age[ii] <= MAX_AGE && damage[ii] > 0) {
+				if (live != ii) {
+					x[live]  = x[ii];  y[live]  = y[ii];
+					vx[live] = vx[ii]; vy[live] = vy[ii];
+					age[live] = age[ii];
+					damage[live] = damage[ii];
+					sizes[live] = sizes[ii];
+					type[live] = type[ii];
+				}
+				live++;
+			}
+		}
+		for (int ii = live; ii < size; ii++) {
+			type[ii] = null;
+		}
+		size = live;
+
+		// Now, move every photon.  No branches, so that the JIT can vectorize.
+		final float[] px = x, py = y, pvx = vx, pvy = vy;
+		final int[] page = age;
+		for (int ii = 0; ii < live; ii++) {
+			px[ii] += pvx[ii];
+			py[ii] += pvy[ii];
+			page[ii]++;
+		}
+		indexed = false;
+	}
+
+	/**
+	 * Finds all photons whose center is within the given radius of a point.
+	 *
+	 * The photons are reported in queue order (oldest first).  Access them with
+	 * {@link #getFound}.  The indices are valid until the queue changes.
+	 *
+	 * @param px		The x-coordinate of the point
+	 * @param py		The y-coordinate of the point
+	 * @param radius	The search radius
+	 *
+	 * @return the number of photons found
+	 */
+	public int findPhotons(float px, float py, float radius) {
+		if (!indexed) {
+			buildIndex();
+		}
+		// Photons that were hit have moved since the grid was built
+		int candidates = grid.query(px, py, radius + drift);
+		float radius2 = radius * radius;
+		foundCount = 0;
+		for (int ii = 0; ii < candidates; ii++) {
+			int photon = grid.getFound(ii);
+			float dx = x[photon] - px;
+			float dy = y[photon] - py;
+			if (dx * dx + dy * dy <= radius2) {
+				found[foundCount++] = photon;
+			}
+		}
+		// The grid reports them in the order they were added, which is queue order
+		return foundCount;
+	}
+
+	/**
+	 * Returns the given photon found by the last radius query
+	 *
+	 * @param index	The result index (less than the value of {@link #findPhotons})
+	 *
+	 * @return the index of the photon in the queue
+	 */
+	public int getFound(int index) {
+		return found[index];
 	}
 
 	/**
 	 * Process all photon collisions against the given ship
 	 *
-	 * @param fruit 				The ship to check collisions against
+	 * @param characterModel 		The ship to check collisions against
 	 * @param physicsController	The collision controller instance
 	 */
 	public void shipPhotonCollisions(CharacterModel characterModel, CollisionController physicsController) {
-		for (int i = 0; i < size; i++) {
-			// Find the position of this photon.
-			int idx = ((head+i) % MAX_PHOTONS);
-			//TODO
-
-
+		// Every photon that can touch the character, plus slack as the character is pushed around
+		float slack = PHOTON_SIZE;
+		float reach = (characterModel.getDiameter() + getScale(0) * maxSize * PHOTON_SIZE) / 2 + slack;
+		float cx = characterModel.getX();
+		float cy = characterModel.getY();
+		int count = findPhotons(cx, cy, reach);
+		for (int ii = 0; ii < count; ii++) {
+			int photon = found[ii];
 			// Ensure photons don't collide with their original ship
-			//if((queue[idx].type == Ship.TYPE_PLAYER && fruit.getType() != Ship.TYPE_PLAYER) ||
-					//(queue[idx].type != Ship.TYPE_PLAYER && fruit.getType() == Ship.TYPE_PLAYER)) {
+			//if((type[ii] == Ship.TYPE_PLAYER && fruit.getType() != Ship.TYPE_PLAYER) ||
+					//(type[ii] != Ship.TYPE_PLAYER && fruit.getType() == Ship.TYPE_PLAYER)) {
 				// Compute collision
-				physicsController.checkForCollision(characterModel, queue[idx]);
+				physicsController.checkForCollision(characterModel, this, photon);
 			//}
+
+			// Once the hits have pushed the character past the slack, the photons
+			// it can touch are no longer all found.  Search again around it, and
+			// carry on after this photon so the queue order is kept.
+			float dx = characterModel.getX() - cx;
+			float dy = characterModel.getY() - cy;
+			if (dx * dx + dy * dy > slack * slack) {
+				cx = characterModel.getX();
+				cy = characterModel.getY();
+				count = findPhotons(cx, cy, reach);
+				int next = 0;
+				while (next < count && found[next] <= photon) {
+					next++;
+				}
+				ii = next - 1;
+			}
 		}
 	}
 
+	/**
+	 * Handles a hit on the given photon by a character
+	 *
+	 * The photon is pushed back by the given amount and bounces straight
+	 * back.  It gives up its damage, so it is deleted on the next move.
+	 *
+	 * The photon stays where it was in the grid.  Instead, queries search
+	 * past their radius by the furthest any photon has been pushed.
+	 *
+	 * @param index	The photon index
+	 * @param dx	The x-coordinate of the push
+	 * @param dy	The y-coordinate of the push
+	 *
+	 * @return the damage the photon dealt
+	 */
+	public int hit(int index, float dx, float dy) {
+		x[index] += dx;
+		y[index] += dy;
+		vx[index] = -vx[index];
+		vy[index] = -vy[index];
+		int result = damage[index];
+		damage[index] = 0;
+		pushed[index] += (float)Math.sqrt(dx * dx + dy * dy);
+		drift = Math.max(drift, pushed[index]);
+		return result;
+	}
+
 	/**
 	 * Draws the photons to the drawing canvas.
 	 *
@@ -296,38 +440,123 @@ public class PhotonQueue {
 		if (texture == null) {
 			return;
 		}
-		
-		// Get photon texture origin
-		float ox = texture.getWidth()/2.0f;
-		float oy = texture.getHeight()/2.0f;
-		
+
 		// Step through each active photon in the queue.
-        for (int ii = 0; ii < size; ii++) {
-        	// Find the position of this photon.
-            int idx = ((head + ii) % MAX_PHOTONS);
-
-            // How big to make the photon.  Decreases with age.
-            float scale = 1.25f - (float)queue[idx].age * 0.5f / (float)MAX_AGE;
-			scale *= queue[idx].size;
-
-			// Compute tint
-			float ageRatio = 1 - (float)queue[idx].age / MAX_AGE;
-			Color tint = Color.WHITE;
-			/*
-			if(queue[idx].type == Ship.TYPE_PLAYER)
-				tint = new Color(ageRatio, ageRatio, ageRatio * 0.25f, ageRatio);
-			else if(queue[idx].type == Ship.TYPE_RED)
-				tint = new Color(ageRatio, ageRatio * 0.7f, ageRatio * 0.7f, ageRatio);
-			else if(queue[idx].type == Ship.TYPE_GREEN)
-				tint = new Color(ageRatio * 0.7f, ageRatio, ageRatio * 0.7f, ageRatio);
-			else
-				tint = new Color(ageRatio * 0.7f, ageRatio * 0.7f, ageRatio, ageRatio);
-
-			 */
-
-			// Use this information to draw.
-			if(queue[idx].damage > 0)
-            	canvas.draw(texture,tint,ox,oy,queue[idx].x,queue[idx].y,0,scale,scale);
-        }
+		for (int ii = 0; ii < size; ii++) {
+			if (damage[ii] > 0) {
+				drawPhoton(canvas, x[ii], y[ii], age[ii], sizes[ii]);
+			}
+		}
+	}
+
+	/**
+	 * Copies the visible photons into the given snapshot
+	 *
+	 * @param snapshot	The snapshot to fill in
+	 */
+	void capture(RenderSnapshot snapshot) {
+		snapshot.reservePhotons(size);
+		int count = 0;
+		for (int ii = 0; ii < size; ii++) {
+			if (damage[ii] > 0) {
+				snapshot.photonX[count] = x[ii];
+				snapshot.photonY[count] = y[ii];
+				snapshot.photonVX[count] = vx[ii];
+				snapshot.photonVY[count] = vy[ii];
+				snapshot.photonAge[count] = age[ii];
+				snapshot.photonSize[count] = sizes[ii];
+				count++;
+			}
+		}
+		snapshot.photonCount = count;
+	}
+
+	/**
+	 * Draws the photons of the given snapshot to the drawing canvas.
+	 *
+	 * Photons move in straight lines, so instead of matching them up with
+	 * the previous snapshot, we step them back along their velocity.
+	 *
+	 * @param canvas 	The drawing canvas.
+	 * @param snapshot	The snapshot to draw
+	 * @param alpha		The fraction of the tick since the previous snapshot
+	 */
+	public void draw(GameCanvas canvas, RenderSnapshot snapshot, float alpha) {
+		if (texture == null) {
+			return;
+		}
+		float back = 1 - alpha;
+		for (int ii = 0; ii < snapshot.photonCount; ii++) {
+			drawPhoton(canvas, snapshot.photonX[ii] - snapshot.photonVX[ii] * back,
+					   snapshot.photonY[ii] - snapshot.photonVY[ii] * back,
+					   snapshot.photonAge[ii], snapshot.photonSize[ii]);
+		}
+	}
+
+	/**
+	 * Draws a single photon to the drawing canvas (if it is on screen).
+	 *
+	 * @param canvas 	The drawing canvas.
+	 * @param x			The x-coordinate of the photon
+	 * @param y			The y-coordinate of the photon
+	 * @param age		The age of the photon
+	 * @param size		The relative size of the photon
+	 */
+	private void drawPhoton(GameCanvas canvas, float x, float y, int age, float size) {
+		// Get photon texture origin
+		float ox = texture.getRegionWidth()/2.0f;
+		float oy = texture.getRegionHeight()/2.0f;
+
+		// How big to make the photon.  Decreases with age.
+		float scale = getScale(age) * size;
+
+		// Skip photons that have left the screen
+		if (!canvas.isVisible(x - ox * scale, y - oy * scale, x + ox * scale, y + oy * scale)) {
+			return;
+		}
+		canvas.draw(texture,Color.WHITE,ox,oy,x,y,0,scale,scale);
+	}
+
+	/**
+	 * Returns the scale of a photon of the given age
+	 *
+	 * @param age	The age of the photon
+	 *
+	 * @return the scale of a photon of the given age
+	 */
+	private static float getScale(int age) {
+		return 1.25f - (float)age * 0.5f / (float)MAX_AGE;
+	}
+
+	/**
+	 * Grows the queue to the given capacity
+	 *
+	 * @param capacity	The new capacity
+	 */
+	private void resize(int capacity) {
+		x  = Arrays.copyOf(x, capacity);
+		y  = Arrays.copyOf(y, capacity);
+		vx = Arrays.copyOf(vx, capacity);
+		vy = Arrays.copyOf(vy, capacity);
+		age = Arrays.copyOf(age, capacity);
+		damage = Arrays.copyOf(damage, capacity);
+		sizes = Arrays.copyOf(sizes, capacity);
+		type = Arrays.copyOf(type, capacity);
+		found = new int[capacity];
+		pushed = Arrays.copyOf(pushed, capacity);
+	}
+
+	/**
+	 * Puts the current photon positions into the grid
+	 */
+	private void buildIndex() {
+		grid.clear();
+		for (int ii = 0; ii < size; ii++) {
+			grid.add(x[ii], y[ii]);
+		}
+		grid.build();
+		Arrays.fill(pushed, 0, size, 0);
+		indexed = true;
+		drift = 0;
 	}
-}
\ No newline at end of file
+}
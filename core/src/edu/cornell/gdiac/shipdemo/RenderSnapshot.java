@@ -0,0 +1,287 @@
+/*
+ * RenderSnapshot.java
+ *
+ * This class is a copy of everything GameMode.draw needs from a single tick of
+ * the game: positions, angles, health, and the state of the orders interface.
+ * When the game is simulated on its own thread (see SimulationThread), the
+ * drawing code cannot read the models while they are being updated.  Instead,
+ * the simulation captures a snapshot after every tick and the renderer draws
+ * from the two most recent ones, interpolating between them.
+ *
+ * The snapshot is flattened into arrays so that capturing one never allocates
+ * (once the arrays are large enough for the population).  Snapshots are reused
+ * in a ring; nothing should keep a reference to one after it is released.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+import java.util.Arrays;
+
+/**
+ * A flattened copy of the drawable state of a game tick.
+ *
+ * The fields are package-private; only the models fill them in (capture) and
+ * only GameMode reads them (draw).
+ */
+public class RenderSnapshot {
+	/** Default number of ships to reserve space for */
+	private static final int DEFAULT_CAPACITY = 64;
+	/** Default number of photons to reserve space for */
+	private static final int DEFAULT_PHOTONS = 64;
+	/** A ship that moves farther than this in one tick is not interpolated */
+	private static final float MAX_JUMP = 100.0f;
+
+	/** The tick this snapshot was captured after */
+	long tick;
+	/** The time this snapshot was published (in nanoseconds) */
+	long time;
+	/** Whether the game is over */
+	boolean gameOver;
+	/** How many times the player has toggled the performance overlay */
+	int statsToggles;
+
+	// PLAYER
+	/** The player position */
+	float playerX, playerY;
+	/** The player angle (in degrees) */
+	float playerAngle;
+	/** The player health */
+	int playerHP;
+	/** The skewer position */
+	float skewerX, skewerY;
+	/** The punching glove position */
+	float punchX, punchY;
+	/** The skewer angle (in degrees) */
+	float skewerAngle;
+
+	// SHIPS
+	/** The number of ships */
+	int fruitCount;
+	/** The handle of each ship */
+	int[] fruitId;
+	/** The type of each ship */
+	FruitType[] fruitType;
+	/** The position of each ship */
+	float[] fruitX, fruitY;
+	/** The angle of each ship (in degrees) */
+	float[] fruitAngle;
+	/** The size of each ship */
+	float[] fruitSize;
+	/** The health of each ship */
+	int[] fruitHP;
+	/** The boost cooldown of each ship */
+	int[] fruitBoost;
+	/** Whether each ship is spiked */
+	boolean[] fruitSpiked;
+	/** The index of each ship handle in the arrays above (-1 if absent) */
+	private int[] fruitIndex;
+
+	// PHOTONS
+	/** The number of (visible) photons */
+	int photonCount;
+	/** The position of each photon */
+	float[] photonX, photonY;
+	/** The velocity of each photon */
+	float[] photonVX, photonVY;
+	/** The age of each photon */
+	int[] photonAge;
+	/** The size of each photon */
+	float[] photonSize;
+
+	// ORDERS
+	/** The selected skewer */
+	int currentSkewer;
+	/** The number of completed orders */
+	int completed;
+	/** The number of skewers */
+	int skewerCount;
+	/** The ingredients on each skewer */
+	FruitType[][] skewerItems;
+	/** The number of ingredients on each skewer */
+	int[] skewerSize;
+	/** The number of open orders */
+	int orderCount;
+	/** The ingredients of each order */
+	FruitType[][] orderItems;
+	/** The progress counter of each order */
+	float[] orderProgress;
+
+	/**
+	 * Creates a new, empty snapshot
+	 */
+	public RenderSnapshot() {
+		fruitId = new int[DEFAULT_CAPACITY];
+		fruitType = new FruitType[DEFAULT_CAPACITY];
+		fruitX = new float[DEFAULT_CAPACITY];
+		fruitY = new float[DEFAULT_CAPACITY];
+		fruitAngle = new float[DEFAULT_CAPACITY];
+		fruitSize = new float[DEFAULT_CAPACITY];
+		fruitHP = new int[DEFAULT_CAPACITY];
+		fruitBoost = new int[DEFAULT_CAPACITY];
+		fruitSpiked = new boolean[DEFAULT_CAPACITY];
+		fruitIndex = new int[DEFAULT_CAPACITY];
+		Arrays.fill(fruitIndex, -1);
+
+		photonX = new float[DEFAULT_PHOTONS];
+		photonY = new float[DEFAULT_PHOTONS];
+		photonVX = new float[DEFAULT_PHOTONS];
+		photonVY = new float[DEFAULT_PHOTONS];
+		photonAge = new int[DEFAULT_PHOTONS];
+		photonSize = new float[DEFAULT_PHOTONS];
+
+		skewerItems = new FruitType[0][];
+		skewerSize = new int[0];
+		orderItems = new FruitType[0][];
+		orderProgress = new float[0];
+	}
+
+	/**
+	 * Returns the tick this snapshot was captured after
+	 *
+	 * @return the tick this snapshot was captured after
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Copies the drawable state of the game into this snapshot
+	 *
+	 * This must be called on the thread that updates the game, in between
+	 * updates.
+	 *
+	 * @param game	The game to capture
+	 * @param tick	The number of ticks simulated so far
+	 */
+	public void capture(GameMode game, long tick) {
+		this.tick = tick;
+		game.capture(this);
+	}
+
+	/**
+	 * Copies the player state into this snapshot
+	 *
+	 * @param monkey	The player
+	 */
+	void capturePlayer(Monkey monkey) {
+		playerX = monkey.getPosition().x;
+		playerY = monkey.getPosition().y;
+		playerAngle = monkey.ang;
+		playerHP = monkey.getHP();
+		skewerX = monkey.skewer.x;
+		skewerY = monkey.skewer.y;
+		punchX = monkey.skewer.xp;
+		punchY = monkey.skewer.yp;
+		skewerAngle = monkey.skewer.getAngle();
+	}
+
+	/**
+	 * Copies the ship states into this snapshot
+	 *
+	 * @param fruits	The ships
+	 */
+	void captureFruits(FruitStore fruits) {
+		for (int ii = 0; ii < fruitCount; ii++) {
+			fruitIndex[fruitId[ii]] = -1;
+		}
+		fruitCount = fruits.size();
+		if (fruitCount > fruitId.length) {
+			int capacity = Math.max(fruitCount, 2*fruitId.length);
+			fruitId = new int[capacity];
+			fruitType = new FruitType[capacity];
+			fruitX = new float[capacity];
+			fruitY = new float[capacity];
+			fruitAngle = new float[capacity];
+			fruitSize = new float[capacity];
+			fruitHP = new int[capacity];
+			fruitBoost = new int[capacity];
+			fruitSpiked = new boolean[capacity];
+		}
+		for (int ii = 0; ii < fruitCount; ii++) {
+			Fruit fruit = fruits.getFruit(ii);
+			int id = fruit.getId();
+			if (id >= fruitIndex.length) {
+				int[] temp = new int[Math.max(id+1, 2*fruitIndex.length)];
+				Arrays.fill(temp, -1);
+				System.arraycopy(fruitIndex, 0, temp, 0, fruitIndex.length);
+				fruitIndex = temp;
+			}
+			fruitIndex[id] = ii;
+			fruitId[ii] = id;
+			fruitType[ii] = fruits.getType(ii);
+			fruitX[ii] = fruits.getX(ii);
+			fruitY[ii] = fruits.getY(ii);
+			fruitAngle[ii] = fruits.getAngle(ii);
+			fruitSize[ii] = fruit.size;
+			fruitHP[ii] = fruits.getHP(ii);
+			fruitBoost[ii] = fruit.boostCooldown;
+			fruitSpiked[ii] = fruit.isSpiked;
+		}
+	}
+
+	/**
+	 * Reserves space for the given number of photons
+	 *
+	 * @param count	The number of photons
+	 */
+	void reservePhotons(int count) {
+		if (count > photonX.length) {
+			int capacity = Math.max(count, 2*photonX.length);
+			photonX = new float[capacity];
+			photonY = new float[capacity];
+			photonVX = new float[capacity];
+			photonVY = new float[capacity];
+			photonAge = new int[capacity];
+			photonSize = new float[capacity];
+		}
+	}
+
+	/**
+	 * Reserves space for the given number of skewers and orders
+	 *
+	 * @param skewers	The number of skewers
+	 * @param orders	The number of orders
+	 * @param items		The number of ingredients per skewer or order
+	 */
+	void reserveOrders(int skewers, int orders, int items) {
+		if (skewers > skewerItems.length) {
+			skewerItems = new FruitType[skewers][items];
+			skewerSize = new int[skewers];
+		}
+		if (orders > orderItems.length) {
+			orderItems = new FruitType[orders][items];
+			orderProgress = new float[orders];
+		}
+	}
+
+	/**
+	 * Returns the index of the ship with the given handle (-1 if absent)
+	 *
+	 * @param id	The ship handle
+	 *
+	 * @return the index of the ship with the given handle (-1 if absent)
+	 */
+	int indexOf(int id) {
+		return id < fruitIndex.length ? fruitIndex[id] : -1;
+	}
+
+	/**
+	 * Returns the index of the same ship in the previous snapshot (-1 if absent)
+	 *
+	 * A ship handle is recycled when a ship dies, so a ship that seems to have
+	 * jumped is treated as a new ship.
+	 *
+	 * @param prev	The previous snapshot
+	 * @param index	The index of the ship in this snapshot
+	 *
+	 * @return the index of the same ship in the previous snapshot (-1 if absent)
+	 */
+	int previousIndex(RenderSnapshot prev, int index) {
+		int other = prev.indexOf(fruitId[index]);
+		if (other < 0 || prev.fruitType[other] != fruitType[index] ||
+			Math.abs(prev.fruitX[other]-fruitX[index]) > MAX_JUMP ||
+			Math.abs(prev.fruitY[other]-fruitY[index]) > MAX_JUMP) {
+			return -1;
+		}
+		return other;
+	}
+}
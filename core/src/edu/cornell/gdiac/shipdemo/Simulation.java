@@ -0,0 +1,161 @@
+/*
+ * Simulation.java
+ *
+ * This class runs the game without a window.  There is no GameCanvas, no
+ * textures and no input devices; we just step GameMode over and over at a
+ * fixed time step as fast as the CPU allows.  All randomness comes from a
+ * single seeded generator, so a simulation with the same seed and settings
+ * replays exactly the same game.
+ *
+ * This is useful for two things.  First, it measures how many game ticks we
+ * can compute per second, independent of the graphics card.  Second, it lets
+ * us check that a performance change did not change the game behavior, by
+ * comparing the state after N ticks before and after the change.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+/**
+ * Headless, fixed-timestep driver for GameMode.
+ *
+ * The game logic is frame-counted, so each call to {@link #step} advances the
+ * game by exactly {@link #TIME_STEP} seconds of game time.
+ */
+public class Simulation {
+	/** Game time (in seconds) of a single tick */
+	public static final float TIME_STEP = 1.0f/60.0f;
+	/** Width of the virtual window (matches the desktop launcher) */
+	public static final int DEFAULT_WIDTH = 1280;
+	/** Height of the virtual window (matches the desktop launcher) */
+	public static final int DEFAULT_HEIGHT = 800;
+
+	/** The game being simulated */
+	private GameMode game;
+	/** The seed for the game */
+	private long seed;
+	/** Number of ticks simulated so far */
+	private long ticks;
+
+	/**
+	 * Creates a new simulation with the given seed.
+	 *
+	 * The player is invulnerable, so that the game never ends on its own.
+	 *
+	 * @param seed	The seed for all random number generation
+	 */
+	public Simulation(long seed) {
+		this(seed, GameMode.DEFAULT_MAX_FRUITS);
+	}
+
+	/**
+	 * Creates a new simulation with the given seed and population.
+	 *
+	 * The player is invulnerable, so that the game never ends on its own.
+	 *
+	 * @param seed		The seed for all random number generation
+	 * @param maxFruits	The maximum number of enemy ships alive at once
+	 */
+	public Simulation(long seed, int maxFruits) {
+		this.seed = seed;
+		game = new GameMode(DEFAULT_WIDTH, DEFAULT_HEIGHT, seed);
+		game.setMaxFruits(maxFruits);
+		game.setInvulnerable(true);
+		ticks = 0;
+	}
+
+	/**
+	 * Returns the game being simulated
+	 *
+	 * @return the game being simulated
+	 */
+	public GameMode getGame() {
+		return game;
+	}
+
+	/**
+	 * Returns the seed for the game
+	 *
+	 * @return the seed for the game
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Returns the number of ticks simulated so far
+	 *
+	 * @return the number of ticks simulated so far
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Returns the amount of game time simulated so far (in seconds)
+	 *
+	 * @return the amount of game time simulated so far (in seconds)
+	 */
+	public double getTime() {
+		return ticks * (double)TIME_STEP;
+	}
+
+	/**
+	 * Advances the game by a single tick
+	 */
+	public void step() {
+		game.update();
+		ticks++;
+	}
+
+	/**
+	 * Advances the game by the given number of ticks
+	 *
+	 * @param count	The number of ticks to simulate
+	 */
+	public void step(int count) {
+		for (int ii = 0; ii < count; ii++) {
+			step();
+		}
+	}
+
+	/**
+	 * Advances the game until the given number of enemy ships are alive
+	 *
+	 * At most one ship spawns per tick, so this takes at least that many ticks.
+	 * This method gives up after maxTicks ticks.
+	 *
+	 * @param count		The number of enemy ships to wait for
+	 * @param maxTicks	The maximum number of ticks to simulate
+	 *
+	 * @return true if the population was reached
+	 */
+	public boolean populate(int count, int maxTicks) {
+		for (int ii = 0; ii < maxTicks && game.getFruits().size() < count; ii++) {
+			step();
+		}
+		return game.getFruits().size() >= count;
+	}
+
+	/**
+	 * Returns a hash of the current game state
+	 *
+	 * Two simulations with the same seed and settings should have the same hash
+	 * after the same number of ticks.  If a change to the game loop alters this
+	 * hash, it altered the game behavior.
+	 *
+	 * @return a hash of the current game state
+	 */
+	public long stateHash() {
+		long hash = 17;
+		hash = 31*hash + Float.floatToIntBits(game.playerMonkey.getPosition().x);
+		hash = 31*hash + Float.floatToIntBits(game.playerMonkey.getPosition().y);
+		hash = 31*hash + game.playerMonkey.getHP();
+		FruitStore fruits = game.getFruits();
+		for (int ii = 0; ii < fruits.size(); ii++) {
+			hash = 31*hash + fruits.getFruit(ii).getId();
+			hash = 31*hash + Float.floatToIntBits(fruits.getX(ii));
+			hash = 31*hash + Float.floatToIntBits(fruits.getY(ii));
+			hash = 31*hash + fruits.getHP(ii);
+		}
+		return hash;
+	}
+}
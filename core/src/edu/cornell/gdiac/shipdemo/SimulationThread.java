@@ -0,0 +1,211 @@
+/*
+ * SimulationThread.java
+ *
+ * This class updates a game on its own thread, so that a slow tick does not
+ * drop a rendered frame (and a slow frame does not slow down the game).  The
+ * game is stepped at a fixed rate.  After every tick the thread captures a
+ * RenderSnapshot and publishes it; the render thread picks up the newest one
+ * and draws it interpolated against the one before.
+ *
+ * There are four snapshots in rotation.  The simulation fills in one of them
+ * ("back") and then swaps it with the published one ("latest").  The render
+ * thread swaps the latest one in as its "next", and its old "next" becomes its
+ * "prev".  The swaps only exchange references under a lock, so the two threads
+ * never touch the same snapshot at the same time and nothing is copied twice.
+ *
+ * Note that input is polled by the game on the simulation thread.  Held keys
+ * work as usual, but a key tap shorter than a tick may be missed.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Fixed-rate driver for a GameMode on a separate thread.
+ */
+public class SimulationThread implements Runnable {
+	/** Length of a single tick (in nanoseconds) */
+	public static final long TICK_NANOS = (long)(Simulation.TIME_STEP * 1e9);
+	/** If the simulation falls this many ticks behind, it stops catching up */
+	private static final int MAX_BEHIND = 5;
+
+	/** The game being simulated */
+	private GameMode game;
+	/** The thread running the simulation */
+	private Thread thread;
+	/** Whether the simulation should keep running */
+	private volatile boolean running;
+	/** The number of ticks simulated so far */
+	private long ticks;
+	/** The CPU time of the last tick (in nanoseconds) */
+	private volatile long tickTime;
+
+	/** The snapshot being filled in by the simulation */
+	private RenderSnapshot back;
+	/** The most recently published snapshot (guarded by this) */
+	private RenderSnapshot latest;
+	/** Whether latest is newer than next (guarded by this) */
+	private boolean fresh;
+	/** The newest snapshot held by the renderer */
+	private RenderSnapshot next;
+	/** The snapshot before next, held by the renderer */
+	private RenderSnapshot prev;
+
+	/**
+	 * Creates a new (stopped) simulation thread for the given game
+	 *
+	 * The game should not be updated by anyone else while the thread runs.
+	 *
+	 * @param game	The game to simulate
+	 */
+	public SimulationThread(GameMode game) {
+		this.game = game;
+		back = new RenderSnapshot();
+		latest = new RenderSnapshot();
+		next = new RenderSnapshot();
+		prev = new RenderSnapshot();
+
+		// Start the renderer on the initial state, so that it never draws garbage
+		next.capture(game, 0);
+		prev.capture(game, 0);
+	}
+
+	/**
+	 * Starts simulating the game
+	 */
+	public void start() {
+		if (thread != null) {
+			return;
+		}
+		running = true;
+		thread = new Thread(this, "Simulation");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops simulating the game, waiting for the current tick to finish
+	 *
+	 * After this returns the game may be used (or disposed) by the caller.
+	 */
+	public void stop() {
+		if (thread == null) {
+			return;
+		}
+		running = false;
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		thread = null;
+	}
+
+	/**
+	 * Returns the CPU time of the last tick (in nanoseconds)
+	 *
+	 * @return the CPU time of the last tick (in nanoseconds)
+	 */
+	public long getTickTime() {
+		return tickTime;
+	}
+
+	/**
+	 * Steps the game at a fixed rate until stopped
+	 */
+	public void run() {
+		long deadline = TimeUtils.nanoTime();
+		while (running) {
+			long start = TimeUtils.nanoTime();
+			try {
+				game.update();
+			} catch (RuntimeException e) {
+				Gdx.app.error("SimulationThread", "Game update failed", e);
+				running = false;
+				return;
+			}
+			ticks++;
+			back.capture(game, ticks);
+			publish();
+			tickTime = TimeUtils.nanoTime() - start;
+
+			// Sleep until the next tick is due; after a long stall, do not try to catch up
+			deadline += TICK_NANOS;
+			long wait = deadline - TimeUtils.nanoTime();
+			if (wait < -MAX_BEHIND * TICK_NANOS) {
+				deadline = TimeUtils.nanoTime();
+			} else if (wait > 0) {
+				try {
+					Thread.sleep(wait / 1000000, (int)(wait % 1000000));
+				} catch (InterruptedException e) {
+					running = false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Publishes the back snapshot as the latest one
+	 */
+	private synchronized void publish() {
+		back.time = TimeUtils.nanoTime();
+		RenderSnapshot temp = latest;
+		latest = back;
+		back = temp;
+		fresh = true;
+	}
+
+	/**
+	 * Picks up the latest snapshot for drawing, if there is a new one
+	 *
+	 * This should be called by the render thread once per frame, before it
+	 * uses {@link #getPrevious} and {@link #getNext}.
+	 *
+	 * @return true if there was a new snapshot
+	 */
+	public synchronized boolean acquire() {
+		if (!fresh) {
+			return false;
+		}
+		RenderSnapshot temp = prev;
+		prev = next;
+		next = latest;
+		latest = temp;
+		fresh = false;
+		return true;
+	}
+
+	/**
+	 * Returns the snapshot before the newest one held by the renderer
+	 *
+	 * @return the snapshot before the newest one held by the renderer
+	 */
+	public RenderSnapshot getPrevious() {
+		return prev;
+	}
+
+	/**
+	 * Returns the newest snapshot held by the renderer
+	 *
+	 * @return the newest snapshot held by the renderer
+	 */
+	public RenderSnapshot getNext() {
+		return next;
+	}
+
+	/**
+	 * Returns how far the renderer is between the previous and next snapshot
+	 *
+	 * The renderer draws one tick behind the simulation, so that it always
+	 * has two snapshots to interpolate between.
+	 *
+	 * @param now	The current time (in nanoseconds)
+	 *
+	 * @return how far the renderer is between the previous and next snapshot (0 to 1)
+	 */
+	public float getAlpha(long now) {
+		float alpha = (float)(now - next.time) / TICK_NANOS;
+		return Math.max(0, Math.min(1, alpha));
+	}
+}
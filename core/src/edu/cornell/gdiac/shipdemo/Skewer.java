@@ -2,6 +2,7 @@ package edu.cornell.gdiac.shipdemo;
 
 import com.badlogic.gdx.math.*;
 import com.badlogic.gdx.graphics.*;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.Queue;
 
 /**
@@ -23,17 +24,21 @@ public class Skewer {
     public static final int MAX_AGE = 20;
 
     /** Graphic asset representing a single skewer. */
-    private static Texture texture;
-    private Texture appleTexture;
+    private static TextureRegion texture;
+    private TextureRegion appleTexture;
     //    private Texture watermelonTexture;
 //    private Texture pineappleTexture;
-    private Texture strawberryTexture;
-    private Texture orangeTexture;
-    private Texture emptyTexture;
+    private TextureRegion strawberryTexture;
+    private TextureRegion orangeTexture;
+    private TextureRegion emptyTexture;
 
 
     /** Graphic asset representing a single skewer. */
-    private static Texture punchTexture;
+    private static TextureRegion punchTexture;
+    /** Distance from the skewer position to its tip (cached from the skewer texture) */
+    private static float tipDistance;
+    /** Distance from the punch position to the glove (cached from the punch texture) */
+    private static float punchDistance;
 
 
     public int damage;
@@ -54,7 +59,27 @@ public class Skewer {
     /** Relative size of this skewer*/
     public float size;
     private float ang;
-
+    /** Cached cosine of the skewer direction (updated with the orientation) */
+    private double dirX;
+    /** Cached sine of the skewer direction (updated with the orientation) */
+    private double dirY;
+    /** X-coordinate of the skewer tip at the start of the tick */
+    private float lastTipX;
+    /** Y-coordinate of the skewer tip at the start of the tick */
+    private float lastTipY;
+    /** X-coordinate of the punching glove at the start of the tick */
+    private float lastPunchX;
+    /** Y-coordinate of the punching glove at the start of the tick */
+    private float lastPunchY;
+
+    /** Cache object returned by the vector getters */
+    private Vector2 position;
+    /** Cache object returned by the vector getters */
+    private Vector2 tip;
+    /** Cache object returned by the vector getters */
+    private Vector2 punch;
+    /** Cache object returned by the vector getters */
+    private Vector2 velocity;
     /* Fruit queue*/
     private Queue<FruitType> skewers;
     private int numSkewers;
@@ -67,18 +92,21 @@ public class Skewer {
         this.vx = 0.0f; this.vy = 0.0f;
         this.age = 0;
         this.damage = 0;
+        this.position = new Vector2();
+        this.tip = new Vector2();
+        this.punch = new Vector2();
+        this.velocity = new Vector2();
+        setOrientation(0);
+        savePrevious();
     }
     public Skewer(int num_skewers){
-        this.x  = 0.0f; this.y  = 0.0f;
-        this.vx = 0.0f; this.vy = 0.0f;
-        this.age = 0;
-        this.damage = 0;
+        this();
         this.numSkewers = num_skewers;
         this.skewers=new Queue<>();
 
     }
 
-    private Texture getEnemy(FruitType i) {
+    private TextureRegion getEnemy(FruitType i) {
 
         switch (i) {
             case EMPTY:
@@ -93,7 +121,7 @@ public class Skewer {
         return appleTexture;
 
     }
-    public void setEnemyTexture(Texture strawberryTexture, Texture appleTexture, Texture orangeTexture, Texture emptyTexture){
+    public void setEnemyTexture(TextureRegion strawberryTexture, TextureRegion appleTexture, TextureRegion orangeTexture, TextureRegion emptyTexture){
         this.strawberryTexture = strawberryTexture;
         this.appleTexture = appleTexture;
         this.orangeTexture = orangeTexture;
@@ -141,24 +169,139 @@ public class Skewer {
         return SKEWER_SIZE * size;
     }
 
+    /**
+     * Returns the position of this skewer.
+     *
+     * The vector is a cache object shared by every call, so copy it if you need
+     * to keep it.  Changing it does not move the skewer.
+     *
+     * @return the position of this skewer.
+     */
     public Vector2 getPosition() {
-        return new Vector2(x, y);
+        return position.set(x, y);
     }
 
+    /**
+     * Returns the position of the skewer tip.
+     *
+     * The vector is a cache object shared by every call, so copy it if you need
+     * to keep it.  Changing it does not move the skewer.
+     *
+     * @return the position of the skewer tip.
+     */
     public Vector2 getTipPosition() {
-        float xoffset = (float) (Math.cos(Math.toRadians(ang-90)) * texture.getHeight());
-        float yoffset = (float) (Math.sin(Math.toRadians(ang-90)) * texture.getHeight());
-        return new Vector2(x-xoffset, y-yoffset);
+        return tip.set(getTipX(), getTipY());
+    }
+
+    /**
+     * Returns the x-coordinate of the skewer tip.
+     *
+     * @return the x-coordinate of the skewer tip.
+     */
+    public float getTipX() {
+        return x - (float) (dirX * tipDistance);
     }
 
+    /**
+     * Returns the y-coordinate of the skewer tip.
+     *
+     * @return the y-coordinate of the skewer tip.
+     */
+    public float getTipY() {
+        return y - (float) (dirY * tipDistance);
+    }
+
+    /**
+     * Returns the position of the punching glove.
+     *
+     * The vector is a cache object shared by every call, so copy it if you need
+     * to keep it.  Changing it does not move the glove.
+     *
+     * @return the position of the punching glove.
+     */
     public Vector2 getPunchPosition() {
-        float xoffset = (float) (Math.cos(Math.toRadians(ang-90)) * punchTexture.getHeight()/3);
-        float yoffset = (float) (Math.sin(Math.toRadians(ang-90)) * punchTexture.getHeight()/3);
-        return new Vector2(xp-xoffset, yp-yoffset);
+        return punch.set(getPunchX(), getPunchY());
     }
 
+    /**
+     * Returns the x-coordinate of the punching glove.
+     *
+     * @return the x-coordinate of the punching glove.
+     */
+    public float getPunchX() {
+        return xp - (float) (dirX * punchDistance);
+    }
+
+    /**
+     * Returns the y-coordinate of the punching glove.
+     *
+     * @return the y-coordinate of the punching glove.
+     */
+    public float getPunchY() {
+        return yp - (float) (dirY * punchDistance);
+    }
+
+    /**
+     * Remembers where the tip and glove are, before they move this tick.
+     *
+     * The skewer can move a long way in a single tick, so collisions are
+     * tested along the path from these positions to the new ones (see
+     * CollisionController).  This should be called before the skewer is
+     * moved each tick.
+     */
+    public void savePrevious() {
+        lastTipX = getTipX();
+        lastTipY = getTipY();
+        lastPunchX = getPunchX();
+        lastPunchY = getPunchY();
+    }
+
+    /**
+     * Returns the x-coordinate of the skewer tip at the start of the tick.
+     *
+     * @return the x-coordinate of the skewer tip at the start of the tick.
+     */
+    public float getLastTipX() {
+        return lastTipX;
+    }
+
+    /**
+     * Returns the y-coordinate of the skewer tip at the start of the tick.
+     *
+     * @return the y-coordinate of the skewer tip at the start of the tick.
+     */
+    public float getLastTipY() {
+        return lastTipY;
+    }
+
+    /**
+     * Returns the x-coordinate of the punching glove at the start of the tick.
+     *
+     * @return the x-coordinate of the punching glove at the start of the tick.
+     */
+    public float getLastPunchX() {
+        return lastPunchX;
+    }
+
+    /**
+     * Returns the y-coordinate of the punching glove at the start of the tick.
+     *
+     * @return the y-coordinate of the punching glove at the start of the tick.
+     */
+    public float getLastPunchY() {
+        return lastPunchY;
+    }
+
+    /**
+     * Returns the velocity of this skewer.
+     *
+     * The vector is a cache object shared by every call, so copy it if you need
+     * to keep it.  Use {@link #setVelocity} to change the velocity.
+     *
+     * @return the velocity of this skewer.
+     */
     public Vector2 getVelocity() {
-        return new Vector2(vx, vy);
+        return velocity.set(vx, vy);
     }
 
     public float getMass() {
@@ -188,7 +331,7 @@ public class Skewer {
      *
      * @return the image for a single skewer; reused by all skewers.
      */
-    public Texture getTexture() {
+    public TextureRegion getTexture() {
         return texture;
     }
 
@@ -200,8 +343,9 @@ public class Skewer {
      *
      * @param value the image for a single skewer; reused by all skewers.
      */
-    public void setTexture(Texture value) {
+    public void setTexture(TextureRegion value) {
         texture = value;
+        tipDistance = value == null ? 0 : value.getRegionHeight();
     }
 
     /**
@@ -212,8 +356,9 @@ public class Skewer {
      *
      * @param value the image for a single skewer; reused by all skewers.
      */
-    public void setPunchTexture(Texture value) {
+    public void setPunchTexture(TextureRegion value) {
         punchTexture = value;
+        punchDistance = value == null ? 0 : value.getRegionHeight()/3.0f;
     }
 
 
@@ -266,8 +411,8 @@ public class Skewer {
         Queue<FruitType> q= orderController.getSkewer().getQueue();
 
         // Get skewer texture origin
-        float ox = texture.getWidth()/2.0f;
-        float oy = texture.getHeight()/2.0f;
+        float ox = texture.getRegionWidth()/2.0f;
+        float oy = texture.getRegionHeight()/2.0f;
 
         canvas.draw(texture,Color.WHITE,ox,oy,x,y,this.ang,scale,scale);
 
@@ -277,7 +422,7 @@ public class Skewer {
         for (int i=0; i<q.size; i++){
             Color c = Color.WHITE;
             if(orderController.getSkewer().getFruitAt(i)==FruitType.EMPTY) {
-                c = new Color(0, 0, 0, 1);
+                c = Color.BLACK;
             }
             float dist;
             if(i==2){
@@ -288,16 +433,28 @@ public class Skewer {
             else{
                 dist=0;
             }
-            Texture enemy = getEnemy(orderController.getSkewer().getFruitAt(i));
-            canvas.draw(enemy,Color.WHITE,enemy.getWidth()/2f,enemy.getHeight()/2f,
+            TextureRegion enemy = getEnemy(orderController.getSkewer().getFruitAt(i));
+            canvas.draw(enemy,Color.WHITE,enemy.getRegionWidth()/2f,enemy.getRegionHeight()/2f,
                     x + -(float)Math.cos((ang - 90) * Math.PI / 180) * dist,
                     y + -(float)Math.sin((ang - 90) * Math.PI / 180) * dist,
                     ang,scale/3,scale/3);
         }
     }
 
+    /**
+     * Returns the angle of this skewer (in degrees)
+     *
+     * @return the angle of this skewer (in degrees)
+     */
+    public float getAngle() {
+        return ang;
+    }
+
     public void setOrientation(float ang) {
         this.ang = ang;
+        // The tip and glove are offset along this direction; cache it for the collision checks
+        dirX = Math.cos(Math.toRadians(ang-90));
+        dirY = Math.sin(Math.toRadians(ang-90));
     }
 
 
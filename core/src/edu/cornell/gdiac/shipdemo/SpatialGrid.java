@@ -0,0 +1,425 @@
+/*
+ * SpatialGrid.java
+ *
+ * A uniform grid for broadphase collision detection.  Checking every object
+ * against every other object is quadratic, which is fine for a handful of
+ * ships but falls over once there are hundreds of them.  Instead, we bucket
+ * the objects into square cells at least as wide as the largest object.  Two
+ * objects can only overlap if they are in the same cell or in neighboring
+ * cells, so we only have to look at those.
+ *
+ * The grid is rebuilt from scratch every frame with a counting sort.  This is
+ * cheaper than trying to update it incrementally, and it keeps all the objects
+ * in a cell next to each other in memory.  As with CollisionController, all of
+ * the arrays are preallocated and only grow, so there is no heap allocation in
+ * the steady state.
+ *
+ * Besides pairs within the grid, the grid can also answer "what is near this
+ * point" (see query).  This is for testing many objects of one kind (photons)
+ * against a few objects of another (characters) without looking at all of them.
+ * The counting sort is stable, so each cell lists its objects in the order they
+ * were added.  A query merges its cells, so it reports objects in that order too,
+ * and callers that care about order do not have to sort.
+ */
+package edu.cornell.gdiac.shipdemo;
+
+/**
+ * Uniform grid over a rectangular region, producing candidate collision pairs
+ * and candidates near a point.
+ *
+ * Objects are identified by the order in which they were added (starting at 0).
+ * Objects outside of the region are clamped to the border cells, so they are
+ * never missed; they just share a cell with more objects than necessary.
+ */
+public class SpatialGrid {
+	/** Default number of objects to reserve space for */
+	private static final int DEFAULT_CAPACITY = 64;
+
+	/** The x-coordinate of the left edge of the grid region */
+	private float minX;
+	/** The y-coordinate of the bottom edge of the grid region */
+	private float minY;
+	/** The width of the grid region */
+	private float width;
+	/** The height of the grid region */
+	private float height;
+	/** The width (and height) of a single cell */
+	private float cellSize;
+	/** Cached reciprocal of the cell size */
+	private float invCellSize;
+	/** Number of cell columns */
+	private int cols;
+	/** Number of cell rows */
+	private int rows;
+
+	/** Index into sorted of the first object in each cell (length cols*rows+1) */
+	private int[] cellStart;
+	/** Object indices, sorted by cell */
+	private int[] sorted;
+	/** The cell of each object */
+	private int[] objectCell;
+	/** Number of objects added since the last clear */
+	private int size;
+
+	/** Candidate pairs, stored as consecutive (a,b) entries */
+	private int[] pairs;
+	/** Number of candidate pairs found by the last call to findPairs */
+	private int pairCount;
+
+	/** Candidate objects found by the last call to query */
+	private int[] found;
+	/** Number of candidate objects found by the last call to query */
+	private int foundCount;
+	/** The next sorted index of each cell being merged by query */
+	private int[] runNext;
+	/** One past the last sorted index of each cell being merged by query */
+	private int[] runEnd;
+
+	/**
+	 * Creates a new grid covering the given region.
+	 *
+	 * The cell size should be at least the diameter of the largest object that
+	 * will be added to the grid.  Otherwise overlapping objects may be missed.
+	 *
+	 * @param x 		The x-coordinate of the left edge of the region
+	 * @param y 		The y-coordinate of the bottom edge of the region
+	 * @param width 	The width of the region
+	 * @param height 	The height of the region
+	 * @param cellSize	The width (and height) of a single cell
+	 */
+	public SpatialGrid(float x, float y, float width, float height, float cellSize) {
+		this.minX = x;
+		this.minY = y;
+		this.width = width;
+		this.height = height;
+		sorted = new int[DEFAULT_CAPACITY];
+		objectCell = new int[DEFAULT_CAPACITY];
+		pairs = new int[2*DEFAULT_CAPACITY];
+		found = new int[DEFAULT_CAPACITY];
+		// Enough for a query spanning a 3x3 block of cells; query grows them if not
+		runNext = new int[9];
+		runEnd = new int[9];
+		setCellSize(cellSize);
+	}
+
+	/**
+	 * Returns the width (and height) of a single cell
+	 *
+	 * @return the width (and height) of a single cell
+	 */
+	public float getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Sets the width (and height) of a single cell
+	 *
+	 * This resets the grid, so it should be called before any objects are
+	 * added this frame.  The cell arrays are only reallocated if they grow.
+	 *
+	 * @param value the width (and height) of a single cell
+	 */
+	public void setCellSize(float value) {
+		cellSize = value;
+		invCellSize = 1.0f / value;
+		cols = Math.max(1, (int)Math.ceil(width * invCellSize));
+		rows = Math.max(1, (int)Math.ceil(height * invCellSize));
+		if (cellStart == null || cellStart.length < cols * rows + 1) {
+			cellStart = new int[cols * rows + 1];
+		}
+		clear();
+	}
+
+	/**
+	 * Returns the number of objects added since the last clear
+	 *
+	 * @return the number of objects added since the last clear
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all objects from the grid.
+	 */
+	public void clear() {
+		size = 0;
+		pairCount = 0;
+		foundCount = 0;
+	}
+
+	/**
+	 * Adds an object at the given position.
+	 *
+	 * The object is identified by the order it was added in.  Call {@link #build}
+	 * once all objects are added.
+	 *
+	 * @param x The x-coordinate of the object center
+	 * @param y The y-coordinate of the object center
+	 *
+	 * @return the index of the new object
+	 */
+	public int add(float x, float y) {
+		if (size == objectCell.length) {
+			int[] temp = new int[2 * size];
+			System.arraycopy(objectCell, 0, temp, 0, size);
+			objectCell = temp;
+			sorted = new int[2 * size];
+		}
+		objectCell[size] = cellOf(x, y);
+		return size++;
+	}
+
+	/**
+	 * Sorts the objects into their cells.
+	 *
+	 * This must be called after all objects are added and before any pairs
+	 * are computed.
+	 */
+	public void build() {
+		int ncells = cols * rows;
+		for (int ii = 0; ii <= ncells; ii++) {
+			cellStart[ii] = 0;
+		}
+
+		// Count the objects in each cell, then turn the counts into offsets
+		for (int ii = 0; ii < size; ii++) {
+			cellStart[objectCell[ii] + 1]++;
+		}
+		for (int ii = 0; ii < ncells; ii++) {
+			cellStart[ii + 1] += cellStart[ii];
+		}
+
+		// Place each object, using the start of its cell as a cursor
+		for (int ii = 0; ii < size; ii++) {
+			sorted[cellStart[objectCell[ii]]++] = ii;
+		}
+		// Each cursor now points at the start of the next cell, so shift everything back
+		for (int ii = ncells; ii > 0; ii--) {
+			cellStart[ii] = cellStart[ii - 1];
+		}
+		cellStart[0] = 0;
+	}
+
+	/**
+	 * Computes all candidate pairs of objects in the same or neighboring cells.
+	 *
+	 * Each unordered pair is reported exactly once.  Access the results with
+	 * {@link #getPairA} and {@link #getPairB}.
+	 *
+	 * @return the number of candidate pairs
+	 */
+	public int findPairs() {
+		pairCount = 0;
+		for (int row = 0; row < rows; row++) {
+			for (int col = 0; col < cols; col++) {
+				int cell = row * cols + col;
+				int start = cellStart[cell];
+				int end = cellStart[cell + 1];
+				if (start == end) {
+					continue;
+				}
+
+				// Pairs within this cell
+				for (int ii = start; ii < end; ii++) {
+					for (int jj = ii + 1; jj < end; jj++) {
+						addPair(sorted[ii], sorted[jj]);
+					}
+				}
+
+				// Pairs with the "forward" half of the neighbors, so that no pair is seen twice
+				if (col + 1 < cols) {
+					addPairs(start, end, cell + 1);
+				}
+				if (row + 1 < rows) {
+					if (col > 0) {
+						addPairs(start, end, cell + cols - 1);
+					}
+					addPairs(start, end, cell + cols);
+					if (col + 1 < cols) {
+						addPairs(start, end, cell + cols + 1);
+					}
+				}
+			}
+		}
+		return pairCount;
+	}
+
+	/**
+	 * Returns the first object of the given candidate pair
+	 *
+	 * @param pair The pair index (less than the value of {@link #findPairs})
+	 *
+	 * @return the first object of the given candidate pair
+	 */
+	public int getPairA(int pair) {
+		return pairs[2 * pair];
+	}
+
+	/**
+	 * Returns the second object of the given candidate pair
+	 *
+	 * @param pair The pair index (less than the value of {@link #findPairs})
+	 *
+	 * @return the second object of the given candidate pair
+	 */
+	public int getPairB(int pair) {
+		return pairs[2 * pair + 1];
+	}
+
+	/**
+	 * Finds all objects in the cells touching the given circle.
+	 *
+	 * This is a broadphase: the result contains every object within the
+	 * radius of the point (as of when it was added), but it may contain
+	 * objects further away too.  The objects are reported in the order they
+	 * were added.  Access the results with {@link #getFound}.
+	 *
+	 * @param x 		The x-coordinate of the circle center
+	 * @param y 		The y-coordinate of the circle center
+	 * @param radius	The circle radius
+	 *
+	 * @return the number of candidate objects
+	 */
+	public int query(float x, float y, float radius) {
+		foundCount = 0;
+		int col0 = clampCol((int)Math.floor((x - radius - minX) * invCellSize));
+		int col1 = clampCol((int)Math.floor((x + radius - minX) * invCellSize));
+		int row0 = clampRow((int)Math.floor((y - radius - minY) * invCellSize));
+		int row1 = clampRow((int)Math.floor((y + radius - minY) * invCellSize));
+
+		// Collect the nonempty cells
+		int cells = (row1 - row0 + 1) * (col1 - col0 + 1);
+		if (cells > runNext.length) {
+			runNext = new int[cells];
+			runEnd = new int[cells];
+		}
+		int runs = 0;
+		int total = 0;
+		for (int row = row0; row <= row1; row++) {
+			for (int col = col0; col <= col1; col++) {
+				int cell = row * cols + col;
+				if (cellStart[cell] < cellStart[cell + 1]) {
+					runNext[runs] = cellStart[cell];
+					runEnd[runs] = cellStart[cell + 1];
+					total += runEnd[runs] - runNext[runs];
+					runs++;
+				}
+			}
+		}
+		if (total > found.length) {
+			found = new int[Math.max(2 * found.length, total)];
+		}
+
+		// Merging costs about one comparison per cell for each object.  If that
+		// is more than looking at every object once, look at every object.
+		if ((long)total * runs > size) {
+			for (int ii = 0; ii < size; ii++) {
+				int row = objectCell[ii] / cols;
+				int col = objectCell[ii] - row * cols;
+				if (row >= row0 && row <= row1 && col >= col0 && col <= col1) {
+					found[foundCount++] = ii;
+				}
+			}
+			return foundCount;
+		}
+
+		// Each cell is in the order the objects were added, so merge them by object
+		while (runs > 0) {
+			int best = 0;
+			for (int ii = 1; ii < runs; ii++) {
+				if (sorted[runNext[ii]] < sorted[runNext[best]]) {
+					best = ii;
+				}
+			}
+			found[foundCount++] = sorted[runNext[best]++];
+			if (runNext[best] == runEnd[best]) {
+				runs--;
+				runNext[best] = runNext[runs];
+				runEnd[best] = runEnd[runs];
+			}
+		}
+		return foundCount;
+	}
+
+	/**
+	 * Returns the given candidate object of the last query
+	 *
+	 * @param index The result index (less than the value of {@link #query})
+	 *
+	 * @return the given candidate object of the last query
+	 */
+	public int getFound(int index) {
+		return found[index];
+	}
+
+	/**
+	 * Returns the cell containing the given position, clamped to the grid
+	 *
+	 * @param x The x-coordinate of the position
+	 * @param y The y-coordinate of the position
+	 *
+	 * @return the cell containing the given position
+	 */
+	private int cellOf(float x, float y) {
+		int col = (int)((x - minX) * invCellSize);
+		int row = (int)((y - minY) * invCellSize);
+		return clampRow(row) * cols + clampCol(col);
+	}
+
+	/**
+	 * Returns the given column, clamped to the grid
+	 *
+	 * @param col The column index
+	 *
+	 * @return the given column, clamped to the grid
+	 */
+	private int clampCol(int col) {
+		return Math.min(Math.max(col, 0), cols - 1);
+	}
+
+	/**
+	 * Returns the given row, clamped to the grid
+	 *
+	 * @param row The row index
+	 *
+	 * @return the given row, clamped to the grid
+	 */
+	private int clampRow(int row) {
+		return Math.min(Math.max(row, 0), rows - 1);
+	}
+
+	/**
+	 * Adds a pair for every object in [start,end) against every object in cell
+	 *
+	 * @param start The first sorted index of the source cell
+	 * @param end 	One past the last sorted index of the source cell
+	 * @param cell 	The neighboring cell
+	 */
+	private void addPairs(int start, int end, int cell) {
+		int nstart = cellStart[cell];
+		int nend = cellStart[cell + 1];
+		for (int ii = start; ii < end; ii++) {
+			for (int jj = nstart; jj < nend; jj++) {
+				addPair(sorted[ii], sorted[jj]);
+			}
+		}
+	}
+
+	/**
+	 * Appends a candidate pair, growing the pair buffer if necessary
+	 *
+	 * @param a The first object
+	 * @param b The second object
+	 */
+	private void addPair(int a, int b) {
+		if (2 * pairCount + 1 >= pairs.length) {
+			int[] temp = new int[2 * pairs.length];
+			System.arraycopy(pairs, 0, temp, 0, 2 * pairCount);
+			pairs = temp;
+		}
+		pairs[2 * pairCount] = a;
+		pairs[2 * pairCount + 1] = b;
+		pairCount++;
+	}
+}
@@ -17,7 +17,8 @@ public abstract class AIController {
     /** Whether the ship wishes to fire*/
     boolean pressingFire;
 
-    Random rand = new Random();
+    /** Shared random number generator from GameMode */
+    Random rand;
     float speed;
 
     protected float ACCEL = 0.025f;
@@ -25,25 +26,61 @@ public abstract class AIController {
     Vector2 dest;
     Vector2 mag;
 
+    /** Caching object for steering computations (so update does not allocate) */
+    private Vector2 steer = new Vector2();
+
+    /** Whether update decided to move the ship this tick */
+    private boolean moving;
+    /** The decided movement (see Fruit.move) */
+    private float moveUp;
+    /** The decided movement (see Fruit.move) */
+    private float moveRight;
+    /** The decided facing (see Fruit.move) */
+    private float moveAngle;
+
     protected float MAX_SPEED;
 
-    public AIController(Fruit myFruit, GameMode gameMode){
+    /**
+     * Creates a new controller without a ship.
+     *
+     * The controller must be {@link #reset} before it is used.  This allows
+     * controllers to be recycled (see AIFactory) instead of allocated.
+     */
+    protected AIController() {
+        this.dest = new Vector2();
+        this.mag = new Vector2();
+    }
+
+    /**
+     * Resets this controller to control the given ship.
+     *
+     * Subclasses with state of their own should override this method and call
+     * it first.  It draws the same random numbers as a freshly made controller.
+     *
+     * @param myFruit   the ship to control
+     * @param gameMode  the game the ship belongs to
+     */
+    public void reset(Fruit myFruit, GameMode gameMode){
         this.myFruit = myFruit;
         this.gameMode = gameMode;
+        this.rand = gameMode.getRandom();
+        this.pressingFire = false;
+        this.moving = false;
         this.speed = 0;
+        this.ACCEL = 0.025f;
         this.MAX_SPEED = 0.2f + rand.nextFloat() * 0.55f;
 
         int trackdist = 1000 + rand.nextInt(100);
 
         switch (rand.nextInt(2)) {
             case 0:
-                this.mag = new Vector2(trackdist, 0);
+                this.mag.set(trackdist, 0);
                 break;
             case 1:
-                this.mag = new Vector2(0, trackdist);
+                this.mag.set(0, trackdist);
                 break;
         }
-        this.dest = myFruit.pos.cpy().add(mag);
+        this.dest.set(myFruit.getX(), myFruit.getY()).add(mag);
         this.dest.x = Math.min(this.dest.x, gameMode.BOUND_X);
         this.dest.y = Math.min(this.dest.y, gameMode.BOUND_Y);
     }
@@ -66,32 +103,63 @@ public abstract class AIController {
     }
 
     protected void boundsDest(){
-        if (myFruit.getPosition().x <= -gameMode.BOUND_X + 20f) {
+        if (myFruit.getX() <= -gameMode.BOUND_X + 20f) {
             dest.x = -gameMode.BOUND_X - 100;
-        } else if (myFruit.getPosition().x >= gameMode.BOUND_X - 20f) {
+        } else if (myFruit.getX() >= gameMode.BOUND_X - 20f) {
             dest.x = gameMode.BOUND_X + 100;
         }
 
-        if (myFruit.getPosition().y <= -gameMode.BOUND_Y + 20f) {
+        if (myFruit.getY() <= -gameMode.BOUND_Y + 20f) {
             dest.y = -gameMode.BOUND_Y - 100;
-        } else if (myFruit.getPosition().y >= gameMode.BOUND_Y - 20f) {
+        } else if (myFruit.getY() >= gameMode.BOUND_Y - 20f) {
             dest.y = gameMode.BOUND_Y + 100;
         }
     }
 
     protected boolean atBounds(){
-        return myFruit.getPosition().x <= -gameMode.BOUND_X + 20f ||
-                myFruit.getPosition().x >= gameMode.BOUND_X - 20f||
-                myFruit.getPosition().y <= -gameMode.BOUND_Y + 20f ||
-                myFruit.getPosition().y >= gameMode.BOUND_Y - 20f;
+        return myFruit.getX() <= -gameMode.BOUND_X + 20f ||
+                myFruit.getX() >= gameMode.BOUND_X - 20f||
+                myFruit.getY() <= -gameMode.BOUND_Y + 20f ||
+                myFruit.getY() >= gameMode.BOUND_Y - 20f;
     }
 
+    /**
+     * Returns the distance from the ship to the given position
+     *
+     * @param pos the position to measure to
+     * @return the distance from the ship to pos
+     */
     protected float getDist(Vector2 pos){
-        return (float) Math.sqrt(myFruit.getPosition().cpy().sub(pos.cpy()).len2());
+        return Vector2.dst(myFruit.getX(), myFruit.getY(), pos.x, pos.y);
     }
 
+    /**
+     * Decides to move the ship by the specified amount this tick.
+     *
+     * The ship does not move until {@link #apply}.  Only the last decision in a
+     * tick counts.
+     *
+     * @param upward    Amount to move up
+     * @param rightward Amount to move right
+     * @param angle     Angle to face
+     */
+    protected void move(float upward, float rightward, float angle) {
+        moveUp = upward;
+        moveRight = rightward;
+        moveAngle = angle;
+        moving = true;
+    }
+
+    /**
+     * Moves the ship towards the given destination
+     *
+     * The ship accelerates until it is close, and then slows down.  This method
+     * does not modify dest and does not allocate.
+     *
+     * @param dest the destination
+     */
     protected void goToDest(Vector2 dest){
-        Vector2 newPos = dest.cpy().sub(myFruit.getPosition().cpy());
+        Vector2 newPos = steer.set(dest).sub(myFruit.getX(), myFruit.getY());
         float angle = -newPos.angleRad() + 0.5f;
         normalize(newPos);
         if(getDist(dest) >= MAX_SPEED/0.025f) {
@@ -101,7 +169,7 @@ public abstract class AIController {
         }
         newPos.scl(speed);
 
-        myFruit.move(newPos.x, newPos.y, angle);
+        move(newPos.x, newPos.y, angle);
     }
 
 //    protected void goToDestTurn(){
@@ -119,8 +187,17 @@ public abstract class AIController {
 //        myFruit.move(0, 0, -newPos.angleRad());
 //    }
 
+    /**
+     * Moves the ship away from the given position
+     *
+     * The ship accelerates while it is within range, and slows down otherwise.
+     * This method does not modify dest and does not allocate.
+     *
+     * @param dest the position to run from
+     * @param range the distance at which the ship stops running
+     */
     protected void runFromDest(Vector2 dest, int range){
-        Vector2 newPos = myFruit.getPosition().cpy().sub(dest.cpy());
+        Vector2 newPos = steer.set(myFruit.getX(), myFruit.getY()).sub(dest);
         normalize(newPos);
         if(getDist(dest) <= range) {
             speed = Math.min(speed + ACCEL, MAX_SPEED);
@@ -128,11 +205,17 @@ public abstract class AIController {
             speed = Math.max(speed - ACCEL, 0.001f);
         }
         newPos.scl(speed);
-        myFruit.move(newPos.x, newPos.y, -newPos.angleRad());
+        move(newPos.x, newPos.y, -newPos.angleRad());
     }
 
     /**
-     * Update the enemy ship (by one tick)
+     * Decides what the enemy ship does this tick
+     *
+     * This is the first half of an AI tick, and may run in parallel with the
+     * other controllers (see AIStage).  It may read the player and its own ship,
+     * and write its own state and the AI flags of its own ship (stun, spikes).
+     * It must not touch anything else.  In particular, movement is only
+     * recorded (see {@link #move}) and happens in {@link #apply}.
      *
      * @param frameCount how many frames have elapsed
      */
@@ -152,6 +235,19 @@ public abstract class AIController {
         }
      }
 
+    /**
+     * Carries out the movement decided by the last update
+     *
+     * This is the second half of an AI tick.  It is always called serially, in
+     * slot order, so it may touch shared state.
+     */
+    public void apply() {
+        if (moving) {
+            myFruit.move(moveUp, moveRight, moveAngle);
+            moving = false;
+        }
+    }
+
     /**
      * Set whether or not this ship wants to fire
      * @param toFire whether to fire
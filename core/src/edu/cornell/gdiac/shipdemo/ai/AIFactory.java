@@ -1,19 +1,152 @@
 package edu.cornell.gdiac.shipdemo.ai;
 
-import edu.cornell.gdiac.shipdemo.Fruit;
-import edu.cornell.gdiac.shipdemo.GameMode;
+import com.badlogic.gdx.utils.Pool;
+import edu.cornell.gdiac.shipdemo.*;
 
+/**
+ * Makes the enemy ships and their AI controllers.
+ *
+ * Ships are spawned and killed constantly, so the factory recycles them.  A ship
+ * and its controller are returned to the factory with {@link #free} when the ship
+ * dies, and the next spawn of the same type resets them instead of allocating.
+ * Each game should have its own factory.
+ */
 public class AIFactory {
-    public static AIController makeAI(Fruit myFruit, GameMode game){
+    /** The game the ships belong to */
+    private GameMode game;
 
+    /** Recycled apples */
+    private Pool<Apple> apples = new Pool<Apple>() {
+        protected Apple newObject() {
+            return new Apple(0, 0, 0, 1, 0);
+        }
+    };
+    /** Recycled oranges */
+    private Pool<Orange> oranges = new Pool<Orange>() {
+        protected Orange newObject() {
+            return new Orange(0, 0, 0, 1, 0);
+        }
+    };
+    /** Recycled strawberries */
+    private Pool<Strawberry> strawberries = new Pool<Strawberry>() {
+        protected Strawberry newObject() {
+            return new Strawberry(0, 0, 0, 1, 0);
+        }
+    };
+    /** Recycled apple controllers */
+    private Pool<AppleController> appleAI = new Pool<AppleController>() {
+        protected AppleController newObject() {
+            return new AppleController();
+        }
+    };
+    /** Recycled orange controllers */
+    private Pool<OrangeController> orangeAI = new Pool<OrangeController>() {
+        protected OrangeController newObject() {
+            return new OrangeController();
+        }
+    };
+    /** Recycled strawberry controllers */
+    private Pool<StrawberryController> strawberryAI = new Pool<StrawberryController>() {
+        protected StrawberryController newObject() {
+            return new StrawberryController();
+        }
+    };
+
+    /**
+     * Creates a factory for the ships of the given game
+     *
+     * @param game  The game the ships belong to
+     */
+    public AIFactory(GameMode game) {
+        this.game = game;
+    }
+
+    /**
+     * Returns a new ship of the given type at the given location with the given facing.
+     *
+     * The textures of the ship are whatever they were when it was last used,
+     * so they should be set by the caller.
+     *
+     * @param type  The ship type
+     * @param x     The initial x-coordinate of the center
+     * @param y     The initial y-coordinate of the center
+     * @param ang   The initial angle of rotation
+     * @param size  The size scaling of this ship
+     * @param id    The ship handle
+     *
+     * @return a new ship of the given type
+     */
+    public Fruit makeFruit(FruitType type, float x, float y, float ang, float size, int id) {
+        Fruit fruit;
+        switch (type) {
+            case APPLE:
+                fruit = apples.obtain();
+                break;
+            case ORANGE:
+                fruit = oranges.obtain();
+                break;
+            case STRAWBERRY:
+                fruit = strawberries.obtain();
+                break;
+            default:
+                throw new AssertionError();
+        }
+        fruit.reset(x, y, ang, size, id);
+        return fruit;
+    }
+
+    /**
+     * Returns a new AI controller for the given ship
+     *
+     * @param myFruit   The ship to control
+     *
+     * @return a new AI controller for the given ship
+     */
+    public AIController makeAI(Fruit myFruit){
+        AIController controller;
         switch (myFruit.getType()){
             case ORANGE:
-                return new OrangeController(myFruit, game);
+                controller = orangeAI.obtain();
+                break;
             case APPLE:
-                return new AppleController(myFruit, game);
+                controller = appleAI.obtain();
+                break;
             case STRAWBERRY:
-                return new StrawberryController(myFruit, game);
+                controller = strawberryAI.obtain();
+                break;
+            default:
+                return null;
+        }
+        controller.reset(myFruit, game);
+        return controller;
+    }
+
+    /**
+     * Recycles a dead ship and its AI controller.
+     *
+     * Neither object may be used again until it is returned by this factory.
+     *
+     * @param fruit         The dead ship
+     * @param controller    The controller of the dead ship (may be null)
+     */
+    public void free(Fruit fruit, AIController controller) {
+        switch (fruit.getType()) {
+            case APPLE:
+                apples.free((Apple)fruit);
+                break;
+            case ORANGE:
+                oranges.free((Orange)fruit);
+                break;
+            case STRAWBERRY:
+                strawberries.free((Strawberry)fruit);
+                break;
+        }
+        if (controller instanceof AppleController) {
+            appleAI.free((AppleController)controller);
+        } else if (controller instanceof OrangeController) {
+            orangeAI.free((OrangeController)controller);
+        } else if (controller instanceof StrawberryController) {
+            strawberryAI.free((StrawberryController)controller);
         }
-        return null;
     }
 }
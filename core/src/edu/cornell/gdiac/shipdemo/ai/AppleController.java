@@ -5,18 +5,21 @@ import edu.cornell.gdiac.shipdemo.GameMode;
 import edu.cornell.gdiac.shipdemo.ai.AIController;
 
 public class AppleController extends AIController {
+    public AppleController() {
+        super();
+    }
+
     public AppleController(Fruit myFruit, GameMode game){
-        super(myFruit, game);
+        this();
+        reset(myFruit, game);
     }
 
     @Override
     public void update(int frameCount) {
         if (myFruit.isStunned){
-            myFruit.ang += 10;
-            myFruit.ang %= 360;
-            myFruit.stunTimer -= frameCount;
-            myFruit.stunTimer = Math.max(myFruit.stunTimer, 0);
-            myFruit.isStunned = (myFruit.stunTimer != 0);
+            myFruit.setAngle((myFruit.getAngle() + 10) % 360);
+            myFruit.setStunTimer(Math.max(myFruit.getStunTimer() - frameCount, 0));
+            myFruit.isStunned = (myFruit.getStunTimer() != 0);
             return;
         }
 
@@ -46,16 +46,28 @@ public class OrangeController extends AIController {
     }
     /** The ship's current state in the FSM */
     private FSMState state;
-    private Vector2 distance;
+    /** Caching object for the offset to the destination */
+    private Vector2 distance = new Vector2();
     private int wait;
     private int cooldown_wait;
     private boolean waiting=false;
     private boolean cooldown;
     private int time;
 
+    public OrangeController() {
+        super();
+    }
+
     public OrangeController(Fruit myFruit, GameMode game){
-        super(myFruit, game);
+        this();
+        reset(myFruit, game);
+    }
+
+    @Override
+    public void reset(Fruit myFruit, GameMode game){
+        super.reset(myFruit, game);
         this.state=FSMState.SPAWN;
+        this.waiting=false;
         this.speed=1.5f;
         this.cooldown=false;
         this.wait=0;
@@ -90,16 +102,14 @@ public class OrangeController extends AIController {
         public void update (int frameCount){
 
             if (myFruit.isStunned){
-                myFruit.ang += 10;
-                myFruit.ang %= 360;
-                myFruit.stunTimer -= frameCount;
-                myFruit.stunTimer = Math.max(myFruit.stunTimer, 0);
-                myFruit.isStunned = (myFruit.stunTimer != 0);
+                myFruit.setAngle((myFruit.getAngle() + 10) % 360);
+                myFruit.setStunTimer(Math.max(myFruit.getStunTimer() - frameCount, 0));
+                myFruit.isStunned = (myFruit.getStunTimer() != 0);
                 return;
             }
 
             // distance to monkey
-            distance = myFruit.getPosition().cpy().sub(this.dest);
+            distance.set(myFruit.getX(), myFruit.getY()).sub(this.dest);
             float d = distance.len();
             if(cooldown_wait>300){
                 cooldown=false;
@@ -110,7 +120,7 @@ public class OrangeController extends AIController {
             switch (state) {
                 case SPAWN:
                     myFruit.setSpiked(false);
-                    this.dest = gameMode.playerMonkey.getPosition().cpy();
+                    this.dest.set(gameMode.playerMonkey.getPosition());
                     speed = 0f;
                     wait=0;
                     if (d>100||cooldown){
@@ -125,9 +135,9 @@ public class OrangeController extends AIController {
                     break;
                 case WANDER:
                     MAX_SPEED = 0.5f;
-                    this.dest = gameMode.playerMonkey.getPosition().cpy();
+                    this.dest.set(gameMode.playerMonkey.getPosition());
                     myFruit.setSpiked(false);
-                    runFromDest(gameMode.playerMonkey.getPosition().cpy(),500);
+                    runFromDest(gameMode.playerMonkey.getPosition(),500);
                      if(d<=500 &&!cooldown){
                       wait=0;
                       state=FSMState.CHASE;
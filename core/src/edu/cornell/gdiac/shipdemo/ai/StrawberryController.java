@@ -16,11 +16,23 @@ public class StrawberryController extends AIController {
 
     private int phaseFrames = 0;
 
+    public StrawberryController() {
+        super();
+    }
+
     public StrawberryController(Fruit myFruit, GameMode game){
-        super(myFruit, game);
-        this.dest = gameMode.playerMonkey.getPosition().cpy();
+        this();
+        reset(myFruit, game);
+    }
+
+    @Override
+    public void reset(Fruit myFruit, GameMode game){
+        super.reset(myFruit, game);
+        this.dest.set(gameMode.playerMonkey.getPosition());
         this.MAX_SPEED = 0.8f;
         this.ACCEL = 0.025f;
+        this.act = Action.STAY;
+        this.phaseFrames = 0;
     }
 
     private void switchState(Action a){
@@ -68,11 +80,9 @@ public class StrawberryController extends AIController {
     public void update(int frameCount) {
 
         if (myFruit.isStunned){
-            myFruit.ang += 10;
-            myFruit.ang %= 360;
-            myFruit.stunTimer -= frameCount;
-            myFruit.stunTimer = Math.max(myFruit.stunTimer, 0);
-            myFruit.isStunned = (myFruit.stunTimer != 0);
+            myFruit.setAngle((myFruit.getAngle() + 10) % 360);
+            myFruit.setStunTimer(Math.max(myFruit.getStunTimer() - frameCount, 0));
+            myFruit.isStunned = (myFruit.getStunTimer() != 0);
             return;
         }
 
@@ -84,15 +94,15 @@ public class StrawberryController extends AIController {
             case RUN:
                 setFire(false);
                 speed = Math.min(speed + 0.05f, MAX_SPEED);
-                dest = gameMode.playerMonkey.getPosition().cpy();
+                dest.set(gameMode.playerMonkey.getPosition());
                 runFromDest(dest, 500);
                 break;
             case SHOOT:
-                dest = gameMode.playerMonkey.getPosition().cpy();
+                dest.set(gameMode.playerMonkey.getPosition());
                 if(speed <= 0.01) {
-                    dest = dest.sub(myFruit.getPosition());
+                    dest.sub(myFruit.getX(), myFruit.getY());
                     normalize(dest);
-                    dest.add(myFruit.getPosition());
+                    dest.add(myFruit.getX(), myFruit.getY());
                     setFire(true);
                     goToDest(dest);
                 }else{
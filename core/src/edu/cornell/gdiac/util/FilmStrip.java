@@ -51,6 +51,11 @@ public class FilmStrip extends TextureRegion {
 	
 	/** The active animation frame */
 	private int frame;
+
+	/** The x-coordinate of the filmstrip in its texture (non-zero if packed in an atlas) */
+	private int left;
+	/** The y-coordinate of the filmstrip in its texture (non-zero if packed in an atlas) */
+	private int top;
 	
 	/**
 	 * Creates a new filmstrip from the given texture.
@@ -76,7 +81,40 @@ public class FilmStrip extends TextureRegion {
 	 * @param size The number of frames in the filmstrip
 	 */
 	public FilmStrip(Texture texture, int rows, int cols, int size) {
-		super(texture);
+		this(new TextureRegion(texture),rows,cols,size);
+	}
+
+	/**
+	 * Creates a new filmstrip from the given texture region.
+	 *
+	 * This is for a filmstrip packed into a texture atlas.  The frames are
+	 * taken from the region only, not the entire texture.
+	 *
+	 * @param region The texture region to use
+	 * @param rows The number of rows in the filmstrip
+	 * @param cols The number of columns in the filmstrip
+	 */
+	public FilmStrip(TextureRegion region, int rows, int cols) {
+		this(region,rows,cols,rows*cols);
+	}
+
+	/**
+	 * Creates a new filmstrip from the given texture region.
+	 *
+	 * This is for a filmstrip packed into a texture atlas.  The frames are
+	 * taken from the region only, not the entire texture.
+	 *
+	 * The parameter size is to indicate that there are unused frames in
+	 * the filmstrip.  The value size must be less than or equal to
+	 * rows*cols, or this constructor will raise an error.
+	 *
+	 * @param region The texture region to use
+	 * @param rows The number of rows in the filmstrip
+	 * @param cols The number of columns in the filmstrip
+	 * @param size The number of frames in the filmstrip
+	 */
+	public FilmStrip(TextureRegion region, int rows, int cols, int size) {
+		super(region);
 		if (size > rows*cols) {
 			Gdx.app.error("FilmStrip", "Invalid strip size", new IllegalArgumentException());
 			return;
@@ -84,8 +122,10 @@ public class FilmStrip extends TextureRegion {
 		this.rows = rows;
 		this.cols = cols;
 		this.size = size;
-		rwidth  = texture.getWidth()/cols;
-		rheight = texture.getHeight()/rows;
+		left = region.getRegionX();
+		top  = region.getRegionY();
+		rwidth  = region.getRegionWidth()/cols;
+		rheight = region.getRegionHeight()/rows;
 		setFrame(0);
 	}
 	
@@ -122,7 +162,7 @@ public class FilmStrip extends TextureRegion {
 		this.frame = frame;
 		int x = (frame % cols)*rwidth;
 		int y = (frame / cols)*rheight;
-		setRegion(x,y,rwidth,rheight);
+		setRegion(left+x,top+y,rwidth,rheight);
 	}
 
 	/**
@@ -135,7 +175,7 @@ public class FilmStrip extends TextureRegion {
 	 * @return a copy of this filmstrip
 	 */
 	public FilmStrip copy() {
-		return new FilmStrip( getTexture(), rows, cols, size );
+		return new FilmStrip( new TextureRegion( getTexture(), left, top, cols*rwidth, rows*rheight ), rows, cols, size );
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+/*
+ * AllocationCheck.java
+ *
+ * This checks that an AI tick does not allocate.  Each controller is ticked
+ * until the JIT has compiled it, and then ticked again while the bytes this
+ * thread allocates are counted.  Any allocation fails the check with a nonzero
+ * exit status, so that it can run as part of the build.
+ *
+ * The ticks are set up as in AIBenchmark: one ship of each type next to the
+ * player, put back at its starting position before each tick.
+ *
+ * Usage: AllocationCheck [ticks]
+ */
+package edu.cornell.gdiac.shipdemo.desktop;
+
+import edu.cornell.gdiac.shipdemo.FruitType;
+import edu.cornell.gdiac.shipdemo.GameMode;
+import edu.cornell.gdiac.shipdemo.Simulation;
+import edu.cornell.gdiac.shipdemo.ai.AIController;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * The main class of the AI allocation check.
+ *
+ * This class reports the bytes allocated by the ticks of each controller, and
+ * exits with status 1 if any of them allocated.
+ */
+public class AllocationCheck {
+	/** Default number of ticks to count per controller */
+	private static final int DEFAULT_TICKS = 10000;
+	/** Number of ticks to run before counting, so that the JIT has compiled them */
+	private static final int WARMUP_TICKS = 20000;
+	/** Distance from the player to each ship (within range of all behaviors) */
+	private static final float DISTANCE = 250;
+
+	/**
+	 * Classic main method that all Java programmers know.
+	 *
+	 * @param arg Command line arguments
+	 */
+	public static void main (String[] arg) {
+		int ticks = arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_TICKS;
+
+		com.sun.management.ThreadMXBean threads =
+			(com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemorySupported()) {
+			System.err.println("This JVM cannot count the bytes allocated by a thread");
+			System.exit(1);
+		}
+		threads.setThreadAllocatedMemoryEnabled(true);
+		long thread = Thread.currentThread().getId();
+
+		GameMode game = new GameMode(Simulation.DEFAULT_WIDTH, Simulation.DEFAULT_HEIGHT, 0L);
+		FruitType[] types = { FruitType.APPLE, FruitType.ORANGE, FruitType.STRAWBERRY };
+		float[] startX = { DISTANCE, 0, -DISTANCE };
+		float[] startY = { 0, DISTANCE, 0 };
+		AIController[] controllers = new AIController[types.length];
+		for (int ii = 0; ii < types.length; ii++) {
+			controllers[ii] = game.getAIController(game.spawn(startX[ii], startY[ii], types[ii]));
+		}
+
+		boolean failed = false;
+		for (int ii = 0; ii < controllers.length; ii++) {
+			tick(controllers[ii], startX[ii], startY[ii], WARMUP_TICKS);
+			long before = threads.getThreadAllocatedBytes(thread);
+			tick(controllers[ii], startX[ii], startY[ii], ticks);
+			long bytes = threads.getThreadAllocatedBytes(thread) - before;
+
+			System.out.printf("%s: %d bytes in %d ticks%n", types[ii], bytes, ticks);
+			failed |= bytes > 0;
+		}
+		if (failed) {
+			System.err.println("AI ticks allocated memory");
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Runs the given number of ticks (update and apply) of a controller
+	 *
+	 * @param controller	The controller to tick
+	 * @param x				The x-coordinate to put the ship at before each tick
+	 * @param y				The y-coordinate to put the ship at before each tick
+	 * @param ticks			The number of ticks
+	 */
+	private static void tick(AIController controller, float x, float y, int ticks) {
+		for (int ii = 1; ii <= ticks; ii++) {
+			controller.getFruit().setPosition(x, y);
+			controller.update(ii);
+			controller.apply();
+		}
+	}
+}
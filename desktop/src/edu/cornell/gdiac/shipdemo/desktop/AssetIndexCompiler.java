@@ -0,0 +1,48 @@
+/*
+ * AssetIndexCompiler.java
+ *
+ * This is the build step that precompiles the asset directories of the game into
+ * binary indices (see AssetIndex).  It runs the parsers of AssetDirectory over
+ * each directory JSON, and writes the result next to the JSON.  The game does not
+ * need the indices to run; without them (or with stale ones) it parses the JSON.
+ *
+ * Usage: AssetIndexCompiler [directory.json ...]
+ */
+package edu.cornell.gdiac.shipdemo.desktop;
+
+import com.badlogic.gdx.files.FileHandle;
+import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.assets.AssetIndex;
+
+import java.io.IOException;
+
+/**
+ * The main class of the asset index build step.
+ *
+ * File names are relative to the working directory, which should be the assets
+ * folder.
+ */
+public class AssetIndexCompiler {
+	/** The asset directories of the game */
+	private static final String[] DEFAULT_DIRECTORIES = { "loading.json", "assets.json" };
+
+	/**
+	 * Classic main method that all Java programmers know.
+	 *
+	 * @param arg Command line arguments
+	 */
+	public static void main (String[] arg) throws IOException {
+		String[] names = arg.length > 0 ? arg : DEFAULT_DIRECTORIES;
+		for (String name : names) {
+			FileHandle json = new FileHandle(name);
+			FileHandle index = AssetIndex.locate(json);
+			AssetDirectory directory = new AssetDirectory(name);
+			try {
+				AssetIndex.compile(json, directory.getParsers()).write(index);
+			} finally {
+				directory.dispose();
+			}
+			System.out.println(json.path()+" -> "+index.path()+" ("+index.length()+" bytes)");
+		}
+	}
+}
@@ -30,14 +30,38 @@ public class DesktopLauncher {
 	 * This method simply exists to start a new GDXApp. For desktop games,
 	 * LibGDX is built on top of LWJGL (this is not the case for Android).
 	 *
+	 * Passing "-threaded" updates the game on its own thread (see SimulationThread).
+	 * Passing "-frametimes=FILE" writes the frame time percentiles to FILE on
+	 * exit, and "-budget=MS" logs every frame that takes longer than MS
+	 * milliseconds (see FrameProfiler).
+	 *
 	 * @param arg Command line arguments
 	 */
 	public static void main (String[] arg) {
+		boolean threaded = false;
+		String frametimes = null;
+		float budget = 0;
+		for (String a : arg) {
+			if (a.equals("-threaded")) {
+				threaded = true;
+			} else if (a.startsWith("-frametimes=")) {
+				frametimes = a.substring("-frametimes=".length());
+			} else if (a.startsWith("-budget=")) {
+				budget = Float.parseFloat(a.substring("-budget=".length()));
+			}
+		}
+
 		Lwjgl3ApplicationConfiguration config = new Lwjgl3ApplicationConfiguration();
 		config.setWindowedMode( 1280, 800 );
 		config.setResizable( true );
 		config.setTitle("Munchkey Prototype");
-		config.setForegroundFPS(60);
-		new Lwjgl3Application(new GDXRoot(), config);
+		// The game runs at a fixed tick rate whatever the frame rate (see GDXRoot)
+		config.useVsync(true);
+		config.setForegroundFPS(0);
+
+		GDXRoot root = new GDXRoot(threaded);
+		root.setProfileFile(frametimes);
+		root.getProfiler().setBudget((long)(budget * 1000000));
+		new Lwjgl3Application(root, config);
 	}
 }
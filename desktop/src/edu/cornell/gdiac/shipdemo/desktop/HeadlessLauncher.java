@@ -0,0 +1,52 @@
+/*
+ * HeadlessLauncher.java
+ *
+ * This launcher runs the game simulation without opening a window.  It is for
+ * measuring how fast the game logic runs and for checking that a change to the
+ * game loop did not change the game behavior.  Nothing is drawn and no input
+ * is read; the game is stepped at a fixed time step as fast as possible.
+ *
+ * Usage: HeadlessLauncher [ticks] [seed] [maxFruits] [parallelAI]
+ */
+package edu.cornell.gdiac.shipdemo.desktop;
+
+import edu.cornell.gdiac.shipdemo.Simulation;
+
+/**
+ * The main class of the headless simulation.
+ *
+ * This class parses the command line, runs the simulation and reports the
+ * throughput in ticks per second, together with a hash of the final state.
+ */
+public class HeadlessLauncher {
+	/** Default number of ticks to simulate (one minute of game time) */
+	private static final int DEFAULT_TICKS = 3600;
+	/** Default seed for the simulation */
+	private static final long DEFAULT_SEED = 0L;
+	/** Default maximum number of enemy ships */
+	private static final int DEFAULT_FRUITS = 25;
+
+	/**
+	 * Classic main method that all Java programmers know.
+	 *
+	 * @param arg Command line arguments
+	 */
+	public static void main (String[] arg) {
+		int ticks = arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_TICKS;
+		long seed = arg.length > 1 ? Long.parseLong(arg[1]) : DEFAULT_SEED;
+		int fruits = arg.length > 2 ? Integer.parseInt(arg[2]) : DEFAULT_FRUITS;
+		boolean parallel = arg.length > 3 ? Boolean.parseBoolean(arg[3]) : true;
+
+		Simulation sim = new Simulation(seed, fruits);
+		sim.getGame().setParallelAI(parallel);
+		long start = System.nanoTime();
+		sim.step(ticks);
+		long elapsed = System.nanoTime() - start;
+
+		double seconds = elapsed / 1.0e9;
+		System.out.printf("%d ticks (%.1f s game time) in %.3f s: %.1f ticks/s%n",
+						  sim.getTicks(), sim.getTime(), seconds, sim.getTicks() / seconds);
+		System.out.printf("seed %d, %d fruits alive, state hash %016x%n",
+						  sim.getSeed(), sim.getGame().getFruits().size(), sim.stateHash());
+	}
+}